@@ -0,0 +1,378 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * BatchRunner
+ *
+ * Headless mode: replays a script of order commands against RegisterEngine/OrderSession at full
+ * speed (walang menus, walang prompts) and reports throughput + latency percentiles.
+ *
+ * Script format (one command per line, '#' = comment, numbers are 1-based like sa console):
+ *   cashier <name>
+ *   add <item> <addon> <qty>
+ *   update <line> <qty>
+ *   remove <line>
+ *   checkout <payment>
+ *   cancel
+ *
+ * Usage: java TapsilogCashRegister --batch orders.txt [--repeat N] [--terminals N]
+ *
+ * // The script is compiled into a flat long[] program before the clock starts, so parsing is not
+ * // part of the measurement. Latency = time from an order's first command to its checkout.
+ * // With --terminals, each terminal is a virtual thread with its own OrderSession replaying the
+ * // script against the one shared engine/journal; afterwards every transaction ID handed out is
+ * // checked for duplicates/gaps, and checked against the journal index (nothing lost).
+ */
+final class BatchRunner {
+
+    // --- OPCODES ---
+    static final int OP_CASHIER = 1;
+    static final int OP_ADD = 2;
+    static final int OP_UPDATE = 3;
+    static final int OP_REMOVE = 4;
+    static final int OP_CHECKOUT = 5;
+    static final int OP_CANCEL = 6;
+
+    private static final int SLOTS = 4; // opcode + up to 3 args
+
+    private final long[] program;
+    private final int opCount;
+    private final String[] cashiers;
+    private final int orderCount;
+
+    private BatchRunner(long[] program, int opCount, String[] cashiers, int orderCount) {
+        this.program = program;
+        this.opCount = opCount;
+        this.cashiers = cashiers;
+        this.orderCount = orderCount;
+    }
+
+    int orderCount() {
+        return orderCount;
+    }
+
+    // --- ENTRY POINT ---
+    // Returns the process exit code (0 = ok, 1 = bad script/usage).
+    static int run(String[] args) {
+        String script = null;
+        int repeat = 1;
+        int terminals = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--batch") && i + 1 < args.length) {
+                    script = args[++i];
+                } else if (args[i].equals("--repeat") && i + 1 < args.length) {
+                    repeat = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--terminals") && i + 1 < args.length) {
+                    terminals = Integer.parseInt(args[++i]);
+                }
+            }
+        } catch (NumberFormatException e) {
+            script = null;
+        }
+        if (script == null || repeat < 1 || terminals < 0) {
+            System.out.println("Usage: java TapsilogCashRegister --batch <script> [--repeat N] [--terminals N]");
+            return 1;
+        }
+        BatchRunner runner;
+        try {
+            runner = compile(new File(script));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Problem reading batch script: " + e.getMessage());
+            return 1;
+        }
+
+        return terminals == 0 ? runSingle(runner, repeat) : runTerminals(runner, repeat, terminals);
+    }
+
+    // One session on the calling thread.
+    private static int runSingle(BatchRunner runner, int repeat) {
+        RegisterEngine engine = new RegisterEngine();
+        engine.start();
+        OrderSession session = new OrderSession(engine, "batch");
+        long[] latencies = new long[runner.orderCount() * repeat];
+        int[] ids = new int[latencies.length];
+        long start = System.nanoTime();
+        int rejected = 0;
+        int completed = 0;
+        for (int r = 0; r < repeat; r++) {
+            Result result = runner.execute(session, latencies, ids, completed);
+            completed += result.completed;
+            rejected += result.rejected;
+        }
+        long executed = System.nanoTime() - start;
+        engine.close();
+        long flushed = System.nanoTime() - start;
+
+        report(completed, rejected, executed, flushed, Arrays.copyOf(latencies, completed));
+        return 0;
+    }
+
+    // N terminals, one virtual thread + OrderSession each, all sharing one engine and journal.
+    private static int runTerminals(BatchRunner runner, int repeat, int terminals) {
+        RegisterEngine engine = new RegisterEngine();
+        engine.start();
+        int perTerminal = runner.orderCount() * repeat;
+        long[][] latencies = new long[terminals][perTerminal];
+        int[][] ids = new int[terminals][perTerminal];
+        int[] completed = new int[terminals];
+        int[] rejected = new int[terminals];
+        Thread[] threads = new Thread[terminals];
+
+        long start = System.nanoTime();
+        for (int t = 0; t < terminals; t++) {
+            final int terminal = t;
+            threads[t] = Thread.ofVirtual().name("terminal-" + (t + 1)).start(() -> {
+                OrderSession session = new OrderSession(engine, "terminal" + (terminal + 1));
+                for (int r = 0; r < repeat; r++) {
+                    Result result = runner.execute(session, latencies[terminal], ids[terminal], completed[terminal]);
+                    completed[terminal] += result.completed;
+                    rejected[terminal] += result.rejected;
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.out.println("Interrupted while waiting for terminals.");
+                engine.close();
+                return 1;
+            }
+        }
+        long executed = System.nanoTime() - start;
+        engine.close();
+        long flushed = System.nanoTime() - start;
+
+        int totalCompleted = 0;
+        int totalRejected = 0;
+        for (int t = 0; t < terminals; t++) {
+            totalCompleted += completed[t];
+            totalRejected += rejected[t];
+        }
+        long[] allLatencies = new long[totalCompleted];
+        int[] allIds = new int[totalCompleted];
+        int pos = 0;
+        for (int t = 0; t < terminals; t++) {
+            System.arraycopy(latencies[t], 0, allLatencies, pos, completed[t]);
+            System.arraycopy(ids[t], 0, allIds, pos, completed[t]);
+            pos += completed[t];
+        }
+        System.out.println("\nTerminals          : " + terminals);
+        report(totalCompleted, totalRejected, executed, flushed, allLatencies);
+        return verifyIds(engine, allIds) ? 0 : 1;
+    }
+
+    // No duplicate, no gap in the IDs handed out, and every one of them made it into the journal index.
+    static boolean verifyIds(RegisterEngine engine, int[] ids) {
+        if (ids.length == 0) return true;
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int duplicates = 0;
+        int gaps = 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) duplicates++;
+            else if (sorted[i] != sorted[i - 1] + 1) gaps += sorted[i] - sorted[i - 1] - 1;
+        }
+        int first = sorted[0];
+        int last = sorted[sorted.length - 1];
+        BitSet journaled = new BitSet(last - first + 1);
+        int journalDuplicates = 0;
+        try (TransactionIndex index = TransactionIndex.open(
+                engine.logFile(), engine.indexFile(), JournalFormat.named(engine.journalFormat().name()))) {
+            for (long r = index.recordCount() - 1; r >= 0; r--) {
+                int id = index.idOf(r);
+                if (id < first || id > last) continue;
+                if (journaled.get(id - first)) journalDuplicates++;
+                journaled.set(id - first);
+            }
+            // Rotated mid-run: the rest are in sealed segments' indexes.
+            JournalArchive archive = engine.journalArchive();
+            if (archive != null) {
+                for (JournalArchive.Segment segment : archive.segments()) {
+                    if (!segment.containsIds(first, last)) continue;
+                    try (TransactionIndex sealed = TransactionIndex.openSealed(archive.indexFile(segment.sequence))) {
+                        for (long r = sealed.recordCount() - 1; r >= 0; r--) {
+                            int id = sealed.idOf(r);
+                            if (id < first || id > last) continue;
+                            if (journaled.get(id - first)) journalDuplicates++;
+                            journaled.set(id - first);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Problem reading transaction index: " + e.getMessage());
+            return false;
+        }
+        int missing = (last - first + 1) - journaled.cardinality();
+        System.out.println("ID range           : " + first + " - " + last);
+        System.out.println("Duplicate IDs      : " + duplicates);
+        System.out.println("Gaps in IDs        : " + gaps);
+        System.out.println("Missing in journal : " + missing);
+        System.out.println("Journal duplicates : " + journalDuplicates);
+        boolean ok = duplicates == 0 && gaps == 0 && missing == 0 && journalDuplicates == 0;
+        System.out.println(ok ? "ID check           : OK" : "ID check           : FAILED");
+        return ok;
+    }
+
+    static final class Result {
+        int completed;
+        int rejected;
+    }
+
+    // Run the compiled program once. Per-order latencies (ns) and transaction IDs go into
+    // latencies[offset...] and ids[offset...].
+    Result execute(OrderSession session, long[] latencies, int[] ids, int offset) {
+        Result result = new Result();
+        long orderStart = 0;
+        boolean inOrder = false;
+        for (int op = 0; op < opCount; op++) {
+            int base = op * SLOTS;
+            int code = (int) program[base];
+            if (!inOrder && code != OP_CASHIER) {
+                orderStart = System.nanoTime();
+                inOrder = true;
+            }
+            int status;
+            switch (code) {
+                case OP_CASHIER:
+                    session.setCashier(cashiers[(int) program[base + 1]]);
+                    status = OrderSession.OK;
+                    break;
+                case OP_ADD:
+                    status = session.addItem((int) program[base + 1], (int) program[base + 2], (int) program[base + 3]);
+                    break;
+                case OP_UPDATE:
+                    status = session.updateQuantity((int) program[base + 1], (int) program[base + 2]);
+                    break;
+                case OP_REMOVE:
+                    status = session.removeItem((int) program[base + 1]);
+                    break;
+                case OP_CHECKOUT:
+                    status = session.checkout(program[base + 1]);
+                    if (status == OrderSession.OK) {
+                        latencies[offset + result.completed] = System.nanoTime() - orderStart;
+                        ids[offset + result.completed++] = session.lastTransactionId();
+                        inOrder = false;
+                    }
+                    break;
+                case OP_CANCEL:
+                    session.cancel();
+                    inOrder = false;
+                    status = OrderSession.OK;
+                    break;
+                default:
+                    status = -1;
+            }
+            if (status != OrderSession.OK) result.rejected++;
+        }
+        return result;
+    }
+
+    // --- SCRIPT COMPILER ---
+    static BatchRunner compile(File script) throws IOException {
+        long[] program = new long[64 * SLOTS];
+        int ops = 0;
+        int orders = 0;
+        List<String> cashiers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(script), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\s+");
+                if ((ops + 1) * SLOTS > program.length) program = Arrays.copyOf(program, program.length * 2);
+                int base = ops * SLOTS;
+                try {
+                    switch (parts[0].toLowerCase()) {
+                        case "cashier":
+                            expect(parts, 2, lineNo);
+                            int idx = cashiers.indexOf(parts[1]);
+                            if (idx < 0) {
+                                idx = cashiers.size();
+                                cashiers.add(parts[1]);
+                            }
+                            program[base] = OP_CASHIER;
+                            program[base + 1] = idx;
+                            break;
+                        case "add":
+                            expect(parts, 4, lineNo);
+                            program[base] = OP_ADD;
+                            program[base + 1] = Integer.parseInt(parts[1]) - 1;
+                            program[base + 2] = Integer.parseInt(parts[2]) - 1;
+                            program[base + 3] = Integer.parseInt(parts[3]);
+                            break;
+                        case "update":
+                            expect(parts, 3, lineNo);
+                            program[base] = OP_UPDATE;
+                            program[base + 1] = Integer.parseInt(parts[1]) - 1;
+                            program[base + 2] = Integer.parseInt(parts[2]);
+                            break;
+                        case "remove":
+                            expect(parts, 2, lineNo);
+                            program[base] = OP_REMOVE;
+                            program[base + 1] = Integer.parseInt(parts[1]) - 1;
+                            break;
+                        case "checkout":
+                            expect(parts, 2, lineNo);
+                            program[base] = OP_CHECKOUT;
+                            program[base + 1] = Money.parse(parts[1]);
+                            orders++;
+                            break;
+                        case "cancel":
+                            program[base] = OP_CANCEL;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown command '" + parts[0] + "' on line " + lineNo);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad number on line " + lineNo + ": " + e.getMessage());
+                }
+                ops++;
+            }
+        }
+        return new BatchRunner(program, ops, cashiers.toArray(new String[0]), orders);
+    }
+
+    private static void expect(String[] parts, int count, int lineNo) {
+        if (parts.length != count) {
+            throw new IllegalArgumentException("'" + parts[0] + "' needs " + (count - 1) + " argument(s) on line " + lineNo);
+        }
+    }
+
+    // --- REPORT ---
+    static void report(int completed, int rejected, long executedNanos, long totalNanos, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.println("\n===============================");
+        System.out.println("   BATCH RUN SUMMARY");
+        System.out.println("===============================");
+        System.out.println("Orders checked out : " + completed);
+        System.out.println("Rejected commands  : " + rejected);
+        System.out.printf("Elapsed (engine)   : %.3f ms%n", executedNanos / 1e6);
+        System.out.printf("Elapsed (+flush)   : %.3f ms%n", totalNanos / 1e6);
+        System.out.printf("Throughput         : %.0f orders/sec (%.0f incl. journal flush)%n",
+                completed / (executedNanos / 1e9), completed / (totalNanos / 1e9));
+        if (latencies.length > 0) {
+            System.out.printf("Latency p50        : %.2f us%n", percentile(latencies, 50.0) / 1e3);
+            System.out.printf("Latency p90        : %.2f us%n", percentile(latencies, 90.0) / 1e3);
+            System.out.printf("Latency p99        : %.2f us%n", percentile(latencies, 99.0) / 1e3);
+            System.out.printf("Latency p99.9      : %.2f us%n", percentile(latencies, 99.9) / 1e3);
+            System.out.printf("Latency max        : %.2f us%n", latencies[latencies.length - 1] / 1e3);
+        }
+        if (Metrics.ENABLED) System.out.print("\n" + Metrics.snapshot());
+    }
+
+    // Nearest-rank percentile over a sorted array.
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
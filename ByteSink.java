@@ -0,0 +1,98 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * ByteSink
+ *
+ * Growable byte buffer na nire-reuse ng journal writer (walang synchronized like
+ * ByteArrayOutputStream). Has UTF-8 and varint helpers for the journal formats.
+ */
+final class ByteSink {
+
+    private byte[] bytes;
+    private int size = 0;
+
+    ByteSink(int initialCapacity) {
+        bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void write(int b) {
+        if (size == bytes.length) grow(size + 1);
+        bytes[size++] = (byte) b;
+    }
+
+    void write(byte[] src, int offset, int length) {
+        if (size + length > bytes.length) grow(size + length);
+        System.arraycopy(src, offset, bytes, size, length);
+        size += length;
+    }
+
+    void write(ByteSink other) {
+        write(other.bytes, 0, other.size);
+    }
+
+    void writeInt(int value) {
+        if (size + 4 > bytes.length) grow(size + 4);
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit = more bytes follow.
+    void writeVarLong(long value) {
+        if (size + 10 > bytes.length) grow(size + 10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    // Encode chars as UTF-8 without going through String.getBytes.
+    void writeUtf8(CharSequence text) {
+        int length = text.length();
+        if (size + length * 3 > bytes.length) grow(size + length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[size++] = (byte) (0xC0 | (c >> 6));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                bytes[size++] = (byte) (0xF0 | (cp >> 18));
+                bytes[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[size++] = '?'; // lone surrogate, same as String.getBytes(UTF_8)
+            } else {
+                bytes[size++] = (byte) (0xE0 | (c >> 12));
+                bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    private void grow(int needed) {
+        bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+    }
+}
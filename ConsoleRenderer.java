@@ -0,0 +1,131 @@
+import java.io.PrintStream;
+
+/**
+ * ConsoleRenderer
+ *
+ * Composes one whole console screen (menu + prompt) into a reusable buffer and sends it with a
+ * single write. Dati bawat println = isang synchronized call + flush + write syscall; sa mabagal
+ * na serial terminal ramdam yung repaint ng order menu.
+ *
+ * Static screens (welcome, order menu) are encoded once. Item and addon lists are encoded once per
+ * menu version and reused until the menu is reloaded.
+ *
+ * // One renderer per console (not thread-safe). Text goes out as UTF-8 with the platform line
+ * // separator, same as println. flush() first lets System.out push out anything still pending,
+ * // para hindi magkapalit yung order ng output na galing sa ibang println.
+ */
+final class ConsoleRenderer {
+
+    private static final String NL = System.lineSeparator();
+
+    // --- PRE-RENDERED SCREENS ---
+    static final byte[] WELCOME_SCREEN = encode(
+            NL + "===============================" + NL
+            + "   WELCOME TO WANSILOG!!" + NL
+            + "===============================" + NL
+            + "1. Sign Up" + NL
+            + "2. Log In" + NL
+            + "3. Exit" + NL
+            + "Enter your choice: ");
+
+    static final byte[] ORDER_MENU = encode(
+            NL + "===============================" + NL
+            + "Order Menu:" + NL
+            + "[1] Add Item" + NL
+            + "[2] Update Quantity" + NL
+            + "[3] Remove Item" + NL
+            + "[4] Display Orders" + NL
+            + "[5] Checkout" + NL
+            + "[6] Cancel Order" + NL
+            + "[7] X-Report (sales so far)" + NL
+            + "[8] Z-Report (end of day)" + NL
+            + "[9] Fast Entry (one line per item)" + NL
+            + "[0] Cancel/Back to Main Menu" + NL
+            + "Or type an item right here, e.g. 2 3 x4 or TOS JR 4" + NL
+            + "Choose an option: ");
+
+    private final PrintStream out;
+    private final ByteSink screen = new ByteSink(4096);
+    private final StringBuilder text = new StringBuilder(128);
+
+    // Lists for the last menu version seen.
+    private MenuCatalog listedMenu = null;
+    private byte[] itemList = null;
+    private byte[] addonList = null;
+
+    ConsoleRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    // Start a new screen.
+    ConsoleRenderer begin() {
+        screen.reset();
+        return this;
+    }
+
+    ConsoleRenderer append(byte[] prerendered) {
+        screen.write(prerendered, 0, prerendered.length);
+        return this;
+    }
+
+    ConsoleRenderer append(CharSequence s) {
+        screen.writeUtf8(s);
+        return this;
+    }
+
+    ConsoleRenderer line(CharSequence s) {
+        screen.writeUtf8(s);
+        screen.writeUtf8(NL);
+        return this;
+    }
+
+    // Scratch builder for one dynamic line (money, numbers). Cleared on every call.
+    StringBuilder scratch() {
+        text.setLength(0);
+        return text;
+    }
+
+    // "[n] Name - $price" per item, 1-based.
+    byte[] itemList(MenuCatalog menu) {
+        refreshLists(menu);
+        return itemList;
+    }
+
+    byte[] addonList(MenuCatalog menu) {
+        refreshLists(menu);
+        return addonList;
+    }
+
+    // Send the screen: one write() of the whole buffer.
+    void flush() {
+        out.flush();
+        out.write(screen.array(), 0, screen.size());
+        out.flush();
+        screen.reset();
+    }
+
+    private void refreshLists(MenuCatalog menu) {
+        if (menu == listedMenu) return;
+        StringBuilder sb = new StringBuilder(256);
+        for (int i = 0; i < menu.itemCount(); i++) {
+            sb.append('[').append(i + 1).append("] ").append(menu.itemName(i)).append(" - $");
+            Money.append(sb, menu.itemPrice(i)).append(NL);
+        }
+        itemList = encode(sb);
+        sb.setLength(0);
+        for (int i = 0; i < menu.addonCount(); i++) {
+            sb.append('[').append(i + 1).append("] ").append(menu.addonName(i)).append(" - $");
+            Money.append(sb, menu.addonPrice(i)).append(NL);
+        }
+        addonList = encode(sb);
+        listedMenu = menu;
+    }
+
+    static byte[] encode(CharSequence s) {
+        ByteSink sink = new ByteSink(s.length() + 16);
+        sink.writeUtf8(s);
+        byte[] bytes = new byte[sink.size()];
+        System.arraycopy(sink.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+}
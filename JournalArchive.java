@@ -0,0 +1,478 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JournalArchive
+ *
+ * Sealed segments ng transaction log, para hindi lumaki forever yung transactions.txt/.bin at
+ * yung backup. The journal writer rolls the active log over to a new segment when the day changes
+ * (-Dwansilog.segmentDaily, default true) or when it passes -Dwansilog.segmentMaxKB (default 256 MB,
+ * 0 = no size limit). The sealed log moves into -Dwansilog.archiveDir (default journal/):
+ *
+ *   journal/transactions-000001.txt[.gz]          the segment (same format as the active log)
+ *   journal/transactions-000001.txt.idx           its TransactionIndex (never compressed)
+ *   journal/transactions_backup-000001.txt[.gz]   the backup, sealed along with it
+ *   journal/transactions.txt.segments             one summary line per segment
+ *
+ * Summary line: sequence|file|records|first ID|last ID|from|to|gross, e.g.
+ *   3|transactions-000003.txt|412|20511|20922|2025-06-07 06:02:11|2025-06-07 21:48:40|37210.00
+ * (first/last ID = lowest/highest, from/to = earliest/latest record time, "-" if empty).
+ *
+ * With -Dwansilog.compressSegments=true sealed segments (and their backups) are gzip'd.
+ *
+ * // Sealing is only renames, on the journal writer thread between batches. Summarizing (one read
+ * // of the segment) and compressing run on a single background thread, so the writer never waits
+ * // for them. Crash in between: open() finds segments without a summary line and redoes them.
+ * // Reports and the exporter only load() (read-only), so they can run next to a live register.
+ * // Report queries use the summaries to skip segments outside the date range without opening
+ * // them; startup only needs the active log's index plus the highest ID in the summaries.
+ */
+final class JournalArchive implements Closeable {
+
+    static final String SUMMARY_SUFFIX = ".segments";
+    static final String INDEX_SUFFIX = ".idx";
+    static final String GZIP_SUFFIX = ".gz";
+
+    // One sealed segment, as described by its summary line.
+    static final class Segment {
+        final int sequence;
+        final String name;
+        final long records;
+        final int firstId;
+        final int lastId;
+        final long fromTime; // local epoch seconds
+        final long toTime;
+        final long gross;
+
+        Segment(int sequence, String name, long records, int firstId, int lastId, long fromTime, long toTime, long gross) {
+            this.sequence = sequence;
+            this.name = name;
+            this.records = records;
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            this.gross = gross;
+        }
+
+        // Whether any record of the segment falls in [from, to] (local epoch seconds).
+        boolean overlaps(long from, long to) {
+            return records > 0 && toTime >= from && fromTime <= to;
+        }
+
+        boolean containsIds(int from, int to) {
+            return records > 0 && lastId >= from && firstId <= to;
+        }
+    }
+
+    private final File dir;
+    private final File logFile;
+    private final File backupFile;
+    private final JournalFormat format;
+    private final boolean daily;
+    private final long maxBytes;
+    private final boolean compress;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private int nextSequence = 1;
+    private ExecutorService archiver = null;
+
+    JournalArchive(File dir, File logFile, File backupFile, JournalFormat format,
+                   boolean daily, long maxBytes, boolean compress) {
+        this.dir = dir;
+        this.logFile = logFile;
+        this.backupFile = backupFile;
+        this.format = format;
+        this.daily = daily;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.compress = compress;
+    }
+
+    //   -Dwansilog.archiveDir=<dir>          (default journal)
+    //   -Dwansilog.segmentDaily=true|false   (default true)
+    //   -Dwansilog.segmentMaxKB=<KB>         (default 262144 = 256 MB, 0 = no size limit)
+    //   -Dwansilog.compressSegments=true     (default false)
+    // Format = a fresh instance of the log's format, used for reading only.
+    static JournalArchive fromSystemProperties(File logFile, File backupFile, JournalFormat format) {
+        return fromSystemProperties(new File(System.getProperty("wansilog.archiveDir", "journal")), logFile, backupFile, format);
+    }
+
+    // Same, in the given archive directory.
+    static JournalArchive fromSystemProperties(File dir, File logFile, File backupFile, JournalFormat format) {
+        return new JournalArchive(dir, logFile, backupFile, format,
+                Boolean.parseBoolean(System.getProperty("wansilog.segmentDaily", "true")),
+                Long.getLong("wansilog.segmentMaxKB", 256L * 1024) * 1024,
+                Boolean.parseBoolean(System.getProperty("wansilog.compressSegments", "false")));
+    }
+
+    // --- STARTUP ---
+    // Load the summaries and catch up on anything a crash left half done: segments with no
+    // summary line (or no index) are read once now, leftover temp files are removed, and
+    // uncompressed segments are queued for compression. Only for the register that owns the
+    // archive (RegisterEngine at startup); readers use load().
+    synchronized void open() throws IOException {
+        readSummaries();
+        if (!dir.isDirectory()) return;
+        String[] names = dir.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(".tmp")) Files.deleteIfExists(new File(dir, name).toPath());
+            }
+        }
+        for (int sequence : segmentsOnDisk()) {
+            File plain = segmentFile(sequence);
+            File backup = backupSegmentFile(sequence);
+            // Both there = crash after the .gz was renamed in (it is complete), before the delete.
+            // Checked per file: the backup is compressed after the main segment, so its .gz may
+            // not exist yet even if the main one does.
+            for (File file : new File[] {plain, backup}) {
+                if (new File(file.getPath() + GZIP_SUFFIX).isFile()) Files.deleteIfExists(file.toPath());
+            }
+            if (plain.isFile() && !indexFile(sequence).isFile()) {
+                TransactionIndex.open(plain, indexFile(sequence), JournalFormat.named(format.name())).close();
+            }
+            if (!segments.containsKey(sequence)) {
+                System.out.println("Summarizing journal segment " + sequence + "...");
+                appendSummary(summarize(sequence));
+            }
+            if (compress && (plain.isFile() || backup.isFile())) background(() -> compress(sequence));
+        }
+    }
+
+    // Read-only open for reports/export, safe while a register is running on the same archive:
+    // nothing is deleted, written or queued. A segment with no summary line yet (just sealed, or
+    // left by a crash) is summarized in memory only.
+    synchronized void load() throws IOException {
+        readSummaries();
+        if (!dir.isDirectory()) return;
+        for (int sequence : segmentsOnDisk()) {
+            if (!segments.containsKey(sequence)) segments.put(sequence, summarize(sequence));
+        }
+    }
+
+    private void readSummaries() throws IOException {
+        segments.clear();
+        nextSequence = 1;
+        File summary = summaryFile();
+        if (!summary.isFile()) return;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(summary), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                Segment segment = parseSummary(line);
+                if (segment == null) {
+                    System.out.println("Skipping bad journal segment summary: " + line);
+                } else {
+                    segments.put(segment.sequence, segment); // re-done line wins
+                    nextSequence = Math.max(nextSequence, segment.sequence + 1);
+                }
+            }
+        }
+    }
+
+    // Sequence numbers with a segment file (plain or .gz) in the archive, oldest first; also
+    // moves nextSequence past them.
+    private List<Integer> segmentsOnDisk() {
+        List<Integer> onDisk = new ArrayList<>();
+        String[] names = dir.list();
+        if (names == null) return onDisk;
+        for (String name : names) {
+            if (name.endsWith(".tmp")) continue;
+            int sequence = sequenceOf(name, logFile.getName());
+            if (sequence > 0 && !onDisk.contains(sequence)) onDisk.add(sequence);
+        }
+        onDisk.sort(null);
+        for (int sequence : onDisk) nextSequence = Math.max(nextSequence, sequence + 1);
+        return onDisk;
+    }
+
+    // -1 if the name is not a segment of this log ("transactions-000012.txt" or ".txt.gz" -> 12).
+    static int sequenceOf(String name, String logName) {
+        int dot = logName.lastIndexOf('.');
+        String base = dot < 0 ? logName : logName.substring(0, dot);
+        String extension = dot < 0 ? "" : logName.substring(dot);
+        if (name.endsWith(GZIP_SUFFIX)) name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        if (!name.startsWith(base + "-") || !name.endsWith(extension)) return -1;
+        String digits = name.substring(base.length() + 1, name.length() - extension.length());
+        if (digits.isEmpty() || digits.length() > 9) return -1;
+        int value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // --- ROTATION (journal writer thread) ---
+    // Whether the active log should be sealed before writing a record stamped recordTime.
+    // segmentStart = time of the active log's first record. Only a later day counts, para hindi
+    // mag-rotate on a recovered checkout re-logged with yesterday's time.
+    boolean shouldRotate(long logLength, long segmentStart, long recordTime) {
+        if (maxBytes > 0 && logLength >= maxBytes) return true;
+        return daily && Math.floorDiv(recordTime, 86400L) > Math.floorDiv(segmentStart, 86400L);
+    }
+
+    boolean rotates() {
+        return daily || maxBytes > 0;
+    }
+
+    // Move the active log and its backup into the archive as the next segment and return its
+    // sequence number. Renames only; the caller has flushed both files and may still have them
+    // open. It rolls the index over to indexFile(sequence) once the new log is started, then
+    // calls sealed(sequence), or unseal(sequence) if the new log could not be started.
+    synchronized int seal() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create journal archive " + dir);
+        }
+        int sequence = nextSequence;
+        Files.move(logFile.toPath(), segmentFile(sequence).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        nextSequence++;
+        if (backupFile.isFile()) {
+            try {
+                Files.move(backupFile.toPath(), backupSegmentFile(sequence).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Problem archiving backup: " + e.getMessage());
+            }
+        }
+        return sequence;
+    }
+
+    // Undo seal(): move the segment (and its backup, if the backup slot is free) back to the
+    // active log's place. Drops the empty log the caller managed to create there, if any.
+    synchronized void unseal(int sequence) throws IOException {
+        Files.deleteIfExists(logFile.toPath());
+        Files.move(segmentFile(sequence).toPath(), logFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        File backup = backupSegmentFile(sequence);
+        if (backup.isFile() && !backupFile.exists()) {
+            try {
+                Files.move(backup.toPath(), backupFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Problem restoring backup: " + e.getMessage());
+            }
+        }
+        if (nextSequence == sequence + 1) nextSequence = sequence;
+    }
+
+    // Summarize (and compress) a just-sealed segment in the background.
+    void sealed(int sequence) {
+        background(() -> {
+            try {
+                appendSummary(summarize(sequence));
+            } catch (IOException e) {
+                System.out.println("Problem summarizing journal segment " + sequence + ": " + e.getMessage());
+                return;
+            }
+            if (compress) compress(sequence);
+        });
+    }
+
+    private synchronized void background(Runnable task) {
+        if (archiver == null) {
+            archiver = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "journal-archiver");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        archiver.execute(task);
+    }
+
+    // --- SUMMARIES ---
+    private Segment summarize(int sequence) throws IOException {
+        long records = 0;
+        long gross = 0;
+        int firstId = Integer.MAX_VALUE;
+        int lastId = 0;
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        try (JournalFormat.RecordReader reader = reader(sequence, 0)) {
+            TransactionRecord record;
+            while ((record = reader.next()) != null) {
+                records++;
+                gross += record.total;
+                firstId = Math.min(firstId, record.id);
+                lastId = Math.max(lastId, record.id);
+                from = Math.min(from, record.localEpochSecond);
+                to = Math.max(to, record.localEpochSecond);
+            }
+        }
+        if (records == 0) firstId = 0;
+        return new Segment(sequence, segmentFile(sequence).getName(), records, firstId, lastId, from, to, gross);
+    }
+
+    // Append one line and fsync, so a summary is never half there after a crash.
+    private synchronized void appendSummary(Segment segment) throws IOException {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(segment.sequence).append('|').append(segment.name).append('|').append(segment.records)
+                .append('|').append(segment.firstId).append('|').append(segment.lastId).append('|');
+        appendTime(sb, segment.fromTime, segment.records).append('|');
+        appendTime(sb, segment.toTime, segment.records).append('|');
+        Money.append(sb, segment.gross).append('\n');
+        try (FileOutputStream out = new FileOutputStream(summaryFile(), true)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        segments.put(segment.sequence, segment);
+    }
+
+    private static StringBuilder appendTime(StringBuilder sb, long epoch, long records) {
+        if (records == 0) return sb.append('-');
+        return TextJournalFormat.appendDateTime(sb, LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC));
+    }
+
+    // Null if the line is damaged.
+    private static Segment parseSummary(String line) {
+        String[] f = line.split("\\|", -1);
+        if (f.length != 8) return null;
+        try {
+            long records = Long.parseLong(f[2]);
+            long from = records == 0 ? Long.MAX_VALUE : TextJournalFormat.parseDateTime(f[5], 0);
+            long to = records == 0 ? Long.MIN_VALUE : TextJournalFormat.parseDateTime(f[6], 0);
+            return new Segment(Integer.parseInt(f[0]), f[1], records, Integer.parseInt(f[3]),
+                    Integer.parseInt(f[4]), from, to, Money.parse(f[7]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // --- COMPRESSION (archiver thread) ---
+    // gzip to a temp file, fsync, rename into place, then drop the plain file.
+    private void compress(int sequence) {
+        for (File plain : new File[] {segmentFile(sequence), backupSegmentFile(sequence)}) {
+            if (!plain.isFile()) continue;
+            File gz = new File(plain.getPath() + GZIP_SUFFIX);
+            File tmp = new File(gz.getPath() + ".tmp");
+            try {
+                try (InputStream in = new FileInputStream(plain);
+                     FileOutputStream fileOut = new FileOutputStream(tmp);
+                     GZIPOutputStream out = new GZIPOutputStream(new BufferedOutputStream(fileOut, 1 << 16), 1 << 16)) {
+                    in.transferTo(out);
+                    out.finish();
+                    out.flush();
+                    fileOut.getFD().sync();
+                }
+                Files.move(tmp.toPath(), gz.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(plain.toPath());
+            } catch (IOException e) {
+                System.out.println("Problem compressing " + plain + ": " + e.getMessage());
+                tmp.delete();
+            }
+        }
+    }
+
+    // --- READING ---
+    // Summaries of the sealed segments, oldest first.
+    synchronized List<Segment> segments() {
+        return new ArrayList<>(segments.values());
+    }
+
+    synchronized Segment segment(int sequence) {
+        return segments.get(sequence);
+    }
+
+    // Sequence number the active log will get when it is sealed.
+    synchronized int nextSequence() {
+        return nextSequence;
+    }
+
+    // Highest transaction ID in the archive (0 if empty).
+    synchronized int lastId() {
+        int last = 0;
+        for (Segment segment : segments.values()) last = Math.max(last, segment.lastId);
+        return last;
+    }
+
+    // Whether the ID is among the last `window` records of the newest segment (see
+    // TransactionIndex.containsRecent); for recovery right after a rotation.
+    boolean containsRecent(int id, int window) throws IOException {
+        int newest = nextSequence() - 1;
+        if (newest < 1 || !indexFile(newest).isFile()) return false;
+        try (TransactionIndex index = TransactionIndex.openSealed(indexFile(newest))) {
+            return index.containsRecent(id, window);
+        }
+    }
+
+    // The segment's bytes (decompressed), from the start of the file.
+    InputStream openSegment(int sequence) throws IOException {
+        File plain = segmentFile(sequence);
+        if (plain.isFile()) {
+            try {
+                return new FileInputStream(plain);
+            } catch (FileNotFoundException e) {
+                // Just compressed by a running register's archiver; the .gz is in place.
+            }
+        }
+        File gz = new File(plain.getPath() + GZIP_SUFFIX);
+        if (gz.isFile()) return new GZIPInputStream(new FileInputStream(gz), 1 << 16);
+        throw new FileNotFoundException("Journal segment " + sequence + " is missing (" + plain + ")");
+    }
+
+    // Records of a segment from `from` (0 or a writer session start) to its end.
+    JournalFormat.RecordReader reader(int sequence, long from) throws IOException {
+        return format.reader(openSegment(sequence), from, Long.MAX_VALUE);
+    }
+
+    // Plain (uncompressed) file of a segment, or null if it is only there gzip'd.
+    File plainFile(int sequence) {
+        File plain = segmentFile(sequence);
+        return plain.isFile() ? plain : null;
+    }
+
+    File indexFile(int sequence) {
+        return new File(dir, segmentFile(sequence).getName() + INDEX_SUFFIX);
+    }
+
+    private File segmentFile(int sequence) {
+        return new File(dir, numbered(logFile.getName(), sequence));
+    }
+
+    private File backupSegmentFile(int sequence) {
+        return new File(dir, numbered(backupFile.getName(), sequence));
+    }
+
+    private File summaryFile() {
+        return new File(dir, logFile.getName() + SUMMARY_SUFFIX);
+    }
+
+    // "transactions.txt", 12 -> "transactions-000012.txt"
+    private static String numbered(String name, int sequence) {
+        int dot = name.lastIndexOf('.');
+        String number = String.format("-%06d", sequence);
+        return dot < 0 ? name + number : name.substring(0, dot) + number + name.substring(dot);
+    }
+
+    // Wait for queued summaries/compression to finish.
+    @Override
+    public void close() {
+        ExecutorService pending;
+        synchronized (this) {
+            pending = archiver;
+            archiver = null;
+        }
+        if (pending == null) return;
+        pending.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pending.awaitTermination(1, TimeUnit.MINUTES)) break;
+                System.out.println("Still archiving journal segments...");
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
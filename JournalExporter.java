@@ -0,0 +1,90 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JournalExporter
+ *
+ * Regenerates the human-readable transactions.txt blocks from a binary journal, para may
+ * mababasa pa rin si manager / pwede i-grep. Output is byte-for-byte what the text format would
+ * have written for the same checkouts.
+ *
+ * Usage: java TapsilogCashRegister --export-text [binary log] [output file]
+ *        (defaults: journal archive + transactions.bin -> transactions_export.txt)
+ *
+ * // Streams record by record (BinaryJournalFormat.Reader), so memory stays flat. Damaged frames
+ * // are skipped and counted instead of stopping the export.
+ * // Without an explicit log file, sealed segments in the journal archive are exported first
+ * // (oldest first, gzip'd ones streamed), then the live log, same as SalesReport.
+ */
+final class JournalExporter {
+
+    static final String DEFAULT_OUTPUT = "transactions_export.txt";
+
+    static int run(String[] args) {
+        String input = RegisterEngine.BINARY_LOG;
+        String output = DEFAULT_OUTPUT;
+        boolean withArchive = true;
+        int positional = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (positional == 0) {
+                input = args[i];
+                withArchive = false;
+            } else if (positional == 1) {
+                output = args[i];
+            }
+            positional++;
+        }
+        File in = new File(input);
+        try {
+            JournalArchive archive = null;
+            if (withArchive) {
+                archive = JournalArchive.fromSystemProperties(in, new File(RegisterEngine.BINARY_BACKUP), new BinaryJournalFormat());
+                archive.load();
+            }
+            if (!in.isFile() && (archive == null || archive.segments().isEmpty())) {
+                System.out.println("Binary log not found: " + input);
+                return 1;
+            }
+            long[] counts = export(archive, in, new File(output));
+            if (archive != null && !archive.segments().isEmpty()) {
+                System.out.println("Journal segments exported: " + archive.segments().size());
+            }
+            System.out.println("Exported " + counts[0] + " transaction/s to " + output);
+            if (counts[1] > 0) System.out.println("Skipped damaged bytes: " + counts[1]);
+            return 0;
+        } catch (IOException e) {
+            System.out.println("Error exporting transactions: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // Sealed segments of the archive (if any), then the binary log (if it exists), into one text
+    // file. Returns {records written, damaged bytes skipped}.
+    static long[] export(JournalArchive archive, File binaryLog, File textLog) throws IOException {
+        long[] counts = new long[2];
+        StringBuilder sb = new StringBuilder(512);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(textLog), StandardCharsets.UTF_8), 1 << 16)) {
+            if (archive != null) {
+                for (JournalArchive.Segment segment : archive.segments()) {
+                    copy(new BinaryJournalFormat.Reader(archive.openSegment(segment.sequence), 0, Long.MAX_VALUE), out, sb, counts);
+                }
+            }
+            if (binaryLog.isFile()) copy(new BinaryJournalFormat.Reader(binaryLog), out, sb, counts);
+        }
+        return counts;
+    }
+
+    // Closes the reader.
+    private static void copy(BinaryJournalFormat.Reader reader, Writer out, StringBuilder sb, long[] counts) throws IOException {
+        try (reader) {
+            TransactionRecord record;
+            while ((record = reader.next()) != null) {
+                sb.setLength(0);
+                TextJournalFormat.appendRecord(sb, record);
+                out.append(sb);
+                counts[0]++;
+            }
+            counts[1] += reader.skippedBytes();
+        }
+    }
+}
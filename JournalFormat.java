@@ -0,0 +1,64 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JournalFormat
+ *
+ * How transaction records are laid out in the journal file. Two implementations:
+ * TextJournalFormat (the original human-readable blocks) and BinaryJournalFormat (compact, CRC'd).
+ * Selected with -Dwansilog.journalFormat=text|binary.
+ *
+ * // Encoders keep per-file state (e.g. the binary cashier dictionary), so one instance per open
+ * // journal, used only by the journal writer thread.
+ */
+interface JournalFormat {
+
+    // Called for each complete record found while scanning, with its byte offset in the file.
+    interface RecordVisitor {
+        void record(int transactionId, long offset) throws IOException;
+    }
+
+    // Decoded records in file order (see reader()).
+    interface RecordReader extends Closeable {
+        // Next complete record, or null at the end of the range.
+        TransactionRecord next() throws IOException;
+    }
+
+    String name();
+
+    // Bytes to put at the start of a new (empty) file.
+    byte[] fileHeader();
+
+    // Forget per-file encoder state; the next encode starts a fresh session in the file.
+    void reset();
+
+    // Append the record (plus anything it depends on) to out. Returns the offset within out
+    // where the transaction record itself starts.
+    int encode(TransactionRecord record, ByteSink out);
+
+    // Visit every complete record in [from, to) of the file and return the offset just past the
+    // last complete one. from is 0 or a value previously returned by scan.
+    long scan(File file, long from, long to, RecordVisitor visitor) throws IOException;
+
+    // Read records back from [from, to). from is 0 or the offset where a journal writer session
+    // began appending (binary records depend on the MENU/CASHIER frames of their session).
+    default RecordReader reader(File file, long from, long to) throws IOException {
+        return reader(new FileInputStream(file), from, to);
+    }
+
+    // Same, from a stream positioned at the start of the file (e.g. a gzip'd archive segment, see
+    // JournalArchive). The reader owns the stream and closes it.
+    RecordReader reader(InputStream in, long from, long to) throws IOException;
+
+    static JournalFormat fromSystemProperties() {
+        return named(System.getProperty("wansilog.journalFormat", "text"));
+    }
+
+    // "binary" -> BinaryJournalFormat, anything else -> TextJournalFormat. Always a new instance.
+    static JournalFormat named(String name) {
+        return name.trim().equalsIgnoreCase("binary") ? new BinaryJournalFormat() : new TextJournalFormat();
+    }
+}
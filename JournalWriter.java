@@ -0,0 +1,480 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * JournalWriter
+ *
+ * Background writer para sa transaction log (main + backup). Dati every checkout nag-oopen/close
+ * ng FileWriter twice sa cashier thread; ngayon naka-queue lang yung record and isang thread ang
+ * nagsusulat, gamit long-lived FileChannels.
+ *
+ * // Records are encoded here (JournalFormat, text or binary), not on the cashier thread.
+ * // Several checkouts waiting in the queue are written with one write() per file and (depending
+ * // on the durability mode) one fsync. Queue is bounded so a stuck disk pushes back on the cashier
+ * // instead of eating memory.
+ * // With a JournalArchive, the log is rotated here too, between batches: the files are flushed,
+ * // sealed into the archive (renamed while still open), and a new log + backup + index started
+ * // (see rotate()). Any failure along the way leaves the old log open and live.
+ */
+final class JournalWriter implements Closeable {
+
+    // How hard we try to get each record onto the disk before moving on.
+    enum Durability {
+        FSYNC_EACH,     // write + fsync per transaction
+        GROUP_COMMIT,   // batch whatever arrives within the commit window, one fsync per batch
+        OS_BUFFERED;    // batch writes, leave flushing to the OS (fsync only on close)
+
+        static Durability parse(String value) {
+            if (value == null) return GROUP_COMMIT;
+            switch (value.trim().toLowerCase()) {
+                case "fsync":
+                case "fsync_each":
+                    return FSYNC_EACH;
+                case "buffered":
+                case "os_buffered":
+                    return OS_BUFFERED;
+                default:
+                    return GROUP_COMMIT;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final TransactionRecord record;
+        final Runnable afterWrite;
+
+        Entry(TransactionRecord record, Runnable afterWrite) {
+            this.record = record;
+            this.afterWrite = afterWrite;
+        }
+    }
+
+    private static final Entry SHUTDOWN = new Entry(null, null);
+    private static final int MAX_BATCH = 256;
+
+    private final File mainFile;
+    private final File backupFile;
+    private FileChannel main;
+    private FileChannel backup;
+    private final TransactionIndex index;
+    private final JournalFormat format;
+    private final Durability durability;
+    private final long groupCommitNanos;
+    private final BlockingQueue<Entry> queue;
+    // Writer thread only: encoded batch and the offset of each record in it.
+    private final ByteSink encoded = new ByteSink(1 << 16);
+    private final ByteSink backupEncoded = new ByteSink(1 << 16);
+    private final int[] recordStarts = new int[MAX_BATCH];
+    private final int[] recordEnds = new int[MAX_BATCH];
+    private final int[] batchIds = new int[MAX_BATCH];
+    private final long[] batchOffsets = new long[MAX_BATCH];
+    private final JournalFormat backupFormat;
+    private final RunningTotals totals;
+    private final JournalArchive archive;
+    private final Thread worker;
+    private final Thread shutdownHook;
+    private long mainLength;
+    // Time of the active log's first record (Long.MIN_VALUE = empty), for daily rotation.
+    private long segmentStart = Long.MIN_VALUE;
+    private boolean rotationFailed = false;
+    private volatile boolean closed = false;
+    // Read = a submit in progress (shared), write = close() marking the writer closed.
+    private final ReadWriteLock submitting = new ReentrantReadWriteLock();
+
+    JournalWriter(File mainFile, File backupFile, TransactionIndex index, JournalFormat format,
+                  Durability durability, long groupCommitMillis, int queueCapacity) throws IOException {
+        this(mainFile, backupFile, index, format, durability, groupCommitMillis, queueCapacity, null, null);
+    }
+
+    // totals (may be null) is told about every record once it is written. archive
+    // (may be null, needs the index) = rotate the log into it.
+    JournalWriter(File mainFile, File backupFile, TransactionIndex index, JournalFormat format,
+                  Durability durability, long groupCommitMillis, int queueCapacity,
+                  RunningTotals totals, JournalArchive archive) throws IOException {
+        this.mainFile = mainFile;
+        this.backupFile = backupFile;
+        this.main = openAppend(mainFile);
+        this.index = index;
+        this.format = format;
+        this.mainLength = prepare(main, index == null ? -1 : index.coveredLength(), format);
+        this.totals = index == null ? null : totals;
+        if (this.totals != null) this.totals.sessionStarted(mainLength);
+        this.backup = openBackup(backupFile, format);
+        this.archive = index == null || archive == null || !archive.rotates() ? null : archive;
+        if (this.archive != null && index.recordCount() > 0) {
+            segmentStart = firstRecordTime(mainFile, index, format);
+        }
+        // Backup keeps its own encoder, since its dictionary/menu frames follow its own history.
+        this.backupFormat = format instanceof TextJournalFormat ? null : JournalFormat.named(format.name());
+        this.durability = durability;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, groupCommitMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.worker = new Thread(this::run, "journal-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        // Flush-on-shutdown: kahit Ctrl+C or System.exit, ma-drain pa rin yung queue.
+        this.shutdownHook = new Thread(this::closeQuietly, "journal-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private static FileChannel openAppend(File file) throws IOException {
+        return FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Backup is best effort, same as before. Main log lang ang required; null if it can't be opened.
+    private static FileChannel openBackup(File backupFile, JournalFormat format) {
+        FileChannel channel;
+        try {
+            channel = openAppend(backupFile);
+        } catch (IOException e) {
+            System.out.println("Problem with backup: " + e.getMessage());
+            return null;
+        }
+        try {
+            prepare(channel, -1, format);
+        } catch (IOException e) {
+            System.out.println("Problem with backup: " + e.getMessage());
+        }
+        return channel;
+    }
+
+    // Time of the log's first record, or Long.MIN_VALUE if it can't be read (then the log is
+    // not rotated for the day until it is sealed for size, or the writer restarts).
+    private static long firstRecordTime(File mainFile, TransactionIndex index, JournalFormat format) {
+        try (JournalFormat.RecordReader reader = JournalFormat.named(format.name())
+                .reader(mainFile, 0, index.coveredLength())) {
+            TransactionRecord first = reader.next();
+            return first == null ? Long.MIN_VALUE : first.localEpochSecond;
+        } catch (IOException e) {
+            System.out.println("Problem reading transaction log: " + e.getMessage());
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Build a writer from system properties:
+    //   -Dwansilog.durability=fsync|group|buffered   (default group)
+    //   -Dwansilog.groupCommitMs=<ms>                (default 20)
+    //   -Dwansilog.journalQueue=<entries>            (default 1024)
+    static JournalWriter fromSystemProperties(File mainFile, File backupFile, TransactionIndex index,
+                                              JournalFormat format, RunningTotals totals,
+                                              JournalArchive archive) throws IOException {
+        Durability durability = Durability.parse(System.getProperty("wansilog.durability"));
+        long groupMs = Long.getLong("wansilog.groupCommitMs", 20L);
+        int capacity = Integer.getInteger("wansilog.journalQueue", 1024);
+        return new JournalWriter(mainFile, backupFile, index, format, durability, groupMs, capacity, totals, archive);
+    }
+
+    // Get a file ready for appending and return its length. A torn record past the index's
+    // covered length (crash mid-write) is cut off first, para hindi madikit yung bagong record sa
+    // basura; an empty file gets the format's header.
+    private static long prepare(FileChannel channel, long coveredLength, JournalFormat format) throws IOException {
+        if (coveredLength >= 0 && channel.size() > coveredLength) {
+            channel.truncate(coveredLength);
+        }
+        long length = channel.size();
+        byte[] header = format.fileHeader();
+        if (length == 0 && header.length > 0) {
+            writeFully(channel, ByteBuffer.wrap(header));
+            length = header.length;
+        }
+        return length;
+    }
+
+    Durability durability() {
+        return durability;
+    }
+
+    JournalFormat format() {
+        return format;
+    }
+
+    // Hand a record to the writer thread, which encodes it. Blocks only if the queue is full.
+    void submit(TransactionRecord record) {
+        submit(record, null);
+    }
+
+    // Same, and run afterWrite on the writer thread once the record is written (and synced, in
+    // the fsync/group modes). Used by OrderWal to know when it may forget a checkout.
+    // The closed check and the put happen under the read lock, and close() flips `closed` under
+    // the write lock, so a record is either refused or queued ahead of SHUTDOWN, never behind it.
+    void submit(TransactionRecord record, Runnable afterWrite) {
+        submitting.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal writer is closed");
+            }
+            queue.put(new Entry(record, afterWrite));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing transaction " + record.id);
+        } finally {
+            submitting.readLock().unlock();
+        }
+    }
+
+    // Drain everything still queued, fsync, and close the files. Waits for submits already past
+    // the closed check to finish queueing first.
+    @Override
+    public void close() throws IOException {
+        submitting.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            submitting.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(SHUTDOWN);
+                worker.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (totals != null) totals.checkpointQuietly();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Nasa shutdown na mismo, ok lang.
+        }
+        try {
+            main.force(false);
+            main.close();
+        } finally {
+            if (backup != null) {
+                backup.force(false);
+                backup.close();
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.out.println("Problem flushing transactions on shutdown: " + e.getMessage());
+        }
+    }
+
+    // --- WRITER THREAD ---
+    private void run() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            Entry first;
+            try {
+                first = queue.take();
+            } catch (InterruptedException e) {
+                // Walang ibang nag-iinterrupt dito except shutdown; tuloy lang hanggang SHUTDOWN entry.
+                continue;
+            }
+            if (first == SHUTDOWN) break;
+            batch.add(first);
+            running = collect(batch);
+            // A bug in one batch must not kill the thread: submit() would then block on the full
+            // queue and close() would wait forever for a SHUTDOWN nobody takes.
+            try {
+                if (durability == Durability.FSYNC_EACH) {
+                    for (Entry entry : batch) writeBatch(List.of(entry), true);
+                } else {
+                    writeBatch(batch, durability == Durability.GROUP_COMMIT);
+                }
+            } catch (RuntimeException e) {
+                Metrics.JOURNAL_ERRORS.increment();
+                System.out.println("Problem writing transactions: " + e);
+            }
+            batch.clear();
+        }
+    }
+
+    // Pull more entries into the batch. Group commit waits up to the commit window for more
+    // checkouts; the other modes only take what is already queued. Returns false on SHUTDOWN.
+    private boolean collect(List<Entry> batch) {
+        long deadline = System.nanoTime() + groupCommitNanos;
+        while (batch.size() < MAX_BATCH) {
+            Entry next;
+            if (durability == Durability.GROUP_COMMIT) {
+                long remaining = deadline - System.nanoTime();
+                try {
+                    next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                } catch (InterruptedException e) {
+                    next = queue.poll();
+                }
+            } else {
+                next = queue.poll();
+            }
+            if (next == null) return true;
+            if (next == SHUTDOWN) return false;
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void writeBatch(List<Entry> batch, boolean sync) {
+        if (archive != null && !rotationFailed && segmentStart != Long.MIN_VALUE
+                && archive.shouldRotate(mainLength, segmentStart, batch.get(0).record.localEpochSecond)) {
+            rotate();
+        }
+        encoded.reset();
+        for (int i = 0; i < batch.size(); i++) {
+            recordStarts[i] = format.encode(batch.get(i).record, encoded);
+            recordEnds[i] = encoded.size();
+        }
+        int size = encoded.size();
+
+        long start = mainLength;
+        boolean written = false;
+        try {
+            long t0 = Metrics.now();
+            writeFully(main, encoded.asByteBuffer());
+            Metrics.JOURNAL_WRITE.recordSince(t0);
+            if (sync) {
+                t0 = Metrics.now();
+                main.force(false);
+                Metrics.JOURNAL_FSYNC.recordSince(t0);
+            }
+            mainLength += size;
+            if (segmentStart == Long.MIN_VALUE) segmentStart = batch.get(0).record.localEpochSecond;
+            written = true;
+            Metrics.JOURNAL_BATCHES.increment();
+            Metrics.JOURNAL_RECORDS.add(batch.size());
+        } catch (IOException e) {
+            Metrics.JOURNAL_ERRORS.increment();
+            System.out.println("Problem writing transaction: " + e.getMessage());
+            try {
+                mainLength = main.size();
+            } catch (IOException ignored) {
+                // Keep the old length; next index open will catch up from the log anyway.
+            }
+        }
+
+        if (written) indexBatch(batch, start);
+
+        // Backup just in case
+        if (backup != null) {
+            ByteSink out = encoded;
+            if (backupFormat != null) {
+                backupEncoded.reset();
+                for (Entry entry : batch) backupFormat.encode(entry.record, backupEncoded);
+                out = backupEncoded;
+            }
+            try {
+                writeFully(backup, out.asByteBuffer());
+                if (sync) backup.force(false);
+            } catch (IOException e) {
+                System.out.println("Problem with backup: " + e.getMessage());
+            }
+        }
+
+        if (written) {
+            for (Entry entry : batch) {
+                if (entry.afterWrite == null) continue;
+                try {
+                    entry.afterWrite.run();
+                } catch (RuntimeException e) {
+                    System.out.println("Problem after writing transaction " + entry.record.id + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Index + running totals for a batch that is already in the log. A failure here is only
+    // reported: the records are safe, and the next batch (or the next open) re-scans the log
+    // from where the index stopped. One appendBatch per batch = two index writes per group commit.
+    private void indexBatch(List<Entry> batch, long start) {
+        if (index != null) {
+            try {
+                int count = batch.size();
+                for (int i = 0; i < count; i++) {
+                    batchIds[i] = batch.get(i).record.id;
+                    batchOffsets[i] = start + recordStarts[i];
+                }
+                index.appendBatch(batchIds, batchOffsets, count, start + recordEnds[count - 1]);
+            } catch (IOException e) {
+                System.out.println("Problem indexing transactions: " + e.getMessage());
+            }
+        }
+        if (totals != null) {
+            for (Entry entry : batch) totals.written(entry.record);
+        }
+    }
+
+    // --- ROTATION ---
+    // Seal the current log + backup into the archive and carry on in fresh files. Only between
+    // batches, so nothing is half written. The old files stay open until the new log is ready:
+    // if sealing fails nothing has moved, and if the new log can't be started the segment is
+    // moved back, so either way we keep appending to the open log and stop trying until the next
+    // start (the message says why). The index rolls over only once the new log is in place.
+    private void rotate() {
+        int sequence;
+        try {
+            main.force(false);
+            if (backup != null) backup.force(false);
+            sequence = archive.seal();
+        } catch (IOException e) {
+            rotationFailed = true;
+            System.out.println("Problem rotating transaction log: " + e.getMessage());
+            return;
+        }
+        FileChannel next = null;
+        long nextLength;
+        try {
+            next = openAppend(mainFile);
+            nextLength = prepare(next, -1, format);
+        } catch (IOException e) {
+            rotationFailed = true;
+            System.out.println("Problem starting new transaction log: " + e.getMessage());
+            closeChannel(next);
+            try {
+                archive.unseal(sequence);
+            } catch (IOException restore) {
+                System.out.println("Problem restoring transaction log: " + restore.getMessage());
+            }
+            return;
+        }
+        closeChannel(main);
+        main = next;
+        mainLength = nextLength;
+        format.reset();
+        closeChannel(backup);
+        backup = openBackup(backupFile, format);
+        if (backupFormat != null) backupFormat.reset();
+        try {
+            index.rollOver(archive.indexFile(sequence), mainLength);
+        } catch (IOException e) {
+            // The sealed segment's index is rebuilt by JournalArchive.open() on the next start.
+            System.out.println("Problem rolling over transaction index: " + e.getMessage());
+        }
+        segmentStart = Long.MIN_VALUE;
+        if (totals != null) totals.segmentSealed(archive.nextSequence(), mainLength);
+        archive.sealed(sequence);
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Problem closing transaction log: " + e.getMessage());
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram
+ *
+ * HDR-style histogram ng nanosecond latencies: log-linear buckets (16 per power of two, so ~6%
+ * worst-case error) covering 0 ns up to Long.MAX_VALUE in 960 fixed slots. Recording is lock-free
+ * (one atomic increment plus a striped sum and a max accumulator), safe from any thread.
+ *
+ * // Bucket index: values below 32 get their own slot; above that, the top 5 significant bits pick
+ * // the slot within the value's power of two. Percentiles report the upper edge of the bucket.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;          // 16 slots per power of two
+    private static final int LINEAR = SUB * 2;              // 0..31 are exact
+    static final int BUCKETS = (64 - SUB_BITS) * SUB;       // 960
+
+    final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB + (int) (value >>> shift);
+    }
+
+    // Largest value that lands in the bucket.
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int shift = bucket / SUB - 1;
+        long sub = bucket % SUB + SUB;
+        long upper = ((sub + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(name, copy, total, sum.sum(), max.get());
+    }
+
+    // Point-in-time copy. Counts are read slot by slot while other threads record, so a snapshot
+    // can be off by the few records that land mid-copy; good enough for monitoring.
+    static final class Snapshot {
+        final String name;
+        final long count;
+        final long sum;
+        final long max;
+        private final long[] counts;
+
+        Snapshot(String name, long[] counts, long count, long sum, long max) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        double mean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        // Value at percentile p (0-100), in ns.
+        long percentile(double p) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(p / 100.0 * count);
+            if (rank < 1) rank = 1;
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * LoadGenerator
+ *
+ * Client side ng RegisterServer for load testing on one machine: N simulated terminals, each on
+ * its own connection, ringing up orders back to back; reports sustained orders/sec and latency
+ * percentiles.
+ *
+ * Usage: java TapsilogCashRegister --loadgen [--port N] [--clients N] [--seconds S] [--warmup S]
+ *                                            [--items N] [--user U --password P] [--data-dir D]
+ * Without --port it starts its own server on a free port and afterwards checks every transaction
+ * ID against the journal like --batch --terminals does. That server's journal, totals, archive and
+ * users.dat go in a scratch directory (deleted afterwards), or in --data-dir D (kept), never in the
+ * working directory: the synthetic orders must not end up in the shop's sales. The account
+ * (--user/--password, default cashier) is created there.
+ *
+ * // Each order is "ADD ..." x items then "CHECKOUT", all pipelined in one write; latency = from
+ * // that write to the checkout answer. The clock starts once every client has logged in (logins
+ * // are deliberately slow hashes); orders finished during the warmup after that are not measured.
+ * // Items cycle over menu numbers 1-2 / addons 1-2, so the menu needs at least two of each.
+ * // One closed-loop client per connection: more clients = more load.
+ */
+final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    // --- ENTRY POINT ---
+    // Returns the process exit code (0 = ok, 1 = bad usage/errors).
+    static int run(String[] args) {
+        int port = 0;
+        int clients = 16;
+        int seconds = 10;
+        int warmup = 2;
+        int items = 3;
+        String user = "cashier";
+        String password = "Cashier123";
+        String dataDir = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--clients") && i + 1 < args.length) {
+                    clients = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--seconds") && i + 1 < args.length) {
+                    seconds = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--warmup") && i + 1 < args.length) {
+                    warmup = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--items") && i + 1 < args.length) {
+                    items = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--user") && i + 1 < args.length) {
+                    user = args[++i];
+                } else if (args[i].equals("--password") && i + 1 < args.length) {
+                    password = args[++i];
+                } else if (args[i].equals("--data-dir") && i + 1 < args.length) {
+                    dataDir = args[++i];
+                }
+            }
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (port < 0 || port > 65535 || clients < 1 || seconds < 1 || warmup < 0 || items < 1) {
+            System.out.println("Usage: java TapsilogCashRegister --loadgen [--port N] [--clients N] [--seconds S]"
+                    + " [--warmup S] [--items N] [--user U --password P] [--data-dir D]");
+            return 1;
+        }
+
+        RegisterEngine engine = null;
+        RegisterServer server = null;
+        Path scratch = null;
+        if (port == 0) {
+            File dir;
+            try {
+                if (dataDir == null) {
+                    scratch = Files.createTempDirectory("wansilog-loadgen");
+                    dir = scratch.toFile();
+                } else {
+                    dir = Files.createDirectories(Path.of(dataDir)).toFile();
+                }
+            } catch (IOException e) {
+                System.out.println("Problem creating data directory: " + e.getMessage());
+                return 1;
+            }
+            System.out.println("Load test data in " + dir + (scratch == null ? "" : " (deleted afterwards)"));
+            engine = new RegisterEngine(dir);
+            engine.start();
+            UserStore users = new UserStore(new File(dir, TapsilogCashRegister.USER_FILE));
+            try {
+                users.add(user, password); // false = already there from an earlier --data-dir run
+                server = new RegisterServer(engine, users, 0, clients);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Problem starting server: " + e.getMessage());
+                engine.close();
+                deleteQuietly(scratch);
+                return 1;
+            }
+            port = server.port();
+        }
+
+        byte[] login = ("LOGIN " + user + " " + password + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] order = order(items);
+        LatencyHistogram latency = new LatencyHistogram("order");
+        AtomicLong errors = new AtomicLong();
+        Schedule schedule = new Schedule(clients);
+        Client[] running = new Client[clients];
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            running[c] = new Client(port, login, order, items, schedule, latency, errors);
+            threads[c] = Thread.ofVirtual().name("loadgen-" + c).start(running[c]);
+        }
+        long measureFrom;
+        try {
+            schedule.loggedIn.await();
+            long start = System.nanoTime();
+            measureFrom = start + warmup * 1_000_000_000L;
+            schedule.measureFrom = measureFrom;
+            schedule.deadline = measureFrom + seconds * 1_000_000_000L;
+            schedule.go.countDown();
+            for (Thread thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        long end = System.nanoTime();
+
+        int measured = 0;
+        int total = 0;
+        for (Client client : running) {
+            measured += client.measured;
+            total += client.idCount;
+        }
+        int[] ids = new int[total];
+        int n = 0;
+        for (Client client : running) {
+            System.arraycopy(client.ids, 0, ids, n, client.idCount);
+            n += client.idCount;
+        }
+        if (server != null) server.close();
+        if (engine != null) engine.close();
+
+        report(clients, items, measured, errors.get(), Math.max(1, end - measureFrom), latency.snapshot());
+        if (engine == null) {
+            System.out.println("External server: transaction ID check skipped.");
+            return errors.get() == 0 ? 0 : 1;
+        }
+        boolean idsOk = BatchRunner.verifyIds(engine, ids);
+        deleteQuietly(scratch);
+        return idsOk && errors.get() == 0 ? 0 : 1;
+    }
+
+    // Remove the scratch data directory (null = none).
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        } catch (IOException e) {
+            System.out.println("Problem deleting " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // "ADD i a xq" per item, then the checkout, as one pipelined burst.
+    private static byte[] order(int items) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < items; i++) {
+            sb.append("ADD ").append(i % 2 + 1).append(' ').append(i / 2 % 2 + 1).append(" x").append(i % 3 + 1).append('\n');
+        }
+        sb.append("CHECKOUT 100000\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Start line shared by the clients: times are set before `go` opens.
+    private static final class Schedule {
+        final CountDownLatch loggedIn;
+        final CountDownLatch go = new CountDownLatch(1);
+        long measureFrom;
+        long deadline;
+
+        Schedule(int clients) {
+            loggedIn = new CountDownLatch(clients);
+        }
+    }
+
+    // One simulated terminal: log in, then orders back to back until the deadline.
+    private static final class Client implements Runnable {
+        private final int port;
+        private final byte[] login;
+        private final byte[] order;
+        private final int items;
+        private final Schedule schedule;
+        private final LatencyHistogram latency;
+        private final AtomicLong errors;
+        int measured = 0;
+        int[] ids = new int[1024];
+        int idCount = 0;
+
+        Client(int port, byte[] login, byte[] order, int items, Schedule schedule,
+               LatencyHistogram latency, AtomicLong errors) {
+            this.port = port;
+            this.login = login;
+            this.order = order;
+            this.items = items;
+            this.schedule = schedule;
+            this.latency = latency;
+            this.errors = errors;
+        }
+
+        @Override
+        public void run() {
+            boolean waiting = true;
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                out.write(login);
+                out.flush();
+                String answer = in.readLine();
+                if (answer == null || !answer.startsWith("OK")) {
+                    System.out.println("Login failed: " + answer);
+                    errors.incrementAndGet();
+                    return;
+                }
+                waiting = false;
+                schedule.loggedIn.countDown();
+                schedule.go.await();
+                long measureFrom = schedule.measureFrom;
+                long deadline = schedule.deadline;
+                long now;
+                while ((now = System.nanoTime()) < deadline) {
+                    out.write(order);
+                    out.flush();
+                    boolean ok = true;
+                    for (int i = 0; i < items; i++) {
+                        answer = in.readLine();
+                        if (answer == null) throw new EOFException("server closed the connection");
+                        if (!answer.startsWith("OK")) ok = false;
+                    }
+                    answer = in.readLine();
+                    if (answer == null) throw new EOFException("server closed the connection");
+                    long done = System.nanoTime();
+                    if (!ok || !answer.startsWith("OK ")) {
+                        if (errors.incrementAndGet() == 1) System.out.println("First error: " + answer);
+                        continue;
+                    }
+                    int end = answer.indexOf(' ', 3);
+                    int id = QuickEntry.number(answer, 3, end < 0 ? answer.length() : end);
+                    if (idCount == ids.length) ids = Arrays.copyOf(ids, idCount * 2);
+                    ids[idCount++] = id;
+                    if (now >= measureFrom) {
+                        latency.record(done - now);
+                        measured++;
+                    }
+                }
+                out.write("QUIT\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                in.readLine();
+            } catch (IOException e) {
+                System.out.println("Load client: " + e.getMessage());
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (waiting) schedule.loggedIn.countDown();
+            }
+        }
+    }
+
+    static void report(int clients, int items, int orders, long errors, long elapsedNanos, LatencyHistogram.Snapshot latency) {
+        System.out.println("\n===============================");
+        System.out.println("   LOAD TEST SUMMARY");
+        System.out.println("===============================");
+        System.out.println("Clients            : " + clients);
+        System.out.println("Items per order    : " + items);
+        System.out.println("Orders checked out : " + orders + " (after warmup)");
+        System.out.println("Errors             : " + errors);
+        System.out.printf("Measured for       : %.3f s%n", elapsedNanos / 1e9);
+        System.out.printf("Throughput         : %.0f orders/sec (%.0f requests/sec)%n",
+                orders / (elapsedNanos / 1e9), orders * (items + 1.0) / (elapsedNanos / 1e9));
+        if (latency.count > 0) {
+            System.out.printf("Latency p50        : %.2f us%n", latency.percentile(50.0) / 1e3);
+            System.out.printf("Latency p90        : %.2f us%n", latency.percentile(90.0) / 1e3);
+            System.out.printf("Latency p99        : %.2f us%n", latency.percentile(99.0) / 1e3);
+            System.out.printf("Latency p99.9      : %.2f us%n", latency.percentile(99.9) / 1e3);
+            System.out.printf("Latency max        : %.2f us%n", latency.max / 1e3);
+        }
+        if (Metrics.ENABLED) System.out.print("\n" + Metrics.snapshot());
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MappedLogReader
+ *
+ * Audit-size reader para sa transactions.txt (years of history). Memory-maps the log with
+ * FileChannel.map, splits it into chunks na naka-align sa record separators, and parses the chunks
+ * in parallel on a fork-join pool. Each chunk fills its own SalesTotals; merged at the end.
+ *
+ * // Fields are decoded straight from the mapped bytes: dates, quantities and amounts are parsed
+ * // digit by digit, item/addon names are matched against the menu's UTF-8 bytes. The only
+ * // Strings created are cashier names, and those are cached per chunk (same bytes = same String).
+ */
+final class MappedLogReader {
+
+    private static final byte[] ID_PREFIX = "Transaction ID:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATE_PREFIX = "Date & Time:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CASHIER_PREFIX = "Cashier:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ITEM_PREFIX = "  - ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTAL_PREFIX = "Total Amount:".getBytes(StandardCharsets.US_ASCII);
+    private static final int SEPARATOR_LENGTH = 45;
+
+    static final long MIN_CHUNK = 1L << 20;
+    static final long MAX_CHUNK = 256L << 20;
+
+    private MappedLogReader() {
+    }
+
+    // Parse the whole log into totals (which may already have data). Date filter is inclusive yyyymmdd.
+    static void read(File file, SalesTotals totals, int fromDate, int toDate, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return;
+            long[] bounds = chunkBounds(channel, size, pool.getParallelism());
+            SalesTotals result = pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1, totals, fromDate, toDate));
+            totals.merge(result);
+        } catch (RuntimeException e) {
+            // Fork-join may rethrow a copy of the task's exception; dig out the original IOException.
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof IOException) throw (IOException) t;
+            }
+            throw e;
+        }
+    }
+
+    static void read(File file, SalesTotals totals, int fromDate, int toDate) throws IOException {
+        read(file, totals, fromDate, toDate, ForkJoinPool.commonPool());
+    }
+
+    // --- CHUNKING ---
+    // bounds[k]..bounds[k+1] = one chunk. Every inner bound is right after a separator line.
+    static long[] chunkBounds(FileChannel channel, long size, int parallelism) throws IOException {
+        long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / Math.max(1, parallelism * 4L)));
+        int count = (int) Math.max(1, (size + chunk - 1) / chunk);
+        long[] bounds = new long[count + 1];
+        int n = 1;
+        for (int k = 1; k < count; k++) {
+            long aligned = alignToRecord(channel, k * chunk, size);
+            if (aligned > bounds[n - 1] && aligned < size) bounds[n++] = aligned;
+        }
+        bounds[n++] = size;
+        long[] trimmed = new long[n];
+        System.arraycopy(bounds, 0, trimmed, 0, n);
+        return trimmed;
+    }
+
+    // First offset >= from that directly follows a "=====...\n" separator line (or size if none).
+    private static long alignToRecord(FileChannel channel, long from, long size) throws IOException {
+        long window = 1L << 16;
+        long pos = from;
+        while (pos < size) {
+            long length = Math.min(window + SEPARATOR_LENGTH + 1, size - pos);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) != '\n' || i + SEPARATOR_LENGTH + 1 >= length) continue;
+                if (isSeparator(buffer, i + 1, i + 1 + SEPARATOR_LENGTH) && buffer.get(i + 1 + SEPARATOR_LENGTH) == '\n') {
+                    return pos + i + SEPARATOR_LENGTH + 2;
+                }
+            }
+            if (pos + length >= size) break;
+            pos += window;
+        }
+        return size;
+    }
+
+    // Split the bound list in half until one chunk is left, parse it, merge on the way up.
+    // Serializable lang dahil sa RecursiveTask; never actually serialized (channel can't be anyway).
+    @SuppressWarnings("serial")
+    private static final class ChunkTask extends RecursiveTask<SalesTotals> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int lo;
+        private final int hi;
+        private final SalesTotals template;
+        private final int fromDate;
+        private final int toDate;
+
+        ChunkTask(FileChannel channel, long[] bounds, int lo, int hi, SalesTotals template, int fromDate, int toDate) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.template = template;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        @Override
+        protected SalesTotals compute() {
+            if (hi - lo == 1) {
+                SalesTotals totals = template.emptyCopy();
+                try {
+                    long start = bounds[lo];
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, bounds[hi] - start);
+                    new ChunkParser(buffer, totals, fromDate, toDate).parse();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return totals;
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(channel, bounds, lo, mid, template, fromDate, toDate);
+            ChunkTask right = new ChunkTask(channel, bounds, mid, hi, template, fromDate, toDate);
+            left.fork();
+            SalesTotals result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+
+    // --- BYTE PARSER (one chunk) ---
+    static final class ChunkParser {
+        private final MappedByteBuffer buffer;
+        private final SalesTotals totals;
+        private final int fromDate;
+        private final int toDate;
+        private final byte[][] itemBytes;
+        private final byte[][] addonBytes;
+
+        // Cashier cache: last few distinct names seen in this chunk.
+        private final byte[][] cashierBytes = new byte[16][];
+        private final String[] cashierNames = new String[16];
+        private int cashierNext = 0;
+
+        // Pending record
+        private int date = -1;
+        private int hour = -1;
+        private String cashier = null;
+        private long total = -1;
+        private int lineCount = 0;
+        private int[] lineItem = new int[16];
+        private int[] lineAddon = new int[16];
+        private int[] lineQuantity = new int[16];
+        private long[] lineTotal = new long[16];
+        private SalesTotals.Day currentDay = null;
+
+        ChunkParser(MappedByteBuffer buffer, SalesTotals totals, int fromDate, int toDate) {
+            this.buffer = buffer;
+            this.totals = totals;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.itemBytes = utf8(totals.itemNames());
+            this.addonBytes = utf8(totals.addonNames());
+        }
+
+        void parse() {
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int end = lineStart;
+                while (end < limit && buffer.get(end) != '\n') end++;
+                int lineEnd = end;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--;
+                line(lineStart, lineEnd);
+                lineStart = end + 1;
+            }
+            if (date >= 0) totals.countMalformed(); // torn last record
+        }
+
+        private void line(int start, int end) {
+            if (startsWith(start, end, ID_PREFIX)) {
+                if (date >= 0) totals.countMalformed();
+                reset();
+                long id = parseInt(skipSpaces(start + ID_PREFIX.length, end), end);
+                if (id >= 0) totals.noteTransactionId((int) id);
+                else totals.countMalformed();
+            } else if (startsWith(start, end, DATE_PREFIX)) {
+                int p = skipSpaces(start + DATE_PREFIX.length, end);
+                if (end - p >= 13 && buffer.get(p + 4) == '-' && buffer.get(p + 7) == '-') {
+                    int y = digits(p, 4);
+                    int m = digits(p + 5, 2);
+                    int d = digits(p + 8, 2);
+                    int h = digits(p + 11, 2);
+                    date = (y < 0 || m < 0 || d < 0) ? -1 : y * 10000 + m * 100 + d;
+                    hour = h;
+                }
+            } else if (startsWith(start, end, CASHIER_PREFIX)) {
+                int p = skipSpaces(start + CASHIER_PREFIX.length, end);
+                int e = end;
+                while (e > p && buffer.get(e - 1) == ' ') e--;
+                cashier = cashierName(p, e);
+            } else if (startsWith(start, end, ITEM_PREFIX)) {
+                itemLine(start + ITEM_PREFIX.length, end);
+            } else if (startsWith(start, end, TOTAL_PREFIX)) {
+                int p = indexOf(start + TOTAL_PREFIX.length, end, (byte) '$');
+                total = p < 0 ? -1 : Money.parse(buffer, p + 1, end);
+            } else if (end - start == SEPARATOR_LENGTH && isSeparator(buffer, start, end)) {
+                commit();
+            }
+        }
+
+        private void commit() {
+            if (date < 0 || total < 0 || cashier == null) {
+                totals.countMalformed();
+            } else if (date >= fromDate && date <= toDate) {
+                if (currentDay == null || currentDay.date != date) currentDay = totals.day(date);
+                currentDay.addTransaction(hour, cashier, total);
+                for (int i = 0; i < lineCount; i++) {
+                    currentDay.addLine(lineItem[i], lineAddon[i], lineQuantity[i], lineTotal[i]);
+                }
+            }
+            reset();
+        }
+
+        private void reset() {
+            date = -1;
+            hour = -1;
+            cashier = null;
+            total = -1;
+            lineCount = 0;
+        }
+
+        // "Tosilog x2 (Half Rice) - $174.00" (after the "  - " prefix)
+        private void itemLine(int start, int end) {
+            int open = lastIndexOf(start, end, (byte) '(');
+            int close = open < 0 ? -1 : indexOf(open, end, (byte) ')');
+            int x = open < 2 ? -1 : lastIndexOf(start, open - 1, (byte) 'x');
+            int dollar = close < 0 ? -1 : indexOf(close, end, (byte) '$');
+            if (x <= start || buffer.get(x - 1) != ' ' || dollar < 0) {
+                totals.countMalformed();
+                return;
+            }
+            long quantity = parseInt(x + 1, open - 1);
+            long amount = Money.parse(buffer, dollar + 1, end);
+            if (quantity < 0 || amount < 0) {
+                totals.countMalformed();
+                return;
+            }
+            if (lineCount == lineItem.length) {
+                int capacity = lineCount * 2;
+                lineItem = Arrays.copyOf(lineItem, capacity);
+                lineAddon = Arrays.copyOf(lineAddon, capacity);
+                lineQuantity = Arrays.copyOf(lineQuantity, capacity);
+                lineTotal = Arrays.copyOf(lineTotal, capacity);
+            }
+            lineItem[lineCount] = match(itemBytes, start, x - 1);
+            lineAddon[lineCount] = match(addonBytes, open + 1, close);
+            lineQuantity[lineCount] = (int) quantity;
+            lineTotal[lineCount] = amount;
+            lineCount++;
+        }
+
+        // Menu index of the name in [start, end), or names.length ("other") if not on the menu.
+        private int match(byte[][] names, int start, int end) {
+            int length = end - start;
+            for (int n = 0; n < names.length; n++) {
+                byte[] name = names[n];
+                if (name.length != length) continue;
+                int i = 0;
+                while (i < length && buffer.get(start + i) == name[i]) i++;
+                if (i == length) return n;
+            }
+            return names.length;
+        }
+
+        private String cashierName(int start, int end) {
+            int length = end - start;
+            for (int c = 0; c < cashierBytes.length; c++) {
+                byte[] name = cashierBytes[c];
+                if (name == null || name.length != length) continue;
+                int i = 0;
+                while (i < length && buffer.get(start + i) == name[i]) i++;
+                if (i == length) return cashierNames[c];
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            int slot = cashierNext;
+            cashierNext = (cashierNext + 1) % cashierBytes.length;
+            cashierBytes[slot] = bytes;
+            cashierNames[slot] = new String(bytes, StandardCharsets.UTF_8);
+            return cashierNames[slot];
+        }
+
+        // Unsigned decimal in [start, end), trailing spaces allowed; -1 if malformed.
+        private long parseInt(int start, int end) {
+            long value = 0;
+            int i = start;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') break;
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE) return -1;
+            }
+            if (i == start) return -1;
+            for (; i < end; i++) {
+                if (buffer.get(i) != ' ') return -1;
+            }
+            return value;
+        }
+
+        private int digits(int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') return -1;
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private boolean startsWith(int start, int end, byte[] prefix) {
+            if (end - start < prefix.length) return false;
+            for (int i = 0; i < prefix.length; i++) {
+                if (buffer.get(start + i) != prefix[i]) return false;
+            }
+            return true;
+        }
+
+        private int skipSpaces(int start, int end) {
+            while (start < end && buffer.get(start) == ' ') start++;
+            return start;
+        }
+
+        private int indexOf(int start, int end, byte value) {
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == value) return i;
+            }
+            return -1;
+        }
+
+        private int lastIndexOf(int start, int end, byte value) {
+            for (int i = end - 1; i >= start; i--) {
+                if (buffer.get(i) == value) return i;
+            }
+            return -1;
+        }
+
+        private static byte[][] utf8(String[] names) {
+            byte[][] bytes = new byte[names.length][];
+            for (int i = 0; i < names.length; i++) bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            return bytes;
+        }
+    }
+
+    private static boolean isSeparator(MappedByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) != '=') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,204 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * MenuCatalog
+ *
+ * Immutable snapshot ng menu (items + addons, with prices in centavos), loaded from menu.txt.
+ * Each load gets a new version number; RegisterEngine swaps snapshots in with a volatile write,
+ * so a cashier thread always sees one complete menu, never half of an old one and half of a new.
+ *
+ * menu.txt format (one entry per line, '#' = comment, blank lines ok):
+ *   item|TAP|Tapsilog|80.00
+ *   addon|JR|Java Rice|12.00
+ * Order of the lines = order on screen (1-based numbers sa console).
+ *
+ * // Codes are case-insensitive and looked up through a HashMap (O(1)). The name arrays are shared,
+ * // not copied (itemNames()/addonNames()), so do not modify them; the binary journal relies on
+ * // their identity to tell when a new menu took effect.
+ */
+final class MenuCatalog {
+
+    final int version;
+    private final String[] itemCodes;
+    private final String[] itemNames;
+    private final long[] itemPrices;
+    private final String[] addonCodes;
+    private final String[] addonNames;
+    private final long[] addonPrices;
+    private final Map<String, Integer> itemByCode = new HashMap<>();
+    private final Map<String, Integer> addonByCode = new HashMap<>();
+
+    MenuCatalog(int version, String[] itemCodes, String[] itemNames, long[] itemPrices,
+                String[] addonCodes, String[] addonNames, long[] addonPrices) {
+        this.version = version;
+        this.itemCodes = itemCodes;
+        this.itemNames = itemNames;
+        this.itemPrices = itemPrices;
+        this.addonCodes = addonCodes;
+        this.addonNames = addonNames;
+        this.addonPrices = addonPrices;
+        for (int i = 0; i < itemCodes.length; i++) itemByCode.put(itemCodes[i].toUpperCase(Locale.ROOT), i);
+        for (int i = 0; i < addonCodes.length; i++) addonByCode.put(addonCodes[i].toUpperCase(Locale.ROOT), i);
+    }
+
+    // Built-in menu, used when there is no menu.txt (same as the old hard-coded arrays).
+    static MenuCatalog defaults(int version) {
+        return new MenuCatalog(version,
+                new String[] {"TAP", "TOS", "SPAM", "HUN"},
+                new String[] {"Tapsilog", "Tosilog", "Spamsilog", "Hungariansilog"},
+                new long[] {Money.of(80, 0), Money.of(80, 0), Money.of(80, 0), Money.of(95, 0)},
+                new String[] {"R", "HR", "JR", "N"},
+                new String[] {"Rice", "Half Rice", "Java Rice", "None"},
+                new long[] {Money.of(10, 0), Money.of(7, 0), Money.of(12, 0), Money.ZERO});
+    }
+
+    // Parse menu.txt. Any bad line fails the whole load (IOException with the line number), para
+    // hindi mapalitan ng sirang menu yung gumaganang snapshot.
+    static MenuCatalog load(File file, int version) throws IOException {
+        List<String[]> items = new ArrayList<>();
+        List<String[]> addons = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\|", -1);
+                if (parts.length != 4) {
+                    throw new IOException(file.getName() + " line " + lineNo + ": expected kind|code|name|price");
+                }
+                for (int i = 0; i < parts.length; i++) parts[i] = parts[i].trim();
+                if (parts[1].isEmpty() || parts[1].indexOf(' ') >= 0 || parts[2].isEmpty()) {
+                    throw new IOException(file.getName() + " line " + lineNo + ": code/name missing or code has spaces");
+                }
+                long price;
+                try {
+                    price = Money.parse(parts[3]);
+                } catch (NumberFormatException e) {
+                    price = -1;
+                }
+                if (price < 0) throw new IOException(file.getName() + " line " + lineNo + ": bad price " + parts[3]);
+                if (parts[0].equalsIgnoreCase("item")) {
+                    items.add(parts);
+                } else if (parts[0].equalsIgnoreCase("addon")) {
+                    addons.add(parts);
+                } else {
+                    throw new IOException(file.getName() + " line " + lineNo + ": unknown kind " + parts[0]);
+                }
+            }
+        }
+        if (items.isEmpty() || addons.isEmpty()) {
+            throw new IOException(file.getName() + ": needs at least one item and one addon");
+        }
+        MenuCatalog catalog = new MenuCatalog(version,
+                column(items, 1), column(items, 2), prices(items),
+                column(addons, 1), column(addons, 2), prices(addons));
+        if (catalog.itemByCode.size() != items.size() || catalog.addonByCode.size() != addons.size()) {
+            throw new IOException(file.getName() + ": duplicate item or addon code");
+        }
+        return catalog;
+    }
+
+    private static String[] column(List<String[]> rows, int col) {
+        String[] out = new String[rows.size()];
+        for (int i = 0; i < out.length; i++) out[i] = rows.get(i)[col];
+        return out;
+    }
+
+    private static long[] prices(List<String[]> rows) {
+        long[] out = new long[rows.size()];
+        for (int i = 0; i < out.length; i++) out[i] = Money.parse(rows.get(i)[3]);
+        return out;
+    }
+
+    int itemCount() {
+        return itemNames.length;
+    }
+
+    String itemCode(int item) {
+        return itemCodes[item];
+    }
+
+    String itemName(int item) {
+        return itemNames[item];
+    }
+
+    long itemPrice(int item) {
+        return itemPrices[item];
+    }
+
+    int addonCount() {
+        return addonNames.length;
+    }
+
+    String addonCode(int addon) {
+        return addonCodes[addon];
+    }
+
+    String addonName(int addon) {
+        return addonNames[addon];
+    }
+
+    long addonPrice(int addon) {
+        return addonPrices[addon];
+    }
+
+    // 0-based index of the item with this code, or -1.
+    int itemIndex(String code) {
+        Integer idx = itemByCode.get(code.toUpperCase(Locale.ROOT));
+        return idx == null ? -1 : idx;
+    }
+
+    // 0-based index of the addon with this code, or -1.
+    int addonIndex(String code) {
+        Integer idx = addonByCode.get(code.toUpperCase(Locale.ROOT));
+        return idx == null ? -1 : idx;
+    }
+
+    // Same, for the code at text[start, end), without making a String (QuickEntry). A straight
+    // scan of the codes: for a menu this size it beats upper-casing + hashing a new String.
+    int itemIndex(CharSequence text, int start, int end) {
+        return codeIndex(itemCodes, text, start, end);
+    }
+
+    int addonIndex(CharSequence text, int start, int end) {
+        return codeIndex(addonCodes, text, start, end);
+    }
+
+    private static int codeIndex(String[] codes, CharSequence text, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < codes.length; i++) {
+            String code = codes[i];
+            if (code.length() != length) continue;
+            int j = 0;
+            while (j < length && Character.toUpperCase(code.charAt(j)) == Character.toUpperCase(text.charAt(start + j))) j++;
+            if (j == length) return i;
+        }
+        return -1;
+    }
+
+    // Shared name arrays (do not modify).
+    String[] itemNames() {
+        return itemNames;
+    }
+
+    String[] addonNames() {
+        return addonNames;
+    }
+
+    // Same codes, names and prices (version aside). Para hindi mag-bump ng version sa save na walang binago.
+    boolean sameEntries(MenuCatalog other) {
+        return Arrays.equals(itemCodes, other.itemCodes) && Arrays.equals(itemNames, other.itemNames)
+                && Arrays.equals(itemPrices, other.itemPrices) && Arrays.equals(addonCodes, other.addonCodes)
+                && Arrays.equals(addonNames, other.addonNames) && Arrays.equals(addonPrices, other.addonPrices);
+    }
+}
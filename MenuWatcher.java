@@ -0,0 +1,74 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MenuWatcher
+ *
+ * Background thread na nagbabantay sa menu.txt (WatchService on its folder) and asks the engine to
+ * reload when it is created or saved. Cashiers never wait on it: the new snapshot is built off to
+ * the side and swapped in with one volatile write.
+ *
+ * // Editors often save in several steps (truncate + write, or write temp + rename), so events are
+ * // coalesced for SETTLE_MILLIS before reloading. A bad file is reported and the old menu stays.
+ */
+final class MenuWatcher implements Closeable {
+
+    private static final long SETTLE_MILLIS = 200;
+
+    private final RegisterEngine engine;
+    private final Path fileName;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    MenuWatcher(RegisterEngine engine, File menuFile) throws IOException {
+        this.engine = engine;
+        Path path = menuFile.toPath().toAbsolutePath();
+        this.fileName = path.getFileName();
+        this.watcher = path.getFileSystem().newWatchService();
+        try {
+            path.getParent().register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "menu-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = drain(key);
+                // Settle: keep swallowing events until the file has been quiet for a bit.
+                WatchKey more;
+                while ((more = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(more);
+                }
+                if (changed) engine.reloadMenu();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() -> tapos na.
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        thread.interrupt();
+    }
+}
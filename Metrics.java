@@ -0,0 +1,204 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Metrics
+ *
+ * Counters (LongAdder) and latency histograms (LatencyHistogram) para sa hot paths: login,
+ * add item, checkout, console fast entry, journal write, journal fsync. Para makita kung saan
+ * napupunta yung oras.
+ *
+ * Off by default. -Dwansilog.metrics=true turns it on; then:
+ *   -Dwansilog.metricsFile=<file>        snapshot written there every interval and on exit
+ *   -Dwansilog.metricsIntervalSec=<s>    default 60
+ *   -Dwansilog.metricsJmx=true           also register MetricsMXBean as "wansilog:type=Metrics"
+ *
+ * Usage on a hot path:
+ *   long t0 = Metrics.now();
+ *   ...
+ *   Metrics.CHECKOUT.recordSince(t0);
+ *
+ * // ENABLED is a static final, so when it is false the JIT folds now()/recordSince()/increment()
+ * // away completely. When on, a timed section costs two nanoTime() calls plus a few atomic adds.
+ */
+final class Metrics {
+
+    static final boolean ENABLED = Boolean.getBoolean("wansilog.metrics");
+
+    // --- HISTOGRAMS (ns) ---
+    static final Timer LOGIN = new Timer("login");
+    static final Timer ADD_ITEM = new Timer("addItem");
+    static final Timer CHECKOUT = new Timer("checkout");
+    // Console fast entry: from the line being read (Enter) to the confirmation being written.
+    static final Timer QUICK_ENTRY = new Timer("quickEntry");
+    // RegisterServer: one request, from its line being read to its answer being buffered.
+    static final Timer SERVER_REQUEST = new Timer("server.request");
+    static final Timer JOURNAL_WRITE = new Timer("journal.write");
+    static final Timer JOURNAL_FSYNC = new Timer("journal.fsync");
+
+    // --- COUNTERS ---
+    static final Counter LOGIN_OK = new Counter("login.ok");
+    static final Counter LOGIN_FAILED = new Counter("login.failed");
+    static final Counter ITEMS_ADDED = new Counter("items.added");
+    static final Counter CHECKOUT_OK = new Counter("checkout.ok");
+    static final Counter CHECKOUT_REJECTED = new Counter("checkout.rejected");
+    static final Counter SERVER_CONNECTIONS = new Counter("server.connections");
+    static final Counter SERVER_REFUSED = new Counter("server.refused");
+    static final Counter JOURNAL_RECORDS = new Counter("journal.records");
+    static final Counter JOURNAL_BATCHES = new Counter("journal.batches");
+    static final Counter JOURNAL_ERRORS = new Counter("journal.errors");
+
+    private static final Timer[] TIMERS = {LOGIN, ADD_ITEM, CHECKOUT, QUICK_ENTRY, SERVER_REQUEST,
+            JOURNAL_WRITE, JOURNAL_FSYNC};
+    private static final Counter[] COUNTERS = {LOGIN_OK, LOGIN_FAILED, ITEMS_ADDED, CHECKOUT_OK,
+            CHECKOUT_REJECTED, SERVER_CONNECTIONS, SERVER_REFUSED, JOURNAL_RECORDS, JOURNAL_BATCHES, JOURNAL_ERRORS};
+
+    private static boolean installed = false;
+
+    private Metrics() {
+    }
+
+    static final class Timer {
+        final LatencyHistogram histogram;
+
+        Timer(String name) {
+            histogram = new LatencyHistogram(name);
+        }
+
+        void recordSince(long startNanos) {
+            if (ENABLED) histogram.record(System.nanoTime() - startNanos);
+        }
+
+        void record(long nanos) {
+            if (ENABLED) histogram.record(nanos);
+        }
+    }
+
+    static final class Counter {
+        final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        void increment() {
+            if (ENABLED) value.increment();
+        }
+
+        void add(long n) {
+            if (ENABLED) value.add(n);
+        }
+
+        long get() {
+            return value.sum();
+        }
+    }
+
+    // Start of a timed section (0 when disabled).
+    static long now() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    // Set up the file dump / JMX bean from system properties. Safe to call more than once.
+    static synchronized void install() {
+        if (!ENABLED || installed) return;
+        installed = true;
+        String file = System.getProperty("wansilog.metricsFile");
+        if (file != null && !file.isEmpty()) {
+            File target = new File(file);
+            long interval = Math.max(1L, Long.getLong("wansilog.metricsIntervalSec", 60L));
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> dumpQuietly(target), interval, interval, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dumpQuietly(target), "metrics-final-dump"));
+        }
+        if (Boolean.getBoolean("wansilog.metricsJmx")) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName("wansilog:type=Metrics"));
+            } catch (Exception e) {
+                System.out.println("Problem registering metrics with JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    // Text snapshot: one line per counter, one per histogram.
+    static String snapshot() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("# Wansilog metrics ");
+        TextJournalFormat.appendDateTime(sb, LocalDateTime.now()).append('\n');
+        for (Counter counter : COUNTERS) {
+            sb.append(counter.name).append(' ').append(counter.get()).append('\n');
+        }
+        sb.append(String.format("%-15s %10s %10s %10s %10s %10s %10s%n",
+                "# latency (us)", "count", "mean", "p50", "p99", "p99.9", "max"));
+        for (Timer timer : TIMERS) {
+            LatencyHistogram.Snapshot s = timer.histogram.snapshot();
+            sb.append(String.format("%-15s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", s.name, s.count,
+                    s.mean() / 1e3, s.percentile(50) / 1e3, s.percentile(99) / 1e3,
+                    s.percentile(99.9) / 1e3, s.max / 1e3));
+        }
+        return sb.toString();
+    }
+
+    static Map<String, Long> values() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : COUNTERS) values.put(counter.name, counter.get());
+        for (Timer timer : TIMERS) {
+            LatencyHistogram.Snapshot s = timer.histogram.snapshot();
+            values.put(s.name + ".count", s.count);
+            values.put(s.name + ".mean_ns", (long) s.mean());
+            values.put(s.name + ".p50_ns", s.percentile(50));
+            values.put(s.name + ".p99_ns", s.percentile(99));
+            values.put(s.name + ".p999_ns", s.percentile(99.9));
+            values.put(s.name + ".max_ns", s.max);
+        }
+        return values;
+    }
+
+    // Write via temp file + rename, para hindi mabasa ng monitoring yung kalahating file.
+    static void dump(File target) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        File tmp = File.createTempFile("metrics", ".tmp", dir);
+        try {
+            Files.write(tmp.toPath(), snapshot().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void dumpQuietly(File target) {
+        try {
+            dump(target);
+        } catch (IOException e) {
+            System.out.println("Problem writing metrics: " + e.getMessage());
+        }
+    }
+
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public String getSnapshot() {
+            return snapshot();
+        }
+
+        @Override
+        public Map<String, Long> getValues() {
+            return values();
+        }
+    }
+}
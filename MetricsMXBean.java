@@ -0,0 +1,16 @@
+import java.util.Map;
+
+/**
+ * MetricsMXBean
+ *
+ * JMX view ng Metrics (ObjectName "wansilog:type=Metrics"), para makita sa jconsole/VisualVM.
+ * Enabled with -Dwansilog.metrics=true -Dwansilog.metricsJmx=true.
+ */
+public interface MetricsMXBean {
+
+    // Same text as the metrics file.
+    String getSnapshot();
+
+    // Flattened values: "<counter>" and "<histogram>.count/.mean_ns/.p50_ns/.p99_ns/.p999_ns/.max_ns".
+    Map<String, Long> getValues();
+}
@@ -0,0 +1,154 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Money
+ *
+ * Fixed-point pesos: lahat ng amount ay long centavos (1 peso = 100). Walang double kahit saan,
+ * so exact yung totals, change, and yung end-of-day reconciliation.
+ *
+ * // Static helpers lang (no wrapper object) para walang allocation sa order/checkout path.
+ * // Formatting appends digits directly into a StringBuilder instead of String.format("%.2f").
+ */
+final class Money {
+
+    static final long ZERO = 0L;
+    // Largest whole-peso part parse() accepts: pesos * 100 + 99 centavos still fits in a long.
+    private static final long MAX_PESOS = (Long.MAX_VALUE - 99) / 100;
+
+    private Money() {
+    }
+
+    // Pesos + centavos -> centavos, e.g. of(80, 50) = 8050.
+    static long of(long pesos, int centavos) {
+        if (centavos < 0 || centavos > 99) {
+            throw new IllegalArgumentException("Centavos must be 0-99: " + centavos);
+        }
+        return Math.addExact(Math.multiplyExact(pesos, 100L), pesos < 0 ? -centavos : centavos);
+    }
+
+    // Unit price x quantity, overflow-checked.
+    static long times(long centavos, int quantity) {
+        return Math.multiplyExact(centavos, (long) quantity);
+    }
+
+    // Parse an amount like "150", "150.5", "150.50", "$150.50" or "1,500.00" exactly (no double in
+    // between). Commas only as thousands separators (1-3 digits, then groups of 3). Throws
+    // NumberFormatException on anything else, too-large amounts included, same as
+    // Double.parseDouble did for bad input.
+    static long parse(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) == ' ') start++;
+        while (end > start && text.charAt(end - 1) == ' ') end--;
+        if (start < end && text.charAt(start) == '$') start++;
+        boolean negative = false;
+        if (start < end && text.charAt(start) == '-') {
+            negative = true;
+            start++;
+        }
+        if (start == end) throw new NumberFormatException("Empty amount");
+
+        long pesos = 0;
+        int digits = 0;
+        int group = 0;          // digits since the last comma
+        boolean grouped = false;
+        int i = start;
+        for (; i < end && text.charAt(i) != '.'; i++) {
+            char c = text.charAt(i);
+            if (c == ',') {
+                if (group == 0 || group > 3 || (grouped && group != 3)) throw badSeparator(text);
+                grouped = true;
+                group = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') throw new NumberFormatException("For input string: \"" + text + "\"");
+            if (pesos > (MAX_PESOS - (c - '0')) / 10) throw new NumberFormatException("Amount too large: \"" + text + "\"");
+            pesos = pesos * 10 + (c - '0');
+            digits++;
+            group++;
+        }
+        if (grouped && group != 3) throw badSeparator(text);
+        int centavos = 0;
+        int decimals = 0;
+        if (i < end) {
+            for (i++; i < end; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') throw new NumberFormatException("For input string: \"" + text + "\"");
+                if (++decimals > 2) throw new NumberFormatException("At most 2 decimal places: \"" + text + "\"");
+                centavos = centavos * 10 + (c - '0');
+            }
+            if (decimals == 1) centavos *= 10;
+        }
+        if (digits == 0 && decimals == 0) throw new NumberFormatException("For input string: \"" + text + "\"");
+        long amount = pesos * 100 + centavos;
+        return negative ? -amount : amount;
+    }
+
+    // Same rules as parse(CharSequence), over ASCII bytes in [start, end) of a buffer (the mapped
+    // log reader), without exceptions: -1 if the amount is malformed, too large, or negative.
+    // Keep the two in step; MoneyTest checks they agree.
+    static long parse(ByteBuffer bytes, int start, int end) {
+        while (start < end && bytes.get(start) == ' ') start++;
+        while (end > start && bytes.get(end - 1) == ' ') end--;
+        if (start < end && bytes.get(start) == '$') start++;
+        if (start == end || bytes.get(start) == '-') return -1;
+
+        long pesos = 0;
+        int digits = 0;
+        int group = 0;
+        boolean grouped = false;
+        int i = start;
+        for (; i < end && bytes.get(i) != '.'; i++) {
+            byte b = bytes.get(i);
+            if (b == ',') {
+                if (group == 0 || group > 3 || (grouped && group != 3)) return -1;
+                grouped = true;
+                group = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || pesos > (MAX_PESOS - (b - '0')) / 10) return -1;
+            pesos = pesos * 10 + (b - '0');
+            digits++;
+            group++;
+        }
+        if (grouped && group != 3) return -1;
+        int centavos = 0;
+        int decimals = 0;
+        if (i < end) {
+            for (i++; i < end; i++) {
+                byte b = bytes.get(i);
+                if (b < '0' || b > '9' || ++decimals > 2) return -1;
+                centavos = centavos * 10 + (b - '0');
+            }
+            if (decimals == 1) centavos *= 10;
+        }
+        if (digits == 0 && decimals == 0) return -1;
+        return pesos * 100 + centavos;
+    }
+
+    private static NumberFormatException badSeparator(CharSequence text) {
+        return new NumberFormatException("Misplaced comma: \"" + text + "\"");
+    }
+
+    // Append as "123.45" (no currency sign, always 2 decimals).
+    static StringBuilder append(StringBuilder out, long centavos) {
+        if (centavos < 0) {
+            out.append('-');
+            if (centavos == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE overflows; split off the last digit first.
+                out.append(-(centavos / 100)).append('.');
+                long cents = -(centavos % 100);
+                return out.append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10));
+            }
+            centavos = -centavos;
+        }
+        long cents = centavos % 100;
+        return out.append(centavos / 100).append('.')
+                .append((char) ('0' + cents / 10))
+                .append((char) ('0' + cents % 10));
+    }
+
+    static String format(long centavos) {
+        return append(new StringBuilder(16), centavos).toString();
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * OrderLines
+ *
+ * Current order, stored as primitive parallel arrays (menu index, addon index, quantity, unit price
+ * in centavos, menu version). Kapalit ng dating apat na ArrayList na puro boxed Integer/Double.
+ *
+ * // Add, quantity change and totaling don't allocate once the arrays are big enough (they grow by
+ * // doubling, so a normal order never grows past the first capacity). The order total is kept up
+ * // to date on every change, so checkout just reads it.
+ */
+final class OrderLines {
+
+    private int[] menuIndex;
+    private int[] addonIndex;
+    private int[] quantity;
+    private long[] unitPrice;
+    private int[] menuVersion;
+    private int size = 0;
+    private long total = 0L;
+
+    OrderLines(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        menuIndex = new int[capacity];
+        addonIndex = new int[capacity];
+        quantity = new int[capacity];
+        unitPrice = new long[capacity];
+        menuVersion = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Running total ng buong order, in centavos.
+    long total() {
+        return total;
+    }
+
+    int menuIndex(int line) {
+        checkLine(line);
+        return menuIndex[line];
+    }
+
+    int addonIndex(int line) {
+        checkLine(line);
+        return addonIndex[line];
+    }
+
+    int quantity(int line) {
+        checkLine(line);
+        return quantity[line];
+    }
+
+    // Price of one piece (item + addon), in centavos.
+    long unitPrice(int line) {
+        checkLine(line);
+        return unitPrice[line];
+    }
+
+    // MenuCatalog version the line was priced from (its menu/addon index refer to that snapshot).
+    int menuVersion(int line) {
+        checkLine(line);
+        return menuVersion[line];
+    }
+
+    // Unit price x quantity, in centavos.
+    long lineTotal(int line) {
+        checkLine(line);
+        return unitPrice[line] * quantity[line];
+    }
+
+    // Append a new line. Returns its 0-based position.
+    int add(int menu, int addon, int qty, long unitCentavos) {
+        return add(menu, addon, qty, unitCentavos, 0);
+    }
+
+    // Append a new line priced from the given menu version. Returns its 0-based position.
+    int add(int menu, int addon, int qty, long unitCentavos, int version) {
+        if (qty < 1) throw new IllegalArgumentException("Quantity must be at least 1.");
+        if (size == menuIndex.length) grow();
+        menuIndex[size] = menu;
+        addonIndex[size] = addon;
+        quantity[size] = qty;
+        unitPrice[size] = unitCentavos;
+        menuVersion[size] = version;
+        total += unitCentavos * qty;
+        return size++;
+    }
+
+    // Line with the same item, addon, unit price and menu version, or -1. Linear; orders are short.
+    int find(int menu, int addon, long unitCentavos, int version) {
+        for (int i = 0; i < size; i++) {
+            if (menuIndex[i] == menu && addonIndex[i] == addon && unitPrice[i] == unitCentavos
+                    && menuVersion[i] == version) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void setQuantity(int line, int qty) {
+        checkLine(line);
+        if (qty < 1) throw new IllegalArgumentException("Quantity must be at least 1.");
+        total += unitPrice[line] * (qty - quantity[line]);
+        quantity[line] = qty;
+    }
+
+    // Remove a line, shifting the later lines down (same numbering as the old ArrayList.remove).
+    void remove(int line) {
+        checkLine(line);
+        total -= unitPrice[line] * quantity[line];
+        int tail = size - line - 1;
+        if (tail > 0) {
+            System.arraycopy(menuIndex, line + 1, menuIndex, line, tail);
+            System.arraycopy(addonIndex, line + 1, addonIndex, line, tail);
+            System.arraycopy(quantity, line + 1, quantity, line, tail);
+            System.arraycopy(unitPrice, line + 1, unitPrice, line, tail);
+            System.arraycopy(menuVersion, line + 1, menuVersion, line, tail);
+        }
+        size--;
+    }
+
+    // Reset for a fresh transaction. Arrays are kept para reusable sa next order.
+    void clear() {
+        size = 0;
+        total = 0L;
+    }
+
+    private void checkLine(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Order line " + line + " of " + size);
+        }
+    }
+
+    private void grow() {
+        int capacity = menuIndex.length * 2;
+        menuIndex = Arrays.copyOf(menuIndex, capacity);
+        addonIndex = Arrays.copyOf(addonIndex, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        unitPrice = Arrays.copyOf(unitPrice, capacity);
+        menuVersion = Arrays.copyOf(menuVersion, capacity);
+    }
+}
@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderSession
+ *
+ * Order logic ng isang terminal (add, update, remove, checkout, cancel), walang Scanner at walang
+ * System.out. Returns a status code per operation; yung console flow na ang bahala sa message.
+ *
+ * // All line/item/addon numbers here are 0-based. Console input is 1-based, so convert first.
+ * // Each line is priced from the menu snapshot it was added with (a reload mid-order does not
+ * // reprice it); the snapshots used by the current order are kept in menus[].
+ * // Adding something already in the order (same item, addon, price) adds to that line's quantity
+ * // instead of a second identical line, so the receipt shows "Tapsilog x2 (Rice)" once. A line
+ * // never holds more than MAX_QUANTITY, whether by one add, merged adds, or an update.
+ * // With an OrderWal attached, every change is logged before it is applied (see recover()).
+ * // A WAL write error is reported but does not block the sale.
+ */
+final class OrderSession {
+
+    // --- STATUS CODES ---
+    static final int OK = 0;
+    static final int INVALID_ITEM = 1;
+    static final int INVALID_ADDON = 2;
+    static final int INVALID_QUANTITY = 3;
+    static final int INVALID_LINE = 4;
+    static final int EMPTY_ORDER = 5;
+    static final int INSUFFICIENT_PAYMENT = 6;
+
+    // Most of one item (same item, addon and price) on one order line, however it got there:
+    // one add, several merged adds, or an update.
+    static final int MAX_QUANTITY = 9999;
+
+    private final RegisterEngine engine;
+    private final OrderLines order = new OrderLines(16);
+    private MenuCatalog[] menus = new MenuCatalog[2];
+    private int menuCount = 0;
+    private String cashier;
+    private long lastChange = 0L;
+    private int lastTransactionId = 0;
+    private OrderWal wal = null;
+
+    OrderSession(RegisterEngine engine, String cashier) {
+        this.engine = engine;
+        this.cashier = cashier;
+    }
+
+    RegisterEngine engine() {
+        return engine;
+    }
+
+    OrderLines lines() {
+        return order;
+    }
+
+    String cashier() {
+        return cashier;
+    }
+
+    void setCashier(String cashier) {
+        this.cashier = cashier;
+        if (wal != null && cashier != null) {
+            try {
+                wal.cashier(cashier);
+            } catch (IOException e) {
+                walProblem(e);
+            }
+        }
+    }
+
+    // Attach a write-ahead log. Call recover() right after, before taking orders.
+    void setWal(OrderWal wal) {
+        this.wal = wal;
+    }
+
+    // Change given on the last successful checkout, in centavos.
+    long lastChange() {
+        return lastChange;
+    }
+
+    int lastTransactionId() {
+        return lastTransactionId;
+    }
+
+    int addItem(int item, int addon, int qty) {
+        return addItem(engine.menu(), item, addon, qty);
+    }
+
+    // Add using a specific menu snapshot (e.g. the one the console just showed).
+    int addItem(MenuCatalog menu, int item, int addon, int qty) {
+        if (item < 0 || item >= menu.itemCount()) return INVALID_ITEM;
+        if (addon < 0 || addon >= menu.addonCount()) return INVALID_ADDON;
+        if (qty < 1 || qty > MAX_QUANTITY) return INVALID_QUANTITY;
+        long t0 = Metrics.now();
+        long unitPrice = menu.itemPrice(item) + menu.addonPrice(addon);
+        int line = order.find(item, addon, unitPrice, menu.version);
+        if (line < 0) {
+            addLine(menu, item, addon, qty, unitPrice);
+        } else {
+            int current = order.quantity(line);
+            if (qty > MAX_QUANTITY - current) return INVALID_QUANTITY;
+            if (wal != null) {
+                try {
+                    wal.update(line, current + qty);
+                } catch (IOException e) {
+                    walProblem(e);
+                }
+            }
+            order.setQuantity(line, current + qty);
+        }
+        Metrics.ADD_ITEM.recordSince(t0);
+        Metrics.ITEMS_ADDED.add(qty);
+        return OK;
+    }
+
+    // Add every item of a parsed fast-entry line, or none of them. Returns -1 if all were added,
+    // else the index of the first item that would take its order line past MAX_QUANTITY (counting
+    // earlier items on the same entry line that merge into it); then nothing was added.
+    int addAll(MenuCatalog menu, QuickEntry entry) {
+        for (int i = 0; i < entry.count(); i++) {
+            int item = entry.item(i);
+            int addon = entry.addon(i);
+            int line = order.find(item, addon, menu.itemPrice(item) + menu.addonPrice(addon), menu.version);
+            int total = line < 0 ? 0 : order.quantity(line);
+            for (int j = 0; j <= i; j++) {
+                if (entry.item(j) == item && entry.addon(j) == addon) total += entry.quantity(j);
+            }
+            if (total > MAX_QUANTITY) return i;
+        }
+        for (int i = 0; i < entry.count(); i++) {
+            addItem(menu, entry.item(i), entry.addon(i), entry.quantity(i));
+        }
+        return -1;
+    }
+
+    private void addLine(MenuCatalog menu, int item, int addon, int qty, long unitPrice) {
+        if (wal != null) {
+            try {
+                wal.add(unitPrice, qty, menu.itemCode(item), menu.addonCode(addon),
+                        menu.itemName(item), menu.addonName(addon));
+            } catch (IOException e) {
+                walProblem(e);
+            }
+        }
+        order.add(item, addon, qty, unitPrice, menu.version);
+        if (menuCount == 0 || menus[menuCount - 1] != menu) remember(menu);
+    }
+
+    // Menu snapshot a line was priced from.
+    MenuCatalog menuOf(int line) {
+        int version = order.menuVersion(line);
+        for (int i = menuCount - 1; i >= 0; i--) {
+            if (menus[i].version == version) return menus[i];
+        }
+        throw new IllegalStateException("No menu version " + version + " for line " + line);
+    }
+
+    String itemName(int line) {
+        return menuOf(line).itemName(order.menuIndex(line));
+    }
+
+    String addonName(int line) {
+        return menuOf(line).addonName(order.addonIndex(line));
+    }
+
+    private void remember(MenuCatalog menu) {
+        for (int i = 0; i < menuCount; i++) {
+            if (menus[i] == menu) return;
+        }
+        if (menuCount == menus.length) menus = Arrays.copyOf(menus, menuCount * 2);
+        menus[menuCount++] = menu;
+    }
+
+    int updateQuantity(int line, int qty) {
+        if (line < 0 || line >= order.size()) return INVALID_LINE;
+        if (qty < 1 || qty > MAX_QUANTITY) return INVALID_QUANTITY;
+        if (wal != null) {
+            try {
+                wal.update(line, qty);
+            } catch (IOException e) {
+                walProblem(e);
+            }
+        }
+        order.setQuantity(line, qty);
+        return OK;
+    }
+
+    int removeItem(int line) {
+        if (line < 0 || line >= order.size()) return INVALID_LINE;
+        if (wal != null) {
+            try {
+                wal.remove(line);
+            } catch (IOException e) {
+                walProblem(e);
+            }
+        }
+        order.remove(line);
+        return OK;
+    }
+
+    // Take payment (centavos), log the transaction, and start a fresh order.
+    int checkout(long payment) {
+        if (order.isEmpty()) return EMPTY_ORDER;
+        long t0 = Metrics.now();
+        long total = order.total();
+        if (payment < total) {
+            Metrics.CHECKOUT_REJECTED.increment();
+            return INSUFFICIENT_PAYMENT;
+        }
+        lastChange = payment - total;
+        if (wal == null) {
+            lastTransactionId = engine.logTransactionToFile(cashier, order, menus, menuCount);
+        } else {
+            // WAL first: if we die before the journal has it, recovery writes it again.
+            TransactionRecord record = engine.newTransaction(cashier, order, menus, menuCount);
+            try {
+                wal.checkout(record.id, record.localEpochSecond);
+            } catch (IOException e) {
+                walProblem(e);
+            }
+            OrderWal log = wal;
+            int id = record.id;
+            engine.submit(record, () -> log.checkoutWritten(id));
+            lastTransactionId = record.id;
+        }
+        clear();
+        Metrics.CHECKOUT.recordSince(t0);
+        Metrics.CHECKOUT_OK.increment();
+        return OK;
+    }
+
+    // --- CLEAR ORDER (reset order lines for fresh transaction) ---
+    void cancel() {
+        if (wal != null && !order.isEmpty()) {
+            try {
+                wal.cancel();
+            } catch (IOException e) {
+                walProblem(e);
+            }
+        }
+        clear();
+    }
+
+    // --- RECOVERY ---
+    // Replay the WAL after a crash: checkouts that never reached the journal are written again
+    // (same ID and time), and the open order is restored at the prices it was rung up with.
+    // Lines whose item/addon code is gone from the current menu are dropped. Then the WAL is
+    // compacted down to just the restored order. Returns the number of restored lines.
+    int recover() throws IOException {
+        if (wal == null) return 0;
+        OrderWal.Recovery recovery = wal.recover();
+        if (recovery.tornBytes > 0) {
+            System.out.println("Order log: dropped " + recovery.tornBytes + " byte/s of incomplete record.");
+        }
+        List<OrderWal.Checkout> missing = new ArrayList<>();
+        for (OrderWal.Checkout checkout : recovery.checkouts) {
+            if (!engine.isJournaled(checkout.transactionId)) missing.add(checkout);
+        }
+        if (!missing.isEmpty()) {
+            if (!engine.journalOpen()) {
+                // Keep the WAL as is; next start will try again.
+                System.out.println("Order log: journal is not open, cannot recover " + missing.size() + " checkout/s yet.");
+                return 0;
+            }
+            CountDownLatch written = new CountDownLatch(missing.size());
+            for (OrderWal.Checkout checkout : missing) {
+                engine.relog(checkout.toRecord(), written::countDown);
+                System.out.println("Recovered transaction #" + checkout.transactionId + " from order log.");
+            }
+            try {
+                if (!written.await(30, TimeUnit.SECONDS)) {
+                    System.out.println("Order log: recovered checkouts not yet on disk, keeping order log.");
+                    return 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+
+        wal.reset();
+        clear();
+        if (recovery.cashier != null && cashier == null) cashier = recovery.cashier;
+        MenuCatalog menu = engine.menu();
+        int restored = 0;
+        for (OrderWal.Line line : recovery.openLines) {
+            int item = menu.itemIndex(line.itemCode);
+            int addon = menu.addonIndex(line.addonCode);
+            if (item < 0 || addon < 0 || line.quantity < 1) {
+                System.out.println("Order log: " + line.itemName + " (" + line.addonName + ") is no longer on the menu, dropped.");
+                continue;
+            }
+            addLine(menu, item, addon, line.quantity, line.unitPrice);
+            restored++;
+        }
+        return restored;
+    }
+
+    private static void walProblem(IOException e) {
+        System.out.println("Problem writing order log: " + e.getMessage());
+    }
+
+    private void clear() {
+        order.clear();
+        Arrays.fill(menus, 0, menuCount, null);
+        menuCount = 0;
+    }
+}
@@ -0,0 +1,390 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * OrderWal
+ *
+ * Write-ahead log ng order na ginagawa pa lang (orders.wal). Bawat add/update/remove/cancel/checkout
+ * is appended here before it takes effect, para kung mamatay yung register mid-order, maibabalik
+ * yung order sa next startup instead of mawala.
+ *
+ * Records use the same framing as the binary journal ([type][length][payload][CRC32], see
+ * BinaryJournalFormat.writeFrame):
+ *   CASHIER (1)   name
+ *   ADD (2)       unit price, quantity, item code, addon code, item name, addon name
+ *   UPDATE (3)    line, quantity
+ *   REMOVE (4)    line
+ *   CHECKOUT (5)  transaction ID, local epoch second
+ *   CANCEL (6)
+ *
+ * // Compaction: every time a checkout reaches the journal (JournalWriter afterWrite callback) or an
+ * // order is cancelled, the file is rewritten down to what recovery would still need: checkouts
+ * // not yet in the journal, then the cashier and the open order (kept in memory, mirroring the
+ * // records). Written to orders.wal.tmp and renamed over, so a crash leaves the old or the new
+ * // file, both complete. Nothing left = truncated to zero. So it only ever holds the open order
+ * // plus checkouts still in flight, and recovery time stays bounded even on a busy counter.
+ * // A checkout is logged here before it is queued to the journal; on recovery, a checkout whose
+ * // transaction is not in the journal is written again with the same ID and time.
+ */
+final class OrderWal implements Closeable {
+
+    static final int CASHIER = 1;
+    static final int ADD = 2;
+    static final int UPDATE = 3;
+    static final int REMOVE = 4;
+    static final int CHECKOUT = 5;
+    static final int CANCEL = 6;
+
+    // One line as logged (codes to find it on the current menu, names/price as sold).
+    static final class Line {
+        final long unitPrice;
+        int quantity;
+        final String itemCode;
+        final String addonCode;
+        final String itemName;
+        final String addonName;
+
+        Line(long unitPrice, int quantity, String itemCode, String addonCode, String itemName, String addonName) {
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+            this.itemCode = itemCode;
+            this.addonCode = addonCode;
+            this.itemName = itemName;
+            this.addonName = addonName;
+        }
+    }
+
+    // A checkout found in the log, with the order as it was at that moment.
+    static final class Checkout {
+        final int transactionId;
+        final long localEpochSecond;
+        final String cashier;
+        final List<Line> lines;
+
+        Checkout(int transactionId, long localEpochSecond, String cashier, List<Line> lines) {
+            this.transactionId = transactionId;
+            this.localEpochSecond = localEpochSecond;
+            this.cashier = cashier;
+            this.lines = lines;
+        }
+
+        // Journal record for re-logging (names as sold, not as on today's menu).
+        TransactionRecord toRecord() {
+            List<String> items = new ArrayList<>();
+            List<String> addons = new ArrayList<>();
+            int n = lines.size();
+            int[] itemIdx = new int[n];
+            int[] addonIdx = new int[n];
+            int[] quantities = new int[n];
+            long[] lineTotals = new long[n];
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                Line line = lines.get(i);
+                itemIdx[i] = indexOrAdd(items, line.itemName);
+                addonIdx[i] = indexOrAdd(addons, line.addonName);
+                quantities[i] = line.quantity;
+                lineTotals[i] = line.unitPrice * line.quantity;
+                total += lineTotals[i];
+            }
+            return new TransactionRecord(transactionId, localEpochSecond, cashier,
+                    items.toArray(new String[0]), addons.toArray(new String[0]),
+                    n, itemIdx, addonIdx, quantities, lineTotals, total);
+        }
+
+        private static int indexOrAdd(List<String> names, String name) {
+            int idx = names.indexOf(name);
+            if (idx >= 0) return idx;
+            names.add(name);
+            return names.size() - 1;
+        }
+    }
+
+    // What recover() found: checkouts still in the file, and the open order (if any).
+    static final class Recovery {
+        final List<Checkout> checkouts = new ArrayList<>();
+        final List<Line> openLines = new ArrayList<>();
+        String cashier;
+        long records;
+        long tornBytes;
+    }
+
+    private final File file;
+    private FileChannel channel;
+    private final boolean sync;
+    private final ByteSink payload = new ByteSink(128);
+    private final ByteSink frame = new ByteSink(256);
+    private final CRC32 crc = new CRC32();
+    private String cashier = null;
+    private boolean cashierWritten = false;
+    private boolean orderOpen = false;
+    // What the file must keep, for compaction: the open order's lines, checkouts waiting for the
+    // journal, and checkouts found by recover() that are not known to be journaled yet.
+    private final List<Line> openLines = new ArrayList<>();
+    private final List<Checkout> pending = new ArrayList<>();
+    private final List<Checkout> recovered = new ArrayList<>();
+
+    OrderWal(File file, boolean sync) throws IOException {
+        this.file = file;
+        this.channel = open(file);
+        this.sync = sync;
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        return FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // -Dwansilog.walSync=false skips the fsync per mutation (faster, survives a crash of the app but
+    // not of the OS/power).
+    static OrderWal fromSystemProperties(File file) throws IOException {
+        return new OrderWal(file, Boolean.parseBoolean(System.getProperty("wansilog.walSync", "true")));
+    }
+
+    // --- RECOVERY ---
+    // Replay the file. A torn or damaged tail is cut off at the last good record.
+    synchronized Recovery recover() throws IOException {
+        Recovery result = new Recovery();
+        long size = channel.size();
+        long good = 0;
+        BinaryJournalFormat.Frame record = new BinaryJournalFormat.Frame();
+        List<Line> lines = result.openLines;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            while (good < size) {
+                int length = record.read(in, size - good);
+                if (length < 0) break;
+                try {
+                    switch (record.type) {
+                        case CASHIER:
+                            result.cashier = record.string();
+                            break;
+                        case ADD: {
+                            long price = record.varLong();
+                            int qty = record.varInt();
+                            lines.add(new Line(price, qty, record.string(), record.string(), record.string(), record.string()));
+                            break;
+                        }
+                        case UPDATE: {
+                            int line = record.varInt();
+                            int qty = record.varInt();
+                            if (line < lines.size()) lines.get(line).quantity = qty;
+                            break;
+                        }
+                        case REMOVE: {
+                            int line = record.varInt();
+                            if (line < lines.size()) lines.remove(line);
+                            break;
+                        }
+                        case CHECKOUT: {
+                            int id = record.varInt();
+                            long time = record.varLong();
+                            result.checkouts.add(new Checkout(id, time, result.cashier, new ArrayList<>(lines)));
+                            lines.clear();
+                            break;
+                        }
+                        case CANCEL:
+                            lines.clear();
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (IOException e) {
+                    break; // CRC ok pero hindi ma-decode: treat as the end
+                }
+                good += length;
+                result.records++;
+            }
+        }
+        if (good < size) {
+            result.tornBytes = size - good;
+            channel.truncate(good);
+            if (sync) channel.force(false);
+        }
+        channel.position(channel.size());
+        cashier = result.cashier;
+        cashierWritten = cashier != null && good > 0;
+        orderOpen = !lines.isEmpty();
+        openLines.clear();
+        openLines.addAll(lines);
+        pending.clear();
+        recovered.clear();
+        recovered.addAll(result.checkouts);
+        return result;
+    }
+
+    // Start over with an empty file (after recovery has re-logged / restored everything).
+    synchronized void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        if (sync) channel.force(false);
+        cashierWritten = false;
+        orderOpen = false;
+        openLines.clear();
+        pending.clear();
+        recovered.clear();
+    }
+
+    // --- MUTATIONS ---
+    synchronized void cashier(String name) throws IOException {
+        cashier = name;
+        payload.reset();
+        BinaryJournalFormat.writeString(payload, name);
+        append(CASHIER);
+        cashierWritten = true;
+    }
+
+    synchronized void add(long unitPrice, int qty, String itemCode, String addonCode,
+                          String itemName, String addonName) throws IOException {
+        if (!cashierWritten && cashier != null) cashier(cashier);
+        Line line = new Line(unitPrice, qty, itemCode, addonCode, itemName, addonName);
+        encodeAdd(line);
+        append(ADD);
+        openLines.add(line);
+        orderOpen = true;
+    }
+
+    synchronized void update(int line, int qty) throws IOException {
+        payload.reset();
+        payload.writeVarLong(line);
+        payload.writeVarLong(qty);
+        append(UPDATE);
+        if (line < openLines.size()) openLines.get(line).quantity = qty;
+    }
+
+    synchronized void remove(int line) throws IOException {
+        payload.reset();
+        payload.writeVarLong(line);
+        append(REMOVE);
+        if (line < openLines.size()) openLines.remove(line);
+    }
+
+    synchronized void cancel() throws IOException {
+        if (!orderOpen) return;
+        payload.reset();
+        append(CANCEL);
+        openLines.clear();
+        orderOpen = false;
+        compact();
+    }
+
+    // Log the checkout. Call checkoutWritten(transactionId) once the journal has the transaction.
+    synchronized void checkout(int transactionId, long localEpochSecond) throws IOException {
+        encodeCheckout(transactionId, localEpochSecond);
+        append(CHECKOUT);
+        pending.add(new Checkout(transactionId, localEpochSecond, cashier, new ArrayList<>(openLines)));
+        openLines.clear();
+        orderOpen = false;
+    }
+
+    // Journal writer callback: this logged checkout is now safely in the journal. By ID, since a
+    // batch that failed to write never calls back, so they do not always arrive in order.
+    synchronized void checkoutWritten(int transactionId) {
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).transactionId == transactionId) {
+                pending.remove(i);
+                break;
+            }
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            System.out.println("Problem compacting order log: " + e.getMessage());
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // --- COMPACTION ---
+    // Rewrite the file down to the recovered and pending checkouts (each with its cashier and
+    // lines), then the cashier and the open order; same records recovery would rebuild them from.
+    private void compact() throws IOException {
+        if (!orderOpen && pending.isEmpty() && recovered.isEmpty()) {
+            channel.truncate(0);
+            channel.position(0);
+            cashierWritten = false;
+            return;
+        }
+        frame.reset();
+        String written = null;
+        for (List<Checkout> checkouts : List.of(recovered, pending)) {
+            for (Checkout checkout : checkouts) {
+                written = frameCashier(checkout.cashier, written);
+                for (Line line : checkout.lines) {
+                    encodeAdd(line);
+                    BinaryJournalFormat.writeFrame(frame, ADD, payload, crc);
+                }
+                encodeCheckout(checkout.transactionId, checkout.localEpochSecond);
+                BinaryJournalFormat.writeFrame(frame, CHECKOUT, payload, crc);
+            }
+        }
+        written = frameCashier(cashier, written);
+        for (Line line : openLines) {
+            encodeAdd(line);
+            BinaryJournalFormat.writeFrame(frame, ADD, payload, crc);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = frame.asByteBuffer();
+            while (buffer.hasRemaining()) out.write(buffer);
+            if (sync) out.force(false);
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e; // the old file is still complete, just longer
+        }
+        channel.close();
+        channel = open(file);
+        channel.position(channel.size());
+        cashierWritten = written != null && written.equals(cashier);
+    }
+
+    // Frame a CASHIER record if the name differs from the last one framed; returns the current one.
+    private String frameCashier(String name, String last) {
+        if (name == null || name.equals(last)) return last;
+        payload.reset();
+        BinaryJournalFormat.writeString(payload, name);
+        BinaryJournalFormat.writeFrame(frame, CASHIER, payload, crc);
+        return name;
+    }
+
+    private void encodeAdd(Line line) {
+        payload.reset();
+        payload.writeVarLong(line.unitPrice);
+        payload.writeVarLong(line.quantity);
+        BinaryJournalFormat.writeString(payload, line.itemCode);
+        BinaryJournalFormat.writeString(payload, line.addonCode);
+        BinaryJournalFormat.writeString(payload, line.itemName);
+        BinaryJournalFormat.writeString(payload, line.addonName);
+    }
+
+    private void encodeCheckout(int transactionId, long localEpochSecond) {
+        payload.reset();
+        payload.writeVarLong(transactionId);
+        payload.writeVarLong(localEpochSecond);
+    }
+
+    private void append(int type) throws IOException {
+        frame.reset();
+        BinaryJournalFormat.writeFrame(frame, type, payload, crc);
+        ByteBuffer buffer = frame.asByteBuffer();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        if (sync) channel.force(false);
+    }
+}
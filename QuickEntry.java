@@ -0,0 +1,230 @@
+/**
+ * QuickEntry
+ *
+ * One-line order entry para sa mabilis na counter: item, addon and quantity sa iisang linya,
+ * by menu number or code, instead of three prompts:
+ *   2 3 x4             item 2, addon 3, quantity 4
+ *   TOS JR 4           Tosilog, Java Rice, 4 (codes from menu.txt, any case)
+ *   tap r              quantity defaults to 1
+ *   TAP R 2, TOS JR    several items, comma separated
+ *
+ * // Hand-written tokenizer over the line: no split/substring/parseInt and no exceptions, so a
+ * // parse allocates nothing, typo or not. Errors come back as a status code plus the span of the
+ * // offending token (errorStart/errorEnd), para maituro ng console kung alin ang mali. Codes are
+ * // matched in place against the menu (MenuCatalog.itemIndex(CharSequence, int, int)).
+ * // The whole line is checked before anything is added, so a bad second item adds nothing.
+ * // One instance per terminal; results stay in its arrays until the next parse().
+ */
+final class QuickEntry {
+
+    // --- STATUS CODES ---
+    static final int OK = 0;
+    static final int EMPTY = 1;
+    static final int UNKNOWN_ITEM = 2;
+    static final int UNKNOWN_ADDON = 3;
+    static final int MISSING_ADDON = 4;
+    static final int BAD_QUANTITY = 5;
+    static final int EXTRA_INPUT = 6;
+    static final int TOO_MANY_ITEMS = 7;
+
+    static final int MAX_QUANTITY = OrderSession.MAX_QUANTITY;
+    static final int MAX_ITEMS = 16;
+
+    private final int[] items = new int[MAX_ITEMS];
+    private final int[] addons = new int[MAX_ITEMS];
+    private final int[] quantities = new int[MAX_ITEMS];
+    private int count = 0;
+    private int errorStart = 0;
+    private int errorEnd = 0;
+
+    // Tokenizer position (current token = [tokenStart, tokenEnd)).
+    private CharSequence text;
+    private int pos;
+    private int limit;
+    private int tokenStart;
+    private int tokenEnd;
+
+    // Parse a whole line against one menu snapshot. OK = count() entries ready to add.
+    int parse(CharSequence line, MenuCatalog menu) {
+        count = 0;
+        errorStart = 0;
+        errorEnd = 0;
+        text = line;
+        int length = line.length();
+        int entryStart = 0;
+        while (entryStart <= length) {
+            int entryEnd = entryStart;
+            while (entryEnd < length && line.charAt(entryEnd) != ',') entryEnd++;
+            int status = parseEntry(entryStart, entryEnd, menu);
+            if (status != OK) {
+                text = null;
+                return status;
+            }
+            entryStart = entryEnd + 1;
+        }
+        text = null;
+        if (count == 0) {
+            errorStart = 0;
+            errorEnd = length;
+            return EMPTY;
+        }
+        return OK;
+    }
+
+    // "item addon [qty]" in [start, end). A blank entry (e.g. trailing comma) is skipped.
+    private int parseEntry(int start, int end, MenuCatalog menu) {
+        pos = start;
+        limit = end;
+        if (!nextToken()) return OK;
+        if (count == MAX_ITEMS) return fail(TOO_MANY_ITEMS);
+        int item = isDigits(tokenStart, tokenEnd)
+                ? menuNumber(tokenStart, tokenEnd, menu.itemCount())
+                : menu.itemIndex(text, tokenStart, tokenEnd);
+        if (item < 0) return fail(UNKNOWN_ITEM);
+        if (!nextToken()) {
+            tokenStart = tokenEnd;
+            return fail(MISSING_ADDON);
+        }
+        int addon = isDigits(tokenStart, tokenEnd)
+                ? menuNumber(tokenStart, tokenEnd, menu.addonCount())
+                : menu.addonIndex(text, tokenStart, tokenEnd);
+        if (addon < 0) return fail(UNKNOWN_ADDON);
+        int qty = 1;
+        if (nextToken()) {
+            int from = tokenStart;
+            char c = text.charAt(from);
+            if (c == 'x' || c == 'X' || c == '*') {
+                from++;
+                // "x 4": the number is the next token
+                if (from == tokenEnd && nextToken()) from = tokenStart;
+            }
+            qty = number(text, from, tokenEnd);
+            if (qty < 1 || qty > MAX_QUANTITY) return fail(BAD_QUANTITY);
+            if (nextToken()) return fail(EXTRA_INPUT);
+        }
+        items[count] = item;
+        addons[count] = addon;
+        quantities[count] = qty;
+        count++;
+        return OK;
+    }
+
+    // Next run of non-blank characters before `limit`; false if there is none.
+    private boolean nextToken() {
+        while (pos < limit && isBlank(text.charAt(pos))) pos++;
+        if (pos >= limit) return false;
+        tokenStart = pos;
+        while (pos < limit && !isBlank(text.charAt(pos))) pos++;
+        tokenEnd = pos;
+        return true;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private boolean isDigits(int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    // 1-based menu number -> 0-based index, or -1 if out of range.
+    private int menuNumber(int start, int end, int size) {
+        int n = number(text, start, end);
+        return n >= 1 && n <= size ? n - 1 : -1;
+    }
+
+    private int fail(int status) {
+        errorStart = tokenStart;
+        errorEnd = tokenEnd;
+        return status;
+    }
+
+    // Non-negative number in text[start, end), or -1 if it is empty, has a non-digit, or has
+    // more than 9 digits (so it can't overflow). The no-exception replacement for parseInt.
+    static int number(CharSequence text, int start, int end) {
+        if (start >= end || end - start > 9) return -1;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Same, for a whole console answer (surrounding blanks ignored).
+    static int number(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isBlank(text.charAt(start))) start++;
+        while (end > start && isBlank(text.charAt(end - 1))) end--;
+        return number(text, start, end);
+    }
+
+    // Whether an order menu answer is an item entry rather than a menu choice: more than one
+    // word, or starts with a letter (menu choices are single numbers).
+    static boolean looksLikeEntry(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isBlank(text.charAt(start))) start++;
+        while (end > start && isBlank(text.charAt(end - 1))) end--;
+        if (start == end) return false;
+        if (Character.isLetter(text.charAt(start))) return true;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isBlank(c) || c == ',') return true;
+        }
+        return false;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int item(int entry) {
+        return items[entry];
+    }
+
+    int addon(int entry) {
+        return addons[entry];
+    }
+
+    int quantity(int entry) {
+        return quantities[entry];
+    }
+
+    // Message for a rejected line (status from the last parse() of `input`), quoting the part
+    // that is wrong. Shared by the console and RegisterServer.
+    String errorMessage(int status, CharSequence input) {
+        String token = input.subSequence(errorStart, errorEnd).toString();
+        switch (status) {
+            case UNKNOWN_ITEM:
+                return "Unknown item \"" + token + "\". Use the item number or code.";
+            case UNKNOWN_ADDON:
+                return "Unknown addon \"" + token + "\". Use the addon number or code.";
+            case MISSING_ADDON:
+                return "Addon missing. Format: item addon [qty], e.g. 2 3 x4 or TOS JR 4.";
+            case BAD_QUANTITY:
+                return "Invalid quantity \"" + token + "\". Use 1 to " + MAX_QUANTITY + ", e.g. x4.";
+            case EXTRA_INPUT:
+                return "Unexpected \"" + token + "\". Separate items with commas.";
+            case TOO_MANY_ITEMS:
+                return "Too many items on one line (max " + MAX_ITEMS + ").";
+            default:
+                return "Nothing entered. Format: item addon [qty], e.g. 2 3 x4 or TOS JR 4.";
+        }
+    }
+
+    // Span of the token the last error is about (empty = where the missing one should be).
+    int errorStart() {
+        return errorStart;
+    }
+
+    int errorEnd() {
+        return errorEnd;
+    }
+}
@@ -0,0 +1,319 @@
+import java.io.*;
+import java.time.LocalDateTime;
+
+/**
+ * RegisterEngine
+ *
+ * Store-wide part ng register na walang console I/O: menu, transaction ID numbering, and the
+ * transaction journal. Console flows (TapsilogCashRegister) and the headless batch runner both
+ * go through this + OrderSession, para iisa lang yung checkout path na sinusukat.
+ *
+ * // Shared by every terminal (OrderSession) in the JVM. Checkout takes no lock: the ID comes
+ * // from an atomic allocator and the formatted record goes onto the journal writer's queue.
+ * // The menu is an immutable MenuCatalog behind a volatile reference; reloads (menu.txt saved,
+ * // see MenuWatcher) swap in a whole new snapshot, copy-on-write, without locking anyone out.
+ */
+final class RegisterEngine implements Closeable {
+
+    static final String TRANSACTION_LOG = "transactions.txt";
+    static final String TRANSACTION_INDEX = "transactions.idx";
+    static final String TRANSACTION_BACKUP = "transactions_backup.txt";
+    static final String BINARY_LOG = "transactions.bin";
+    static final String BINARY_INDEX = "transactions.bin.idx";
+    static final String BINARY_BACKUP = "transactions_backup.bin";
+    static final String TOTALS_SNAPSHOT = "transactions.totals";
+    static final String BINARY_TOTALS = "transactions.bin.totals";
+    static final String MENU_FILE = "menu.txt";
+
+    // How far back (in index entries) recovery looks for a checkout that may not have been written.
+    // Anything lost in a crash was still in the journal queue, which is much smaller than this.
+    private static final int RECOVERY_WINDOW = 1 << 16;
+
+    // Journal format (-Dwansilog.journalFormat=text|binary) and the files that go with it, in
+    // dataDir (null = the working directory, like always).
+    private final JournalFormat journalFormat = JournalFormat.fromSystemProperties();
+    private final boolean binary = journalFormat instanceof BinaryJournalFormat;
+    private final File dataDir;
+
+    // --- MENU DATA ---
+    // Current menu snapshot, from menu.txt (-Dwansilog.menuFile) or the built-in defaults.
+    // Prices are long centavos (see Money). Read it once per screen/operation via menu().
+    private final File menuFile = new File(System.getProperty("wansilog.menuFile", MENU_FILE));
+    private volatile MenuCatalog menu = loadMenu(menuFile);
+    private MenuWatcher menuWatcher = null;
+
+    // --- TRANSACTION ID TRACKING ---
+    // Para tuloy-tuloy yung numbering. Dati binabasa buong transactions.txt each run,
+    // ngayon header lang ng sidecar index (transactions.idx) -> O(1) startup.
+    private TransactionIdAllocator transactionIds = new TransactionIdAllocator(1);
+    private TransactionIndex transactionIndex = null;
+    private JournalWriter journalWriter = null;
+
+    // --- JOURNAL ARCHIVE ---
+    // Sealed daily/size segments of the log (journal/, see JournalArchive). Null if unreadable.
+    private JournalArchive journalArchive = null;
+
+    // --- RUNNING TOTALS (X/Z reports) ---
+    // Since the last Z-report, fed by the journal writer; snapshot + journal tail on startup.
+    private RunningTotals runningTotals = null;
+
+    RegisterEngine() {
+        this(null);
+    }
+
+    // Journal, index, totals and archive (journal/ in there, -Dwansilog.archiveDir is ignored) in
+    // another directory, e.g. a scratch one for the load generator. The menu is still menu.txt.
+    RegisterEngine(File dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    // Load transaction counter, start the journal writer and the menu watcher.
+    // Call before handing the engine to terminals.
+    void start() {
+        openArchive();
+        loadTransactionCounter();
+        restoreTotals();
+        openJournal();
+        if (Boolean.parseBoolean(System.getProperty("wansilog.menuWatch", "true"))) {
+            try {
+                menuWatcher = new MenuWatcher(this, menuFile);
+            } catch (IOException e) {
+                System.out.println("Menu hot reload disabled: " + e.getMessage());
+            }
+        }
+    }
+
+    // Current menu snapshot. Immutable; hold on to it for the length of one screen/operation.
+    MenuCatalog menu() {
+        return menu;
+    }
+
+    int itemCount() {
+        return menu.itemCount();
+    }
+
+    String itemName(int item) {
+        return menu.itemName(item);
+    }
+
+    long itemPrice(int item) {
+        return menu.itemPrice(item);
+    }
+
+    int addonCount() {
+        return menu.addonCount();
+    }
+
+    String addonName(int addon) {
+        return menu.addonName(addon);
+    }
+
+    long addonPrice(int addon) {
+        return menu.addonPrice(addon);
+    }
+
+    // menu.txt if there is one, else the built-in menu. A broken file at startup also falls back,
+    // with a message, para hindi ma-stuck yung store.
+    private static MenuCatalog loadMenu(File file) {
+        if (!file.isFile()) return MenuCatalog.defaults(1);
+        try {
+            return MenuCatalog.load(file, 1);
+        } catch (IOException e) {
+            System.out.println("Problem loading menu, using built-in menu: " + e.getMessage());
+            return MenuCatalog.defaults(1);
+        }
+    }
+
+    // Re-read menu.txt and swap it in. Orders in progress keep their lines (and prices); only
+    // lines added after this see the new snapshot. Returns true if the menu changed.
+    synchronized boolean reloadMenu() {
+        MenuCatalog current = menu;
+        MenuCatalog next;
+        try {
+            next = MenuCatalog.load(menuFile, current.version + 1);
+        } catch (IOException e) {
+            System.out.println("Problem reloading menu, keeping version " + current.version + ": " + e.getMessage());
+            return false;
+        }
+        if (next.sameEntries(current)) return false;
+        menu = next;
+        System.out.println("Menu reloaded (version " + next.version + ").");
+        return true;
+    }
+
+    JournalFormat journalFormat() {
+        return journalFormat;
+    }
+
+    File logFile() {
+        return new File(dataDir, binary ? BINARY_LOG : TRANSACTION_LOG);
+    }
+
+    File indexFile() {
+        return new File(dataDir, binary ? BINARY_INDEX : TRANSACTION_INDEX);
+    }
+
+    File totalsFile() {
+        return new File(dataDir, binary ? BINARY_TOTALS : TOTALS_SNAPSHOT);
+    }
+
+    File backupFile() {
+        return new File(dataDir, binary ? BINARY_BACKUP : TRANSACTION_BACKUP);
+    }
+
+    // Summaries of the sealed segments (finishing any a crash left without one).
+    private void openArchive() {
+        JournalArchive archive = newArchive();
+        try {
+            archive.open();
+            journalArchive = archive;
+        } catch (IOException e) {
+            System.out.println("Problem reading journal archive, log rotation disabled: " + e.getMessage());
+        }
+    }
+
+    // Not opened yet; SalesReport uses this too.
+    JournalArchive newArchive() {
+        JournalFormat format = JournalFormat.named(journalFormat.name());
+        if (dataDir != null) {
+            return JournalArchive.fromSystemProperties(new File(dataDir, "journal"), logFile(), backupFile(), format);
+        }
+        return JournalArchive.fromSystemProperties(logFile(), backupFile(), format);
+    }
+
+    // Null if there is none (or it could not be read).
+    JournalArchive journalArchive() {
+        return journalArchive;
+    }
+
+    // Open the index of the active log (first run on an old log = one-time migration scan) and
+    // continue from the highest ID in it or in the archive, + 1.
+    private void loadTransactionCounter() {
+        try {
+            transactionIndex = TransactionIndex.open(logFile(), indexFile(), JournalFormat.named(journalFormat.name()));
+            int lastId = transactionIndex.lastId();
+            if (journalArchive != null) lastId = Math.max(lastId, journalArchive.lastId());
+            transactionIds = new TransactionIdAllocator(lastId + 1);
+        } catch (IOException e) {
+            System.out.println("Error loading transaction counter: " + e.getMessage());
+        }
+    }
+
+    // Running totals from the snapshot plus whatever the journal has after it. Needs the index.
+    private void restoreTotals() {
+        if (transactionIndex == null) return;
+        RunningTotals totals = RunningTotals.fromSystemProperties(totalsFile(), logFile());
+        try {
+            totals.restore(logFile(), transactionIndex, JournalFormat.named(journalFormat.name()), journalArchive);
+            runningTotals = totals;
+        } catch (IOException e) {
+            System.out.println("Problem loading running totals, X/Z reports disabled: " + e.getMessage());
+        }
+    }
+
+    // Null if the journal index could not be opened.
+    RunningTotals runningTotals() {
+        return runningTotals;
+    }
+
+    // Start the background writer for the log + backup (transactions.txt/.bin).
+    // Durability is configurable via -Dwansilog.durability (see JournalWriter), rotation via the
+    // archive's properties (see JournalArchive).
+    private void openJournal() {
+        try {
+            journalWriter = JournalWriter.fromSystemProperties(
+                    logFile(), backupFile(), transactionIndex, journalFormat, runningTotals, journalArchive);
+        } catch (IOException e) {
+            System.out.println("Problem opening transaction log: " + e.getMessage());
+        }
+    }
+
+    // After checkout, log all details sa file (plus backup). Returns the transaction ID used.
+    // menus[0..menuCount) = the menu versions the order's lines were priced from.
+    // Safe to call from several terminals at once.
+    int logTransactionToFile(String cashier, OrderLines order, MenuCatalog[] menus, int menuCount) {
+        TransactionRecord record = newTransaction(cashier, order, menus, menuCount);
+        submit(record, null);
+        return record.id;
+    }
+
+    // Allocate the ID and snapshot the order, without logging it yet (OrderWal logs the checkout
+    // first, then submit()). Lines are copied here; formatting happens on the journal writer thread.
+    TransactionRecord newTransaction(String cashier, OrderLines order, MenuCatalog[] menus, int menuCount) {
+        return TransactionRecord.of(transactionIds.next(), LocalDateTime.now(), cashier, order, menus, menuCount);
+    }
+
+    // Queue a record for the journal. afterWrite (may be null) runs once it is on disk.
+    void submit(TransactionRecord record, Runnable afterWrite) {
+        // Main + backup file logging happens sa background journal writer (group commit),
+        // para hindi na naghihintay si cashier sa disk.
+        if (journalWriter == null) {
+            System.out.println("Problem writing transaction: journal is not open.");
+            return;
+        }
+        try {
+            journalWriter.submit(record, afterWrite);
+        } catch (IllegalStateException e) {
+            System.out.println("Problem writing transaction: " + e.getMessage());
+        }
+    }
+
+    // --- RECOVERY (see OrderWal) ---
+    // Whether a transaction ID made it into the journal. Only meaningful for recent IDs, and only
+    // before terminals start checking out (startup recovery).
+    boolean isJournaled(int transactionId) {
+        if (transactionIndex == null) return false;
+        try {
+            if (transactionIndex.containsRecent(transactionId, RECOVERY_WINDOW)) return true;
+            // Log rotated right before the crash: the rest of the window is in the newest segment.
+            long active = transactionIndex.recordCount();
+            return journalArchive != null && active < RECOVERY_WINDOW
+                    && journalArchive.containsRecent(transactionId, (int) (RECOVERY_WINDOW - active));
+        } catch (IOException e) {
+            System.out.println("Problem reading transaction index: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Write a recovered checkout again under its original ID and time, and make sure the
+    // allocator never hands that ID out again.
+    void relog(TransactionRecord record, Runnable afterWrite) {
+        transactionIds.advancePast(record.id);
+        submit(record, afterWrite);
+    }
+
+    boolean journalOpen() {
+        return journalWriter != null;
+    }
+
+    // Stop the menu watcher, flush pending transactions, then close the index and wait for the
+    // archive's background work.
+    @Override
+    public void close() {
+        if (menuWatcher != null) {
+            try {
+                menuWatcher.close();
+            } catch (IOException e) {
+                System.out.println("Problem stopping menu watcher: " + e.getMessage());
+            }
+            menuWatcher = null;
+        }
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (IOException e) {
+                System.out.println("Problem flushing transactions: " + e.getMessage());
+            }
+            journalWriter = null;
+        }
+        if (transactionIndex != null) {
+            try {
+                transactionIndex.close();
+            } catch (IOException e) {
+                System.out.println("Problem closing transaction index: " + e.getMessage());
+            }
+            transactionIndex = null;
+        }
+        if (journalArchive != null) journalArchive.close();
+    }
+}
@@ -0,0 +1,401 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegisterServer
+ *
+ * Line protocol sa localhost para maraming terminal (tablets, kiosks, LoadGenerator) ang
+ * maka-share ng iisang RegisterEngine: same menu, same transaction IDs, same journal.
+ *
+ * Usage: java TapsilogCashRegister --serve [--port N]   (default 7070, or -Dwansilog.serverPort)
+ *
+ * Requests (one per line, command in any case, numbers 1-based like sa console):
+ *   LOGIN <user> <password>     required before anything else (users.dat accounts)
+ *   ADD <entry>                 fast entry syntax: 2 3 x4, TOS JR 4, several with commas
+ *   UPDATE <line> <qty>
+ *   REMOVE <line>
+ *   SHOW
+ *   CHECKOUT <payment>
+ *   CANCEL
+ *   QUIT
+ * Every request gets exactly one answer, in order: "OK ..." or "ERR <message>".
+ *   LOGIN                 OK <user>
+ *   ADD/UPDATE/REMOVE     OK <lines in order> <order total>
+ *   SHOW                  OK <lines> <total>, then one "<no> <item> x<qty> (<addon>) <line total>" per line
+ *   CHECKOUT              OK <transaction ID> <change>
+ *   CANCEL/QUIT           OK
+ * Blank lines are ignored (no answer).
+ *
+ * // One virtual thread per connection with blocking I/O, same as the batch terminals; each has its
+ * // own OrderSession on the shared engine. Pipelining: a client may send many requests without
+ * // waiting; answers go into a buffer that is only flushed once no request is left unread, so a
+ * // burst of N lines costs about one write back.
+ * // Backpressure: a connection reads its next request only after answering the last one, so a
+ * // client that stops reading fills its socket buffer and the server stops reading from it too.
+ * // Checkout blocks on the bounded journal queue when the disk falls behind. At most
+ * // -Dwansilog.serverMaxClients (default 256) connections at a time; extra ones get "ERR busy".
+ * // Lines longer than 1024 bytes close the connection.
+ * // Network orders have no order WAL (orders.wal belongs to the console), so an open order is
+ * // lost if the server dies; checkouts are journaled like any other.
+ */
+final class RegisterServer implements Closeable {
+
+    static final int DEFAULT_PORT = 7070;
+    static final int DEFAULT_MAX_CLIENTS = 256;
+    private static final int MAX_LINE = 1024;
+    private static final int LINE_TOO_LONG = -2;
+
+    private final RegisterEngine engine;
+    private final UserStore users;
+    private final ServerSocket serverSocket;
+    private final int maxClients;
+    private final Semaphore slots;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed = false;
+
+    // Bind to the loopback address (port 0 = any free port) and start accepting.
+    RegisterServer(RegisterEngine engine, UserStore users, int port, int maxClients) throws IOException {
+        this.engine = engine;
+        this.users = users;
+        this.maxClients = Math.max(1, maxClients);
+        this.slots = new Semaphore(this.maxClients);
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.acceptor = Thread.ofVirtual().name("register-server").start(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // --- ENTRY POINT ---
+    // Serve until "stop" on stdin (or Ctrl+C). Returns the process exit code.
+    static int run(String[] args) {
+        int port = Integer.getInteger("wansilog.serverPort", DEFAULT_PORT);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+            }
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (port < 0 || port > 65535) {
+            System.out.println("Usage: java TapsilogCashRegister --serve [--port N]");
+            return 1;
+        }
+        RegisterEngine engine = new RegisterEngine();
+        engine.start();
+        RegisterServer server;
+        try {
+            server = new RegisterServer(engine, TapsilogCashRegister.openUsers(), port,
+                    Integer.getInteger("wansilog.serverMaxClients", DEFAULT_MAX_CLIENTS));
+        } catch (IOException e) {
+            System.out.println("Problem starting server on port " + port + ": " + e.getMessage());
+            engine.close();
+            return 1;
+        }
+        System.out.println("Serving on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.port()
+                + ". Type stop to shut down.");
+        try {
+            BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = console.readLine()) != null) {
+                if (line.trim().equalsIgnoreCase("stop")) break;
+            }
+            // No console (stdin closed): keep serving until Ctrl+C; the journal flushes itself then.
+            if (line == null) server.acceptor.join();
+        } catch (IOException e) {
+            System.out.println("Problem reading console: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.close();
+        engine.close();
+        return 0;
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed) System.out.println("Problem accepting connection: " + e.getMessage());
+                return;
+            }
+            if (!slots.tryAcquire()) {
+                Metrics.SERVER_REFUSED.increment();
+                refuse(socket);
+                continue;
+            }
+            Metrics.SERVER_CONNECTIONS.increment();
+            connections.add(socket);
+            Thread.ofVirtual().name("register-client").start(() -> serve(socket));
+        }
+    }
+
+    private static void refuse(Socket socket) {
+        try (socket) {
+            socket.getOutputStream().write("ERR busy\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Client already gone.
+        }
+    }
+
+    // --- CONNECTION ---
+    private void serve(Socket socket) {
+        Client client = new Client(new OrderSession(engine, null));
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 8192);
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 8192);
+            byte[] line = new byte[MAX_LINE];
+            StringBuilder reply = new StringBuilder(256);
+            boolean open = true;
+            while (open) {
+                int len = readLine(in, line);
+                if (len < 0) {
+                    if (len == LINE_TOO_LONG) out.write("ERR line too long\n");
+                    break;
+                }
+                long t0 = Metrics.now();
+                String request = new String(line, 0, len, StandardCharsets.UTF_8).trim();
+                if (request.isEmpty()) continue;
+                reply.setLength(0);
+                try {
+                    open = handle(client, request, reply);
+                } catch (RuntimeException e) {
+                    // A bug or bad data behind one request must not cost the answers to the
+                    // requests pipelined after it: answer ERR and keep the connection.
+                    System.out.println("Problem handling request: " + e);
+                    String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    reply.setLength(0);
+                    reply.append("ERR ").append(message.replace('\n', ' ').replace('\r', ' '));
+                }
+                out.append(reply).append('\n');
+                Metrics.SERVER_REQUEST.recordSince(t0);
+                // Pipelined requests already here: answer them first, flush once.
+                if (in.available() == 0) out.flush();
+            }
+            out.flush();
+        } catch (SocketException e) {
+            // Reset by the client, or closed by close().
+        } catch (IOException e) {
+            if (!closed) System.out.println("Problem serving client: " + e.getMessage());
+        } finally {
+            connections.remove(socket);
+            slots.release();
+        }
+    }
+
+    // One line without its newline (and '\r') into `line`; -1 at end of stream, LINE_TOO_LONG if
+    // it does not fit.
+    private static int readLine(InputStream in, byte[] line) throws IOException {
+        int len = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                if (len > 0 && line[len - 1] == '\r') len--;
+                return len;
+            }
+            if (len == line.length) return LINE_TOO_LONG;
+            line[len++] = (byte) b;
+        }
+        return -1;
+    }
+
+    // Per-connection state.
+    private static final class Client {
+        final OrderSession session;
+        final QuickEntry entry = new QuickEntry();
+
+        Client(OrderSession session) {
+            this.session = session;
+        }
+    }
+
+    // --- REQUESTS ---
+    // Answer one request into `reply`. False = close the connection after this answer.
+    private boolean handle(Client client, String request, StringBuilder reply) {
+        OrderSession session = client.session;
+        if (isCommand(request, "LOGIN")) {
+            login(session, request, reply);
+        } else if (isCommand(request, "QUIT")) {
+            reply.append("OK");
+            return false;
+        } else if (session.cashier() == null) {
+            reply.append("ERR Please log in first.");
+        } else if (isCommand(request, "ADD")) {
+            add(client, request.substring(3), reply);
+        } else if (isCommand(request, "UPDATE")) {
+            update(session, request, reply);
+        } else if (isCommand(request, "REMOVE")) {
+            remove(session, request, reply);
+        } else if (isCommand(request, "SHOW")) {
+            show(session, reply);
+        } else if (isCommand(request, "CHECKOUT")) {
+            checkout(session, request.substring(8), reply);
+        } else if (isCommand(request, "CANCEL")) {
+            session.cancel();
+            reply.append("OK");
+        } else {
+            reply.append("ERR Unknown command. Use LOGIN, ADD, UPDATE, REMOVE, SHOW, CHECKOUT, CANCEL or QUIT.");
+        }
+        return true;
+    }
+
+    private static boolean isCommand(String request, String command) {
+        int n = command.length();
+        return request.regionMatches(true, 0, command, 0, n)
+                && (request.length() == n || request.charAt(n) == ' ' || request.charAt(n) == '\t');
+    }
+
+    private void login(OrderSession session, String request, StringBuilder reply) {
+        String[] parts = request.split("\\s+");
+        if (parts.length != 3) {
+            reply.append("ERR Format: LOGIN <user> <password>");
+            return;
+        }
+        long t0 = Metrics.now();
+        boolean ok = users.verify(parts[1], parts[2]);
+        Metrics.LOGIN.recordSince(t0);
+        if (!ok) {
+            Metrics.LOGIN_FAILED.increment();
+            reply.append("ERR Invalid username or password.");
+            return;
+        }
+        Metrics.LOGIN_OK.increment();
+        session.setCashier(parts[1]);
+        reply.append("OK ").append(parts[1]);
+    }
+
+    // Whole line checked first (QuickEntry), so a bad second item adds nothing.
+    private static void add(Client client, String entry, StringBuilder reply) {
+        MenuCatalog menu = client.session.engine().menu();
+        int status = client.entry.parse(entry, menu);
+        if (status != QuickEntry.OK) {
+            reply.append("ERR ").append(client.entry.errorMessage(status, entry));
+            return;
+        }
+        int tooMany = client.session.addAll(menu, client.entry);
+        if (tooMany >= 0) {
+            reply.append("ERR Quantity too large for ").append(menu.itemName(client.entry.item(tooMany)))
+                    .append(" (max ").append(OrderSession.MAX_QUANTITY).append(" per order line). Nothing added.");
+            return;
+        }
+        orderSummary(client.session, reply);
+    }
+
+    // "UPDATE <line> <qty>"
+    private static void update(OrderSession session, String request, StringBuilder reply) {
+        int[] args = numbers(request, 2);
+        if (args == null) {
+            reply.append("ERR Format: UPDATE <line> <qty>");
+        } else {
+            lineResult(session, session.updateQuantity(args[0] - 1, args[1]), reply);
+        }
+    }
+
+    // "REMOVE <line>"
+    private static void remove(OrderSession session, String request, StringBuilder reply) {
+        int[] args = numbers(request, 1);
+        if (args == null) {
+            reply.append("ERR Format: REMOVE <line>");
+        } else {
+            lineResult(session, session.removeItem(args[0] - 1), reply);
+        }
+    }
+
+    private static void lineResult(OrderSession session, int status, StringBuilder reply) {
+        if (status == OrderSession.INVALID_LINE) {
+            reply.append("ERR Invalid order number.");
+        } else if (status == OrderSession.INVALID_QUANTITY) {
+            reply.append("ERR Quantity must be 1 to ").append(OrderSession.MAX_QUANTITY).append('.');
+        } else {
+            orderSummary(session, reply);
+        }
+    }
+
+    // Exactly `count` numbers after the command word, or null.
+    private static int[] numbers(String request, int count) {
+        String[] parts = request.split("\\s+");
+        if (parts.length != count + 1) return null;
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = QuickEntry.number(parts[i + 1]);
+            if (values[i] < 0) return null;
+        }
+        return values;
+    }
+
+    private static void show(OrderSession session, StringBuilder reply) {
+        OrderLines lines = session.lines();
+        orderSummary(session, reply);
+        for (int i = 0; i < lines.size(); i++) {
+            reply.append('\n').append(i + 1).append(' ').append(session.itemName(i))
+                    .append(" x").append(lines.quantity(i))
+                    .append(" (").append(session.addonName(i)).append(") ");
+            Money.append(reply, lines.lineTotal(i));
+        }
+    }
+
+    private static void orderSummary(OrderSession session, StringBuilder reply) {
+        reply.append("OK ").append(session.lines().size()).append(' ');
+        Money.append(reply, session.lines().total());
+    }
+
+    private static void checkout(OrderSession session, String amount, StringBuilder reply) {
+        long payment;
+        try {
+            payment = Money.parse(amount);
+        } catch (NumberFormatException e) {
+            reply.append("ERR Invalid amount. Format: CHECKOUT <payment>");
+            return;
+        }
+        long total = session.lines().total();
+        int status = session.checkout(payment);
+        if (status == OrderSession.EMPTY_ORDER) {
+            reply.append("ERR No items in order.");
+        } else if (status == OrderSession.INSUFFICIENT_PAYMENT) {
+            Money.append(reply.append("ERR Insufficient payment. Total is "), total).append('.');
+        } else {
+            reply.append("OK ").append(session.lastTransactionId()).append(' ');
+            Money.append(reply, session.lastChange());
+        }
+    }
+
+    // Stop accepting, drop open connections, and wait (up to 5 s) for requests already being
+    // handled to finish, so their checkouts reach the journal before the engine closes.
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Problem closing server socket: " + e.getMessage());
+        }
+        for (Socket socket : connections) {
+            try {
+                socket.shutdownInput();
+            } catch (IOException e) {
+                // Already closed.
+            }
+        }
+        try {
+            if (!slots.tryAcquire(maxClients, 5, TimeUnit.SECONDS)) {
+                System.out.println("Server: some clients were still busy at shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * RunningTotals
+ *
+ * Running sales totals since the last Z-report: gross, transaction count, per item/addon
+ * quantities (primitive arrays, one slot per name), per cashier, per hour of day. Updated per
+ * checkout as the journal writer commits it, so an X-report (peek) or Z-report (print and
+ * close the period) is instant, walang full scan ng transactions log.
+ *
+ * Checkpointed to a small snapshot file (transactions.totals / transactions.bin.totals) every
+ * -Dwansilog.totalsCheckpoint records (default 100), on a Z-report, and when the journal closes.
+ * On startup: snapshot + replay of the journal after it. No usable snapshot (first run, log
+ * replaced) = new period starting today 00:00, rebuilt from the log once.
+ *
+ * Snapshot file: "WTOT" + version byte, then one frame (same framing as the binary journal):
+ *   log name, segment, covered records, last covered ID, session start offset, session records,
+ *   period start (local epoch second), Z count, transactions, gross,
+ *   items (name, quantity, sales), addons (name, quantity), cashiers (name, transactions, sales),
+ *   24 x (hour transactions, hour sales)
+ *
+ * // The snapshot says how far into the journal it goes as "session start + records of that
+ * // session", because binary records can only be decoded from the start of their writer session
+ * // (MENU/CASHIER frames). Covered count + last ID are checked against the index to catch a
+ * // snapshot that belongs to another log. "Segment" is the sequence number the active log gets
+ * // when JournalArchive seals it; if the snapshot's log has been sealed since (crash right after a
+ * // rotation), replay continues in that segment and every later one before the active log.
+ */
+final class RunningTotals {
+
+    static final byte[] MAGIC = {'W', 'T', 'O', 'T'};
+    static final int VERSION = 2;
+    private static final int TYPE_SNAPSHOT = 1;
+
+    private final File snapshotFile;
+    private final String logName;
+    private final int checkpointEvery;
+
+    // --- PERIOD (since last Z) ---
+    private long periodStart;
+    private int zCount = 0;
+    private int transactions = 0;
+    private long gross = 0;
+    private String[] itemNames = new String[0];
+    private long[] itemQuantity = new long[0];
+    private long[] itemSales = new long[0];
+    private String[] addonNames = new String[0];
+    private long[] addonQuantity = new long[0];
+    private final Map<String, Integer> itemSlot = new HashMap<>();
+    private final Map<String, Integer> addonSlot = new HashMap<>();
+    private final Map<String, SalesTotals.Cashier> cashiers = new HashMap<>();
+    private final int[] hourTransactions = new int[24];
+    private final long[] hourSales = new long[24];
+
+    // Record name table -> slot, cached per name array (records of one menu share the array).
+    private String[] mappedItems = null;
+    private String[] mappedAddons = null;
+    private int[] itemMap = new int[0];
+    private int[] addonMap = new int[0];
+
+    // --- JOURNAL POSITION ---
+    private int segment = 0;
+    private long coveredRecords = 0;
+    private int lastId = 0;
+    private long sessionStart = 0;
+    private long sessionRecords = 0;
+    private int sinceCheckpoint = 0;
+
+    RunningTotals(File snapshotFile, String logName, int checkpointEvery) {
+        this.snapshotFile = snapshotFile;
+        this.logName = logName;
+        this.checkpointEvery = Math.max(1, checkpointEvery);
+        this.periodStart = startOfToday();
+    }
+
+    static RunningTotals fromSystemProperties(File snapshotFile, File logFile) {
+        return new RunningTotals(snapshotFile, logFile.getName(), Integer.getInteger("wansilog.totalsCheckpoint", 100));
+    }
+
+    // --- STARTUP ---
+    // Load the snapshot (if it matches the log) and replay the journal after it, up to the
+    // index's covered length (same point the journal writer will append from). archive may be null.
+    synchronized void restore(File logFile, TransactionIndex index, JournalFormat format,
+                              JournalArchive archive) throws IOException {
+        int active = archive == null ? 0 : archive.nextSequence();
+        boolean loaded = snapshotFile.isFile() && load(index, archive, active);
+        long replayed = 0;
+        long from = 0;
+        long skip = 0;
+        if (!loaded) {
+            // Rebuild: every sealed segment with records since the period start, then the active log.
+            if (archive != null) {
+                for (JournalArchive.Segment s : archive.segments()) {
+                    if (!s.overlaps(periodStart, Long.MAX_VALUE)) continue;
+                    replayed += replay(archive.reader(s.sequence, 0), 0, periodStart);
+                }
+            }
+        } else if (segment < active) {
+            // Snapshot's log was sealed after it was taken: rest of it, then the later segments.
+            replayed += replay(archive.reader(segment, sessionStart), sessionRecords, Long.MIN_VALUE);
+            for (int s = segment + 1; s < active; s++) {
+                replayed += replay(archive.reader(s, 0), 0, Long.MIN_VALUE);
+            }
+        } else {
+            from = sessionStart;
+            skip = sessionRecords;
+        }
+        if (logFile.isFile()) {
+            replayed += replay(format.reader(logFile, from, index.coveredLength()), skip,
+                    loaded ? Long.MIN_VALUE : periodStart);
+        }
+        segment = active;
+        coveredRecords = index.recordCount();
+        lastId = coveredRecords > 0 ? index.idOf(coveredRecords - 1) : 0;
+        sessionStart = index.coveredLength();
+        sessionRecords = 0;
+        if (!loaded || replayed > 0) checkpoint();
+    }
+
+    // Add the reader's records after the first `skip`, if at or after `since`. Returns how many
+    // records were read past the skip.
+    private long replay(JournalFormat.RecordReader reader, long skip, long since) throws IOException {
+        long seen = 0;
+        try (reader) {
+            TransactionRecord record;
+            while ((record = reader.next()) != null) {
+                if (seen++ < skip) continue;
+                if (record.localEpochSecond >= since) add(record);
+            }
+        }
+        return Math.max(0, seen - skip);
+    }
+
+    // Journal writer opened a new session at this offset (it appends from here).
+    synchronized void sessionStarted(long offset) {
+        sessionStart = offset;
+        sessionRecords = 0;
+    }
+
+    // Journal writer sealed the log into the archive and started a new, empty one (next =
+    // sequence number the new log will get, newLogLength = its header). Saved right away.
+    synchronized void segmentSealed(int next, long newLogLength) {
+        segment = next;
+        coveredRecords = 0;
+        lastId = 0;
+        sessionStart = newLogLength;
+        sessionRecords = 0;
+        checkpointQuietly();
+    }
+
+    // --- UPDATES (journal writer thread, after the batch is written and indexed) ---
+    synchronized void written(TransactionRecord record) {
+        add(record);
+        coveredRecords++;
+        sessionRecords++;
+        lastId = record.id;
+        if (++sinceCheckpoint >= checkpointEvery) checkpointQuietly();
+    }
+
+    private void add(TransactionRecord record) {
+        if (record.itemNames != mappedItems) {
+            mappedItems = record.itemNames;
+            itemMap = new int[mappedItems.length];
+            for (int i = 0; i < mappedItems.length; i++) itemMap[i] = itemSlot(mappedItems[i]);
+        }
+        if (record.addonNames != mappedAddons) {
+            mappedAddons = record.addonNames;
+            addonMap = new int[mappedAddons.length];
+            for (int i = 0; i < mappedAddons.length; i++) addonMap[i] = addonSlot(mappedAddons[i]);
+        }
+        transactions++;
+        gross += record.total;
+        for (int i = 0; i < record.lineCount; i++) {
+            int item = itemMap[record.items[i]];
+            itemQuantity[item] += record.quantities[i];
+            itemSales[item] += record.lineTotals[i];
+            addonQuantity[addonMap[record.addons[i]]] += record.quantities[i];
+        }
+        SalesTotals.Cashier cashier = cashiers.get(record.cashier);
+        if (cashier == null) {
+            cashier = new SalesTotals.Cashier();
+            cashiers.put(record.cashier, cashier);
+        }
+        cashier.transactions++;
+        cashier.sales += record.total;
+        int hour = (int) (Math.floorMod(record.localEpochSecond, 86400L) / 3600);
+        hourTransactions[hour]++;
+        hourSales[hour] += record.total;
+    }
+
+    private int itemSlot(String name) {
+        Integer slot = itemSlot.get(name);
+        if (slot != null) return slot;
+        int n = itemNames.length;
+        itemNames = Arrays.copyOf(itemNames, n + 1);
+        itemQuantity = Arrays.copyOf(itemQuantity, n + 1);
+        itemSales = Arrays.copyOf(itemSales, n + 1);
+        itemNames[n] = name;
+        itemSlot.put(name, n);
+        return n;
+    }
+
+    private int addonSlot(String name) {
+        Integer slot = addonSlot.get(name);
+        if (slot != null) return slot;
+        int n = addonNames.length;
+        addonNames = Arrays.copyOf(addonNames, n + 1);
+        addonQuantity = Arrays.copyOf(addonQuantity, n + 1);
+        addonNames[n] = name;
+        addonSlot.put(name, n);
+        return n;
+    }
+
+    // --- REPORTS ---
+    // X-report: totals so far, nothing is reset.
+    synchronized String xReport() {
+        return report("X-REPORT", LocalDateTime.now());
+    }
+
+    // Z-report: totals so far, then start a new period (saved right away, para hindi bumalik
+    // yung na-close na totals after a restart).
+    synchronized String zReport() {
+        LocalDateTime now = LocalDateTime.now();
+        zCount++;
+        String text = report("Z-REPORT #" + zCount, now);
+        periodStart = now.toEpochSecond(ZoneOffset.UTC);
+        transactions = 0;
+        gross = 0;
+        Arrays.fill(itemQuantity, 0);
+        Arrays.fill(itemSales, 0);
+        Arrays.fill(addonQuantity, 0);
+        cashiers.clear();
+        Arrays.fill(hourTransactions, 0);
+        Arrays.fill(hourSales, 0);
+        checkpointQuietly();
+        return text;
+    }
+
+    private String report(String title, LocalDateTime now) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("\n===============================\n");
+        sb.append("   ").append(title).append('\n');
+        sb.append("===============================\n");
+        TextJournalFormat.appendDateTime(sb.append("From: "),
+                LocalDateTime.ofEpochSecond(periodStart, 0, ZoneOffset.UTC)).append('\n');
+        TextJournalFormat.appendDateTime(sb.append("To:   "), now).append('\n');
+        SalesTotals.Day day = new SalesTotals.Day(0, itemNames.length, addonNames.length);
+        day.transactions = transactions;
+        day.gross = gross;
+        System.arraycopy(itemQuantity, 0, day.itemQuantity, 0, itemQuantity.length);
+        System.arraycopy(itemSales, 0, day.itemSales, 0, itemSales.length);
+        System.arraycopy(addonQuantity, 0, day.addonQuantity, 0, addonQuantity.length);
+        System.arraycopy(hourTransactions, 0, day.hourTransactions, 0, 24);
+        System.arraycopy(hourSales, 0, day.hourSales, 0, 24);
+        day.cashiers.putAll(cashiers);
+        SalesReport.appendDay(sb, day, itemNames, addonNames);
+        return sb.toString();
+    }
+
+    synchronized int transactions() {
+        return transactions;
+    }
+
+    synchronized long gross() {
+        return gross;
+    }
+
+    // --- SNAPSHOT ---
+    synchronized void checkpoint() throws IOException {
+        ByteSink payload = new ByteSink(1024);
+        BinaryJournalFormat.writeString(payload, logName);
+        payload.writeVarLong(segment);
+        payload.writeVarLong(coveredRecords);
+        payload.writeVarLong(lastId);
+        payload.writeVarLong(sessionStart);
+        payload.writeVarLong(sessionRecords);
+        payload.writeVarLong(periodStart);
+        payload.writeVarLong(zCount);
+        payload.writeVarLong(transactions);
+        payload.writeVarLong(gross);
+        payload.writeVarLong(itemNames.length);
+        for (int i = 0; i < itemNames.length; i++) {
+            BinaryJournalFormat.writeString(payload, itemNames[i]);
+            payload.writeVarLong(itemQuantity[i]);
+            payload.writeVarLong(itemSales[i]);
+        }
+        payload.writeVarLong(addonNames.length);
+        for (int i = 0; i < addonNames.length; i++) {
+            BinaryJournalFormat.writeString(payload, addonNames[i]);
+            payload.writeVarLong(addonQuantity[i]);
+        }
+        payload.writeVarLong(cashiers.size());
+        for (Map.Entry<String, SalesTotals.Cashier> entry : cashiers.entrySet()) {
+            BinaryJournalFormat.writeString(payload, entry.getKey());
+            payload.writeVarLong(entry.getValue().transactions);
+            payload.writeVarLong(entry.getValue().sales);
+        }
+        for (int h = 0; h < 24; h++) {
+            payload.writeVarLong(hourTransactions[h]);
+            payload.writeVarLong(hourSales[h]);
+        }
+        ByteSink out = new ByteSink(payload.size() + 16);
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+        BinaryJournalFormat.writeFrame(out, TYPE_SNAPSHOT, payload, new CRC32());
+
+        // Temp file + fsync + rename: a crash leaves either the old snapshot or the new one.
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = out.asByteBuffer();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sinceCheckpoint = 0;
+    }
+
+    void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.out.println("Problem saving running totals: " + e.getMessage());
+        }
+    }
+
+    // Read the snapshot into this object. False (and nothing changed) if it is unreadable or
+    // does not match the log/index. A snapshot of a since-sealed segment is checked against that
+    // segment's index instead.
+    private boolean load(TransactionIndex index, JournalArchive archive, int active) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+            byte[] header = in.readNBytes(MAGIC.length + 1);
+            if (header.length < MAGIC.length + 1 || !Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)
+                    || header[MAGIC.length] != VERSION) {
+                throw new IOException("not a totals snapshot");
+            }
+            BinaryJournalFormat.Frame frame = new BinaryJournalFormat.Frame();
+            if (frame.read(in, Long.MAX_VALUE) < 0 || frame.type != TYPE_SNAPSHOT) {
+                throw new IOException("damaged snapshot");
+            }
+            if (!frame.string().equals(logName)) return false;
+            int seg = frame.varInt();
+            long covered = frame.varLong();
+            int last = frame.varInt();
+            long start = frame.varLong();
+            long records = frame.varLong();
+            boolean matches;
+            if (seg == active) {
+                matches = matches(index, covered, last, start);
+            } else if (seg < active && archive != null && archive.segment(seg) != null) {
+                try (TransactionIndex sealed = TransactionIndex.openSealed(archive.indexFile(seg))) {
+                    matches = matches(sealed, covered, last, start);
+                }
+            } else {
+                matches = false;
+            }
+            if (!matches) {
+                System.out.println("Running totals snapshot does not match the transaction log, rebuilding today's totals.");
+                return false;
+            }
+            long period = frame.varLong();
+            int z = frame.varInt();
+            int txns = frame.varInt();
+            long sales = frame.varLong();
+            int items = frame.varInt();
+            String[] names = new String[items];
+            long[] quantity = new long[items];
+            long[] itemTotal = new long[items];
+            for (int i = 0; i < items; i++) {
+                names[i] = frame.string();
+                quantity[i] = frame.varLong();
+                itemTotal[i] = frame.varLong();
+            }
+            int addons = frame.varInt();
+            String[] addonList = new String[addons];
+            long[] addonQty = new long[addons];
+            for (int i = 0; i < addons; i++) {
+                addonList[i] = frame.string();
+                addonQty[i] = frame.varLong();
+            }
+            int cashierCount = frame.varInt();
+            Map<String, SalesTotals.Cashier> cashierTotals = new HashMap<>();
+            for (int i = 0; i < cashierCount; i++) {
+                SalesTotals.Cashier c = new SalesTotals.Cashier();
+                String name = frame.string();
+                c.transactions = frame.varInt();
+                c.sales = frame.varLong();
+                cashierTotals.put(name, c);
+            }
+            int[] hourTxns = new int[24];
+            long[] hourTotal = new long[24];
+            for (int h = 0; h < 24; h++) {
+                hourTxns[h] = frame.varInt();
+                hourTotal[h] = frame.varLong();
+            }
+
+            segment = seg;
+            coveredRecords = covered;
+            lastId = last;
+            sessionStart = start;
+            sessionRecords = records;
+            periodStart = period;
+            zCount = z;
+            transactions = txns;
+            gross = sales;
+            for (int i = 0; i < items; i++) {
+                int slot = itemSlot(names[i]);
+                itemQuantity[slot] = quantity[i];
+                itemSales[slot] = itemTotal[i];
+            }
+            for (int i = 0; i < addons; i++) {
+                int slot = addonSlot(addonList[i]);
+                addonQuantity[slot] = addonQty[i];
+            }
+            cashiers.putAll(cashierTotals);
+            System.arraycopy(hourTxns, 0, hourTransactions, 0, 24);
+            System.arraycopy(hourTotal, 0, hourSales, 0, 24);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Problem reading running totals, rebuilding today's totals: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean matches(TransactionIndex index, long covered, int last, long start) throws IOException {
+        return covered <= index.recordCount() && start <= index.coveredLength()
+                && (covered == 0 || index.idOf(covered - 1) == last);
+    }
+
+    private static long startOfToday() {
+        return LocalDate.now().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
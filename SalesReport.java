@@ -0,0 +1,380 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SalesReport
+ *
+ * Sales summaries straight from the transaction log (transactions.txt or .bin): per day, per item/addon, per cashier, per hour.
+ * One pass over the log, line by line, so memory stays flat kahit ilang taon na yung log.
+ *
+ * Usage: java TapsilogCashRegister --report [log file, .txt or .bin] [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--parallel]
+ *
+ * // Parses the block format written by RegisterEngine.logTransactionToFile:
+ * //   Transaction ID / Date & Time / Cashier / Items Purchased / "  - Name xQty (Addon) - $0.00"
+ * //   / Total Amount / separator. A record is only counted once its separator line is seen,
+ * //   so a torn last record (crash mid-write) is skipped, not half-counted.
+ * // Logs bigger than PARALLEL_THRESHOLD (or with --parallel) go through MappedLogReader instead:
+ * // memory-mapped, chunked on separators, parsed in parallel, same totals.
+ * // Binary logs (BinaryJournalFormat) are decoded frame by frame with readBinary; no text parsing.
+ * // Without an explicit log file, sealed segments in the journal archive are read first (oldest
+ * // first, gzip'd ones streamed); segments whose summary is outside --from/--to are not opened.
+ */
+final class SalesReport {
+
+    private static final String SEPARATOR = "=============================================";
+    static final long PARALLEL_THRESHOLD = 64L << 20;
+
+    private final SalesTotals totals;
+    private final int fromDate;
+    private final int toDate;
+
+    // Pending record (reset at every separator).
+    private int date = -1;
+    private int hour = -1;
+    private String cashier = null;
+    private long total = -1;
+    private int lineCount = 0;
+    private int[] lineItem = new int[16];
+    private int[] lineAddon = new int[16];
+    private int[] lineQuantity = new int[16];
+    private long[] lineTotal = new long[16];
+
+    SalesReport(SalesTotals totals, int fromDate, int toDate) {
+        this.totals = totals;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    // --- ENTRY POINT ---
+    static int run(String[] args) {
+        RegisterEngine engine = new RegisterEngine();
+        String logFile = engine.logFile().getPath();
+        boolean withArchive = true;
+        int from = 0;
+        int to = Integer.MAX_VALUE;
+        boolean parallel = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--report")) {
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        logFile = args[++i];
+                        withArchive = false;
+                    }
+                } else if (args[i].equals("--from") && i + 1 < args.length) {
+                    from = parseDateKey(args[++i], 0);
+                } else if (args[i].equals("--to") && i + 1 < args.length) {
+                    to = parseDateKey(args[++i], 0);
+                } else if (args[i].equals("--parallel")) {
+                    parallel = true;
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid date. Use yyyy-MM-dd. " + e.getMessage());
+            return 1;
+        }
+        SalesTotals totals = SalesTotals.forMenu(engine);
+        File file = new File(logFile);
+        try {
+            if (withArchive) {
+                JournalArchive archive = engine.newArchive();
+                archive.load();
+                int read = readArchive(archive, totals, from, to, parallel);
+                int sealed = archive.segments().size();
+                if (sealed > 0) {
+                    System.out.println("Journal segments read: " + read + " of " + sealed + " (rest outside the date range)");
+                }
+            }
+            if (file.isFile() || !withArchive) readLog(file, totals, from, to, parallel);
+        } catch (IOException e) {
+            System.out.println("Error reading transactions: " + e.getMessage());
+            return 1;
+        } catch (DateTimeException e) {
+            System.out.println("Invalid date. Use yyyy-MM-dd. " + e.getMessage());
+            return 1;
+        }
+        print(totals, System.out);
+        return 0;
+    }
+
+    private static void readLog(File file, SalesTotals totals, int from, int to, boolean parallel) throws IOException {
+        if (BinaryJournalFormat.isBinaryLog(file)) {
+            new SalesReport(totals, from, to).readBinary(file);
+        } else if (parallel || file.length() > PARALLEL_THRESHOLD) {
+            MappedLogReader.read(file, totals, from, to);
+        } else {
+            new SalesReport(totals, from, to).read(file);
+        }
+    }
+
+    // Sealed segments that have records in [from, to] (date keys), by their summaries. Returns
+    // how many were read.
+    static int readArchive(JournalArchive archive, SalesTotals totals, int from, int to,
+                           boolean parallel) throws IOException {
+        long fromTime = from <= 0 ? Long.MIN_VALUE : dayStart(from);
+        long toTime = to == Integer.MAX_VALUE ? Long.MAX_VALUE : dayStart(to) + 86399;
+        int read = 0;
+        for (JournalArchive.Segment segment : archive.segments()) {
+            if (!segment.overlaps(fromTime, toTime)) continue;
+            read++;
+            File plain = archive.plainFile(segment.sequence);
+            if (plain != null) {
+                readLog(plain, totals, from, to, parallel);
+            } else if (segment.name.endsWith(".bin")) {
+                new SalesReport(totals, from, to).readBinary(archive.openSegment(segment.sequence));
+            } else {
+                new SalesReport(totals, from, to).read(archive.openSegment(segment.sequence));
+            }
+        }
+        return read;
+    }
+
+    // 20250606 -> local epoch second of 2025-06-06 00:00
+    private static long dayStart(int dateKey) {
+        return LocalDate.of(dateKey / 10000, dateKey / 100 % 100, dateKey % 100).toEpochDay() * 86400L;
+    }
+
+    // Stream the whole log into the totals.
+    void read(File logFile) throws IOException {
+        read(new FileInputStream(logFile));
+    }
+
+    // Same, from a stream (e.g. a gzip'd archive segment). Closes it.
+    void read(InputStream log) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(log, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                accept(line);
+            }
+        }
+    }
+
+    // Decode a binary log into the totals. Names are mapped to menu indices once per MENU frame
+    // (records of one session share the same name arrays).
+    void readBinary(File logFile) throws IOException {
+        readBinary(new FileInputStream(logFile));
+    }
+
+    void readBinary(InputStream log) throws IOException {
+        String[] items = null;
+        String[] addons = null;
+        int[] itemMap = new int[0];
+        int[] addonMap = new int[0];
+        long dayStart = Long.MIN_VALUE;
+        int dayKey = 0;
+        try (BinaryJournalFormat.Reader reader = new BinaryJournalFormat.Reader(log, 0, Long.MAX_VALUE)) {
+            TransactionRecord record;
+            while ((record = reader.next()) != null) {
+                totals.noteTransactionId(record.id);
+                if (record.itemNames != items) {
+                    items = record.itemNames;
+                    itemMap = new int[items.length];
+                    for (int i = 0; i < items.length; i++) itemMap[i] = totals.itemIndexOf(items[i]);
+                }
+                if (record.addonNames != addons) {
+                    addons = record.addonNames;
+                    addonMap = new int[addons.length];
+                    for (int i = 0; i < addons.length; i++) addonMap[i] = totals.addonIndexOf(addons[i]);
+                }
+                long seconds = record.localEpochSecond;
+                if (seconds < dayStart || seconds >= dayStart + 86400) {
+                    dayStart = Math.floorDiv(seconds, 86400) * 86400;
+                    LocalDate d = LocalDate.ofEpochDay(dayStart / 86400);
+                    dayKey = d.getYear() * 10000 + d.getMonthValue() * 100 + d.getDayOfMonth();
+                }
+                if (record.cashier == null) {
+                    totals.countMalformed();
+                    continue;
+                }
+                if (dayKey < fromDate || dayKey > toDate) continue;
+                totals.addTransaction(dayKey, (int) ((seconds - dayStart) / 3600), record.cashier, record.total);
+                for (int i = 0; i < record.lineCount; i++) {
+                    totals.addLine(dayKey, itemMap[record.items[i]], addonMap[record.addons[i]],
+                            record.quantities[i], record.lineTotals[i]);
+                }
+            }
+            if (reader.skippedBytes() > 0) totals.countMalformed();
+        }
+    }
+
+    // Feed one log line.
+    void accept(String line) {
+        if (line.startsWith("Transaction ID:")) {
+            if (date >= 0) totals.countMalformed(); // previous record had no separator
+            reset();
+            try {
+                totals.noteTransactionId(Integer.parseInt(line.substring("Transaction ID:".length()).trim()));
+            } catch (NumberFormatException e) {
+                totals.countMalformed();
+            }
+        } else if (line.startsWith("Date & Time:")) {
+            int start = "Date & Time:".length();
+            while (start < line.length() && line.charAt(start) == ' ') start++;
+            try {
+                date = parseDateKey(line, start);
+                hour = line.length() >= start + 13 ? digits(line, start + 11, 2) : -1;
+            } catch (NumberFormatException e) {
+                date = -1;
+            }
+        } else if (line.startsWith("Cashier:")) {
+            cashier = line.substring("Cashier:".length()).trim();
+        } else if (line.startsWith("  - ")) {
+            parseItemLine(line);
+        } else if (line.startsWith("Total Amount:")) {
+            total = parseAmount(line, line.indexOf('$') + 1);
+        } else if (line.equals(SEPARATOR)) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        if (date < 0 || total < 0 || cashier == null) {
+            totals.countMalformed();
+        } else if (date >= fromDate && date <= toDate) {
+            totals.addTransaction(date, hour, cashier, total);
+            for (int i = 0; i < lineCount; i++) {
+                totals.addLine(date, lineItem[i], lineAddon[i], lineQuantity[i], lineTotal[i]);
+            }
+        }
+        reset();
+    }
+
+    private void reset() {
+        date = -1;
+        hour = -1;
+        cashier = null;
+        total = -1;
+        lineCount = 0;
+    }
+
+    // "  - Tosilog x2 (Half Rice) - $174.00"
+    private void parseItemLine(String line) {
+        int open = line.lastIndexOf(" (");
+        int close = open < 0 ? -1 : line.indexOf(')', open);
+        int x = open < 0 ? -1 : line.lastIndexOf(" x", open);
+        int dollar = close < 0 ? -1 : line.indexOf('$', close);
+        if (x < 4 || dollar < 0) {
+            totals.countMalformed();
+            return;
+        }
+        long amount = parseAmount(line, dollar + 1);
+        int quantity;
+        try {
+            quantity = digits(line, x + 2, open - x - 2);
+        } catch (NumberFormatException e) {
+            quantity = -1;
+        }
+        if (amount < 0 || quantity < 0) {
+            totals.countMalformed();
+            return;
+        }
+        if (lineCount == lineItem.length) {
+            int capacity = lineCount * 2;
+            lineItem = Arrays.copyOf(lineItem, capacity);
+            lineAddon = Arrays.copyOf(lineAddon, capacity);
+            lineQuantity = Arrays.copyOf(lineQuantity, capacity);
+            lineTotal = Arrays.copyOf(lineTotal, capacity);
+        }
+        lineItem[lineCount] = totals.itemIndexOf(line.substring(4, x));
+        lineAddon[lineCount] = totals.addonIndexOf(line.substring(open + 2, close));
+        lineQuantity[lineCount] = quantity;
+        lineTotal[lineCount] = amount;
+        lineCount++;
+    }
+
+    private static long parseAmount(String line, int start) {
+        if (start <= 0) return -1;
+        try {
+            return Money.parse(line.substring(start));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // "2025-06-06..." at start -> 20250606
+    static int parseDateKey(String text, int start) {
+        if (text.length() < start + 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            throw new NumberFormatException("Bad date: " + text);
+        }
+        return digits(text, start, 4) * 10000 + digits(text, start + 5, 2) * 100 + digits(text, start + 8, 2);
+    }
+
+    private static int digits(String text, int start, int count) {
+        if (count <= 0) throw new NumberFormatException("No digits");
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') throw new NumberFormatException("Not a digit: " + c);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // --- PRINTING ---
+    static void print(SalesTotals totals, PrintStream out) {
+        StringBuilder sb = new StringBuilder(4096);
+        String[] items = totals.itemNames();
+        String[] addons = totals.addonNames();
+        SalesTotals.Day all = new SalesTotals.Day(0, items.length, addons.length);
+        for (SalesTotals.Day day : totals.days().values()) {
+            all.merge(day);
+            sb.append("\n===============================\n");
+            sb.append("Sales for ");
+            appendDate(sb, day.date).append('\n');
+            sb.append("===============================\n");
+            appendDay(sb, day, items, addons);
+        }
+        sb.append("\n===============================\n");
+        sb.append("   ALL DAYS (").append(totals.days().size()).append(" day/s)\n");
+        sb.append("===============================\n");
+        appendDay(sb, all, items, addons);
+        if (totals.malformed() > 0) {
+            sb.append("Skipped malformed/incomplete lines or records: ").append(totals.malformed()).append('\n');
+        }
+        out.print(sb);
+        out.flush();
+    }
+
+    static void appendDay(StringBuilder sb, SalesTotals.Day day, String[] items, String[] addons) {
+        sb.append("Transactions: ").append(day.transactions).append('\n');
+        Money.append(sb.append("Gross sales: $"), day.gross).append('\n');
+        sb.append("Items:\n");
+        for (int i = 0; i < day.itemQuantity.length; i++) {
+            if (day.itemQuantity[i] == 0) continue;
+            sb.append("  ").append(i < items.length ? items[i] : "(other)")
+                    .append(" x").append(day.itemQuantity[i]).append(" - $");
+            Money.append(sb, day.itemSales[i]).append('\n');
+        }
+        sb.append("Addons:\n");
+        for (int i = 0; i < day.addonQuantity.length; i++) {
+            if (day.addonQuantity[i] == 0) continue;
+            sb.append("  ").append(i < addons.length ? addons[i] : "(other)")
+                    .append(" x").append(day.addonQuantity[i]).append('\n');
+        }
+        sb.append("Cashiers:\n");
+        for (Map.Entry<String, SalesTotals.Cashier> entry : new TreeMap<>(day.cashiers).entrySet()) {
+            sb.append("  ").append(entry.getKey()).append(": ")
+                    .append(entry.getValue().transactions).append(" txn - $");
+            Money.append(sb, entry.getValue().sales).append('\n');
+        }
+        sb.append("Hourly:\n");
+        for (int h = 0; h < 24; h++) {
+            if (day.hourTransactions[h] == 0) continue;
+            sb.append("  ").append(h < 10 ? "0" : "").append(h).append(":00  ")
+                    .append(day.hourTransactions[h]).append(" txn - $");
+            Money.append(sb, day.hourSales[h]).append('\n');
+        }
+    }
+
+    private static StringBuilder appendDate(StringBuilder sb, int date) {
+        int y = date / 10000;
+        int m = date / 100 % 100;
+        int d = date % 100;
+        return sb.append(y).append('-').append(m < 10 ? "0" : "").append(m).append('-').append(d < 10 ? "0" : "").append(d);
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SalesTotals
+ *
+ * Aggregates para sa sales reports: per day, per item/addon (primitive arrays keyed by menu
+ * index), per cashier, per hour. Memory depends only on the number of distinct days and cashiers,
+ * not on how many transactions were read.
+ *
+ * // Item/addon names that are not on the current menu (old logs, renamed items) are counted in
+ * // an extra "other" slot at index itemCount/addonCount.
+ */
+final class SalesTotals {
+
+    // Totals for one calendar day.
+    static final class Day {
+        final int date; // yyyymmdd
+        int transactions;
+        long gross;
+        final long[] itemQuantity;
+        final long[] itemSales;
+        final long[] addonQuantity;
+        final int[] hourTransactions = new int[24];
+        final long[] hourSales = new long[24];
+        final Map<String, Cashier> cashiers = new HashMap<>();
+
+        Day(int date, int items, int addons) {
+            this.date = date;
+            this.itemQuantity = new long[items + 1];
+            this.itemSales = new long[items + 1];
+            this.addonQuantity = new long[addons + 1];
+        }
+
+        void addTransaction(int hour, String cashier, long total) {
+            transactions++;
+            gross += total;
+            if (hour >= 0 && hour < 24) {
+                hourTransactions[hour]++;
+                hourSales[hour] += total;
+            }
+            Cashier c = cashiers.get(cashier);
+            if (c == null) {
+                c = new Cashier();
+                cashiers.put(cashier, c);
+            }
+            c.transactions++;
+            c.sales += total;
+        }
+
+        void addLine(int item, int addon, int quantity, long lineTotal) {
+            itemQuantity[item] += quantity;
+            itemSales[item] += lineTotal;
+            addonQuantity[addon] += quantity;
+        }
+
+        void merge(Day other) {
+            transactions += other.transactions;
+            gross += other.gross;
+            for (int i = 0; i < itemQuantity.length; i++) {
+                itemQuantity[i] += other.itemQuantity[i];
+                itemSales[i] += other.itemSales[i];
+            }
+            for (int i = 0; i < addonQuantity.length; i++) {
+                addonQuantity[i] += other.addonQuantity[i];
+            }
+            for (int h = 0; h < 24; h++) {
+                hourTransactions[h] += other.hourTransactions[h];
+                hourSales[h] += other.hourSales[h];
+            }
+            for (Map.Entry<String, Cashier> entry : other.cashiers.entrySet()) {
+                cashiers.computeIfAbsent(entry.getKey(), k -> new Cashier()).merge(entry.getValue());
+            }
+        }
+    }
+
+    static final class Cashier {
+        int transactions;
+        long sales;
+
+        void merge(Cashier other) {
+            transactions += other.transactions;
+            sales += other.sales;
+        }
+    }
+
+    private final String[] itemNames;
+    private final String[] addonNames;
+    private final Map<String, Integer> itemIndex = new HashMap<>();
+    private final Map<String, Integer> addonIndex = new HashMap<>();
+    private final TreeMap<Integer, Day> days = new TreeMap<>();
+    private long malformed = 0;
+    private int maxTransactionId = 0;
+
+    SalesTotals(String[] itemNames, String[] addonNames) {
+        this.itemNames = itemNames;
+        this.addonNames = addonNames;
+        for (int i = 0; i < itemNames.length; i++) itemIndex.put(itemNames[i], i);
+        for (int i = 0; i < addonNames.length; i++) addonIndex.put(addonNames[i], i);
+    }
+
+    // Menu names of the given engine (the engine does not need to be started).
+    static SalesTotals forMenu(RegisterEngine engine) {
+        String[] items = new String[engine.itemCount()];
+        String[] addons = new String[engine.addonCount()];
+        for (int i = 0; i < items.length; i++) items[i] = engine.itemName(i);
+        for (int i = 0; i < addons.length; i++) addons[i] = engine.addonName(i);
+        return new SalesTotals(items, addons);
+    }
+
+    // Empty totals with the same menu, for per-chunk accumulation in parallel parsing.
+    SalesTotals emptyCopy() {
+        return new SalesTotals(itemNames, addonNames);
+    }
+
+    String[] itemNames() {
+        return itemNames;
+    }
+
+    String[] addonNames() {
+        return addonNames;
+    }
+
+    int itemIndexOf(String name) {
+        Integer idx = itemIndex.get(name);
+        return idx == null ? itemNames.length : idx;
+    }
+
+    int addonIndexOf(String name) {
+        Integer idx = addonIndex.get(name);
+        return idx == null ? addonNames.length : idx;
+    }
+
+    Day day(int date) {
+        Day day = days.get(date);
+        if (day == null) {
+            day = new Day(date, itemNames.length, addonNames.length);
+            days.put(date, day);
+        }
+        return day;
+    }
+
+    TreeMap<Integer, Day> days() {
+        return days;
+    }
+
+    long malformed() {
+        return malformed;
+    }
+
+    void countMalformed() {
+        malformed++;
+    }
+
+    // Highest "Transaction ID:" seen (including records outside the date filter).
+    int maxTransactionId() {
+        return maxTransactionId;
+    }
+
+    void noteTransactionId(int id) {
+        if (id > maxTransactionId) maxTransactionId = id;
+    }
+
+    // Count one transaction's header fields (date yyyymmdd, hour 0-23, cashier, total).
+    void addTransaction(int date, int hour, String cashier, long total) {
+        day(date).addTransaction(hour, cashier, total);
+    }
+
+    // Count one purchased line (menu/addon index from itemIndexOf/addonIndexOf).
+    void addLine(int date, int item, int addon, int quantity, long lineTotal) {
+        day(date).addLine(item, addon, quantity, lineTotal);
+    }
+
+    void merge(SalesTotals other) {
+        for (Map.Entry<Integer, Day> entry : other.days.entrySet()) {
+            day(entry.getKey()).merge(entry.getValue());
+        }
+        malformed += other.malformed;
+        noteTransactionId(other.maxTransactionId);
+    }
+}
@@ -1,9 +1,6 @@
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * TapsilogCashRegister
@@ -17,92 +14,38 @@ import java.util.regex.Pattern;
 public class TapsilogCashRegister {
 
     // --- USER DATA ---
-    // Gumagamit ng ArrayList para flexible. Both username and password list dapat laging magkaparehas ng index.
-    private final List<String> usernames = new ArrayList<>();
-    private final List<String> passwords = new ArrayList<>();
+    // Accounts live in users.dat (salted hashes, HashMap lookup). Loaded in the background sa startup.
+    static final String USER_FILE = "users.dat";
+    private final UserStore users = openUsers();
     private final Scanner scanner = new Scanner(System.in);
     private String loggedInUser = null;
 
-    // --- MENU DATA ---
-    // Menu arrays para mabilis i-loop at i-edit. Indexing is key.
-    private final String[] foodNames = {"Tapsilog", "Tosilog", "Spamsilog", "Hungariansilog"};
-    private final double[] foodPrices = {80.00, 80.00, 80.00, 95.00};
-    private final String[] addonNames = {"Rice", "Half Rice", "Java Rice", "None"};
-    private final double[] addonPrices = {10.00, 7.00, 12.00, 0.00};
-
-    // --- ORDER DATA (per transaction) ---
-    // Gumagamit ng parallel ArrayLists (same index = same item). Pwede i-refactor to class pero for now, simple lang.
-    private final List<String> orderedItems = new ArrayList<>();
-    private final List<Integer> itemQuantities = new ArrayList<>();
-    private final List<Double> itemPrices = new ArrayList<>();
-    private final List<String> itemAddons = new ArrayList<>();
-
-    // --- TRANSACTION ID TRACKING ---
-    // Para tuloy-tuloy yung numbering, binabasa yung huling transaction ID from file each run.
-    private int transactionCounter = 1;
-
-    // Basahin transaction.txt para malaman anong ID na dapat gamitin (last + 1).
-    private void loadTransactionCounter() {
-        File file = new File("transactions.txt");
-        if (!file.exists()) return;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lastId = 0;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("Transaction ID:")) {
-                    try {
-                        lastId = Integer.parseInt(line.replace("Transaction ID:", "").trim());
-                    } catch (Exception e) {
-                        System.out.println("Error reading transaction ID: " + e.getMessage());
-                    }
-                }
-            }
-            transactionCounter = lastId + 1;
-        } catch (IOException e) {
-            System.out.println("Error loading transaction counter: " + e.getMessage());
-        }
-    }
+    // --- REGISTER ENGINE ---
+    // Menu, transaction numbering, at journal are in RegisterEngine. Order logic (per terminal)
+    // is in OrderSession; dito na lang yung console prompts and messages.
+    private final RegisterEngine engine = new RegisterEngine();
+    private final OrderSession session = new OrderSession(engine, null);
 
-    // After checkout, log all details sa file (plus backup). File append mode para hindi nabubura old records.
-    private void logTransactionToFile(double totalAmount) {
-        StringBuilder transactionData = new StringBuilder();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        String dateTime = LocalDateTime.now().format(formatter);
-
-        transactionData.append("Transaction ID: ").append(transactionCounter++).append("\n");
-        transactionData.append("Date & Time: ").append(dateTime).append("\n");
-        transactionData.append("Cashier: ").append(loggedInUser).append("\n");
-        transactionData.append("Items Purchased:\n");
-        for (int i = 0; i < orderedItems.size(); i++) {
-            transactionData.append("  - ").append(orderedItems.get(i))
-                    .append(" x").append(itemQuantities.get(i))
-                    .append(" (").append(itemAddons.get(i)).append(")")
-                    .append(" - $").append(String.format("%.2f", itemPrices.get(i))).append("\n");
-        }
-        transactionData.append("Total Amount: $").append(String.format("%.2f", totalAmount)).append("\n");
-        transactionData.append("=============================================\n");
-
-        // Main file logging
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("transactions.txt", true))) {
-            writer.write(transactionData.toString());
-        } catch (IOException e) {
-            System.out.println("Problem writing transaction: " + e.getMessage());
-        } finally {
-            // Backup just in case
-            try (BufferedWriter backupWriter = new BufferedWriter(new FileWriter("transactions_backup.txt", true))) {
-                backupWriter.write(transactionData.toString());
-            } catch (IOException e) {
-                System.out.println("Problem with backup: " + e.getMessage());
-            }
-        }
-    }
+    // --- ORDER LOG ---
+    // Write-ahead log ng current order (see OrderWal). Off with -Dwansilog.orderWal=false.
+    private static final String ORDER_WAL = "orders.wal";
+    private OrderWal orderWal = null;
+
+    // --- SCREEN RENDERING ---
+    // Menus/lists are composed here and sent with one write per screen (see ConsoleRenderer).
+    private final ConsoleRenderer screen = new ConsoleRenderer(System.out);
+
+    // --- FAST ENTRY ---
+    // One-line item entry ("2 3 x4", "TOS JR 4"), parsed without allocating (see QuickEntry).
+    private final QuickEntry quickEntry = new QuickEntry();
 
     // --- MAIN PROGRAM FLOW ---
-    // 1. Load transaction counter
+    // 1. Load transaction counter, start journal writer, recover unfinished order (if any)
     // 2. Loop for login/signup until user is authenticated
     // 3. Order menu loop until user wants to exit
     private void start() {
-        loadTransactionCounter();
+        engine.start();
+        openOrderLog();
 
         // Authentication loop
         while (loggedInUser == null) {
@@ -146,17 +89,11 @@ public class TapsilogCashRegister {
 
     // --- WELCOME SCREEN ---
     private void showWelcomeScreen() {
-        System.out.println("\n===============================");
-        System.out.println("   WELCOME TO WANSILOG!!");
-        System.out.println("===============================");
-        System.out.println("1. Sign Up");
-        System.out.println("2. Log In");
-        System.out.println("3. Exit");
-        System.out.print("Enter your choice: ");
+        screen.begin().append(ConsoleRenderer.WELCOME_SCREEN).flush();
     }
 
     // --- SIGNUP FLOW ---
-    // Username and password validation using regex. Option to cancel anytime by entering 0.
+    // Username and password validation (single-pass checkers sa Validators). Option to cancel anytime by entering 0.
     private boolean performSignup() {
         System.out.println("\n===============================");
         System.out.println("       User Sign Up");
@@ -167,13 +104,15 @@ public class TapsilogCashRegister {
 
         // Username input/validation
         while (true) {
-            System.out.print("Enter new username or 0 to cancel: ");
+            System.out.print("Enter new username (letters and numbers, 5-15 characters) or 0 to cancel: ");
             newUsername = scanner.nextLine();
             if (newUsername.equals("0")) {
                 System.out.println("Signup cancelled.");
                 return false;
             }
-            if (usernames.contains(newUsername)) {
+            if (!isValidUsername(newUsername)) {
+                System.out.println("Invalid username format. Use 5-15 letters or numbers only.");
+            } else if (users.contains(newUsername)) {
                 System.out.println("Username already taken. Please choose another.");
             } else {
                 break;
@@ -194,19 +133,30 @@ public class TapsilogCashRegister {
                 System.out.println("Invalid password format. Please follow the rules.");
             }
         }
-        usernames.add(newUsername);
-        passwords.add(newPassword);
+        try {
+            if (!users.add(newUsername, newPassword)) {
+                System.out.println("Username already taken. Please choose another.");
+                return false;
+            }
+        } catch (IOException e) {
+            System.out.println("Problem saving user: " + e.getMessage());
+            return false;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Signup error: " + e.getMessage());
+            return false;
+        }
         System.out.println("\nSign up successful! You can now log in.");
         return true;
     }
 
-    // Regex: username = alphanumeric, 5-15 chars
-
+    // Username = alphanumeric, 5-15 chars (see Validators)
+    private boolean isValidUsername(String username) {
+        return Validators.isValidUsername(username);
+    }
 
-    // Regex: password = at least 1 uppercase, 1 number, 8-20 chars
+    // Password = at least 1 uppercase, 1 number, 8-20 chars (see Validators)
     private boolean isValidPassword(String password) {
-        Pattern pattern = Pattern.compile("^(?=.*[A-Z])(?=.*\\d).{8,20}$");
-        return pattern.matcher(password).matches();
+        return Validators.isValidPassword(password);
     }
 
     // --- LOGIN FLOW ---
@@ -241,34 +191,36 @@ public class TapsilogCashRegister {
         }
     }
 
-    // Check if user credentials match any pair in the list.
+    // Check the entered password against the stored salted hash (constant-time compare).
     private boolean checkCredentials(String username, String password) {
-        for (int i = 0; i < usernames.size(); i++) {
-            if (usernames.get(i).equals(username) && passwords.get(i).equals(password)) {
-                loggedInUser = username;
-                return true;
-            }
+        long t0 = Metrics.now();
+        boolean ok = users.verify(username, password);
+        Metrics.LOGIN.recordSince(t0);
+        if (ok) {
+            Metrics.LOGIN_OK.increment();
+            loggedInUser = username;
+            session.setCashier(username);
+            return true;
         }
+        Metrics.LOGIN_FAILED.increment();
         return false;
     }
 
     // --- ORDER MENU LOOP ---
     // Core order processing logic. All options error handled.
     private void showOrderMenu() {
-        clearCurrentOrder();
+        // Every exit from this menu clears the order, so lines here = order recovered after a crash.
+        if (!session.lines().isEmpty()) {
+            System.out.println("\nResuming unfinished order from last session.");
+        }
         boolean ordering = true;
         while (ordering) {
-            System.out.println("\n===============================");
-            System.out.println("Order Menu:");
-            System.out.println("[1] Add Item");
-            System.out.println("[2] Update Quantity");
-            System.out.println("[3] Remove Item");
-            System.out.println("[4] Display Orders");
-            System.out.println("[5] Checkout");
-            System.out.println("[6] Cancel Order");
-            System.out.println("[0] Cancel/Back to Main Menu");
-            System.out.print("Choose an option: ");
+            screen.begin().append(ConsoleRenderer.ORDER_MENU).flush();
             String choice = scanner.nextLine();
+            if (QuickEntry.looksLikeEntry(choice)) {
+                quickAdd(choice, Metrics.now());
+                continue;
+            }
             switch (choice) {
                 case "1":
                     addItemFlow();
@@ -283,7 +235,7 @@ public class TapsilogCashRegister {
                     displayOrders();
                     break;
                 case "5":
-                    if (orderedItems.isEmpty()) {
+                    if (session.lines().isEmpty()) {
                         System.out.println("Your order is empty.");
                     } else {
                         if (checkoutFlow()) ordering = false;
@@ -294,47 +246,62 @@ public class TapsilogCashRegister {
                     clearCurrentOrder();
                     System.out.println("Order cancelled.");
                     break;
+                case "7":
+                    xReportFlow();
+                    break;
+                case "8":
+                    zReportFlow();
+                    break;
+                case "9":
+                    fastEntryFlow();
+                    break;
                 case "0":
                     ordering = false;
                     clearCurrentOrder();
                     System.out.println("Back to main menu.");
                     break;
                 default:
-                    System.out.println("Invalid choice. Please select from 1 to 6 or 0 to cancel.");
+                    System.out.println("Invalid choice. Please select from 1 to 9 or 0 to cancel.");
             }
         }
     }
 
     // --- ADD ITEM FLOW ---
     // Item, addon, qty - all with cancel option. All index input 1-based.
+    // Uses one menu snapshot throughout, para yung presyong nakita ni cashier yung ma-charge
+    // kahit ma-reload yung menu habang nagta-type.
     private boolean addItemFlow() {
         try {
-            System.out.println("\nAdd Item to Order:");
-            for (int i = 0; i < foodNames.length; i++) {
-                System.out.printf("[%d] %s - $%.2f\n", i + 1, foodNames[i], foodPrices[i]);
-            }
-            System.out.print("Select item number or 0 to cancel: ");
+            MenuCatalog menu = engine.menu();
+            screen.begin().line("").line("Add Item to Order:").append(screen.itemList(menu))
+                    .append("Select item number or 0 to cancel: ").flush();
             String itemInput = scanner.nextLine();
             if (itemInput.equals("0")) {
                 System.out.println("Add item cancelled.");
                 return false;
             }
-            int itemIdx = Integer.parseInt(itemInput) - 1;
-            if (itemIdx < 0 || itemIdx >= foodNames.length) {
-                System.out.println("Invalid item number.");
+            int itemIdx = QuickEntry.number(itemInput) - 1;
+            if (itemIdx < -1) {
+                System.out.println("Invalid input. Only numbers are allowed.");
                 return false;
             }
-            for (int i = 0; i < addonNames.length; i++) {
-                System.out.printf("[%d] %s - $%.2f\n", i + 1, addonNames[i], addonPrices[i]);
+            if (itemIdx < 0 || itemIdx >= menu.itemCount()) {
+                System.out.println("Invalid item number.");
+                return false;
             }
-            System.out.print("Select addon number or 0 to cancel: ");
+            screen.begin().append(screen.addonList(menu))
+                    .append("Select addon number or 0 to cancel: ").flush();
             String addonInput = scanner.nextLine();
             if (addonInput.equals("0")) {
                 System.out.println("Add item cancelled.");
                 return false;
             }
-            int addonIdx = Integer.parseInt(addonInput) - 1;
-            if (addonIdx < 0 || addonIdx >= addonNames.length) {
+            int addonIdx = QuickEntry.number(addonInput) - 1;
+            if (addonIdx < -1) {
+                System.out.println("Invalid input. Only numbers are allowed.");
+                return false;
+            }
+            if (addonIdx < 0 || addonIdx >= menu.addonCount()) {
                 System.out.println("Invalid addon number.");
                 return false;
             }
@@ -344,42 +311,87 @@ public class TapsilogCashRegister {
                 System.out.println("Add item cancelled.");
                 return false;
             }
-            int qty = Integer.parseInt(qtyInput);
-            if (qty < 1) {
-                System.out.println("Quantity must be at least 1.");
+            int qty = QuickEntry.number(qtyInput);
+            if (qty < 0) {
+                System.out.println("Invalid input. Only numbers are allowed.");
+                return false;
+            }
+            if (session.addItem(menu, itemIdx, addonIdx, qty) != OrderSession.OK) {
+                System.out.println("Quantity must be 1 to " + OrderSession.MAX_QUANTITY + " per order line.");
                 return false;
             }
-            orderedItems.add(foodNames[itemIdx]);
-            itemQuantities.add(qty);
-            itemAddons.add(addonNames[addonIdx]);
-            itemPrices.add((foodPrices[itemIdx] + addonPrices[addonIdx]) * qty);
             System.out.println("Item added!");
             return true;
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Only numbers are allowed. " + e.getMessage());
         } catch (Exception e) {
             System.out.println("An error occurred: " + e.getMessage());
         }
         return false;
     }
 
+    // --- FAST ENTRY FLOW ---
+    // Prompt stays up; each line is "item addon [qty]" (see QuickEntry). Blank or 0 = back.
+    private void fastEntryFlow() {
+        screen.begin().line("").line("Fast Entry: item addon [qty], by number or code (e.g. 2 3 x4, TOS JR 4).")
+                .line("Several items: separate with commas. Blank line or 0 = back to the order menu.").flush();
+        while (true) {
+            System.out.print("> ");
+            String input = scanner.nextLine();
+            long t0 = Metrics.now();
+            if (QuickEntry.number(input) == 0 || input.isBlank()) return;
+            quickAdd(input, t0);
+        }
+    }
+
+    // Add everything on one entry line (nothing if any part is wrong) and confirm with one write.
+    // t0 = when the line came in, for the keystroke-to-confirmation latency (Metrics.QUICK_ENTRY).
+    private boolean quickAdd(String input, long t0) {
+        MenuCatalog menu = engine.menu();
+        int status = quickEntry.parse(input, menu);
+        if (status != QuickEntry.OK) {
+            System.out.println(quickEntry.errorMessage(status, input));
+            return false;
+        }
+        int tooMany = session.addAll(menu, quickEntry);
+        if (tooMany >= 0) {
+            System.out.println("Quantity too large for " + menu.itemName(quickEntry.item(tooMany)) + " (max "
+                    + OrderSession.MAX_QUANTITY + " per order line). Nothing added.");
+            return false;
+        }
+        screen.begin();
+        for (int i = 0; i < quickEntry.count(); i++) {
+            int item = quickEntry.item(i);
+            int addon = quickEntry.addon(i);
+            int qty = quickEntry.quantity(i);
+            screen.line(screen.scratch().append("Added: ").append(menu.itemName(item)).append(" x").append(qty)
+                    .append(" (").append(menu.addonName(addon)).append(')'));
+        }
+        screen.line(Money.append(screen.scratch().append("Order total: $"), session.lines().total()));
+        screen.flush();
+        Metrics.QUICK_ENTRY.recordSince(t0);
+        return true;
+    }
+
     // --- UPDATE QUANTITY FLOW ---
     // Lets user change quantity of an already-added item.
     private boolean updateQuantityFlow() {
-        if (orderedItems.isEmpty()) {
+        if (session.lines().isEmpty()) {
             System.out.println("No items to update.");
             return false;
         }
-        displayOrders();
+        composeOrders();
         try {
-            System.out.print("Enter order number to update or 0 to cancel: ");
+            screen.append("Enter order number to update or 0 to cancel: ").flush();
             String idxInput = scanner.nextLine();
             if (idxInput.equals("0")) {
                 System.out.println("Update cancelled.");
                 return false;
             }
-            int idx = Integer.parseInt(idxInput) - 1;
-            if (idx < 0 || idx >= orderedItems.size()) {
+            int idx = QuickEntry.number(idxInput) - 1;
+            if (idx < -1) {
+                System.out.println("Invalid input. Only numbers are allowed.");
+                return false;
+            }
+            if (idx < 0 || idx >= session.lines().size()) {
                 System.out.println("Invalid order number.");
                 return false;
             }
@@ -389,18 +401,17 @@ public class TapsilogCashRegister {
                 System.out.println("Update cancelled.");
                 return false;
             }
-            int qty = Integer.parseInt(qtyInput);
-            if (qty < 1) {
-                System.out.println("Quantity must be at least 1.");
+            int qty = QuickEntry.number(qtyInput);
+            if (qty < 0) {
+                System.out.println("Invalid input. Only numbers are allowed.");
+                return false;
+            }
+            if (session.updateQuantity(idx, qty) != OrderSession.OK) {
+                System.out.println("Quantity must be 1 to " + OrderSession.MAX_QUANTITY + ".");
                 return false;
             }
-            double unitPrice = itemPrices.get(idx) / itemQuantities.get(idx);
-            itemQuantities.set(idx, qty);
-            itemPrices.set(idx, unitPrice * qty);
             System.out.println("Quantity updated!");
             return true;
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Only numbers are allowed. " + e.getMessage());
         } catch (Exception e) {
             System.out.println("An error occurred: " + e.getMessage());
         }
@@ -410,31 +421,29 @@ public class TapsilogCashRegister {
     // --- REMOVE ITEM FLOW ---
     // Removes chosen item from the order.
     private boolean removeItemFlow() {
-        if (orderedItems.isEmpty()) {
+        if (session.lines().isEmpty()) {
             System.out.println("No item to remove.");
             return false;
         }
-        displayOrders();
+        composeOrders();
         try {
-            System.out.print("Enter order number to remove or 0 to cancel: ");
+            screen.append("Enter order number to remove or 0 to cancel: ").flush();
             String idxInput = scanner.nextLine();
             if (idxInput.equals("0")) {
                 System.out.println("Remove cancelled.");
                 return false;
             }
-            int idx = Integer.parseInt(idxInput) - 1;
-            if (idx < 0 || idx >= orderedItems.size()) {
+            int idx = QuickEntry.number(idxInput) - 1;
+            if (idx < -1) {
+                System.out.println("Invalid input. Only numbers are allowed.");
+                return false;
+            }
+            if (session.removeItem(idx) != OrderSession.OK) {
                 System.out.println("Invalid order number.");
                 return false;
             }
-            orderedItems.remove(idx);
-            itemQuantities.remove(idx);
-            itemAddons.remove(idx);
-            itemPrices.remove(idx);
             System.out.println("Item removed!");
             return true;
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Only numbers are allowed. " + e.getMessage());
         } catch (Exception e) {
             System.out.println("An error occurred: " + e.getMessage());
         }
@@ -444,43 +453,49 @@ public class TapsilogCashRegister {
     // --- DISPLAY ORDER LIST ---
     // Shows all orders before checkout or modification.
     private void displayOrders() {
-        if (orderedItems.isEmpty()) {
-            System.out.println("Your order is empty.");
+        composeOrders();
+        screen.flush();
+    }
+
+    // Order list into the screen buffer (not sent yet, para ma-dugtong pa yung prompt).
+    private void composeOrders() {
+        screen.begin();
+        OrderLines order = session.lines();
+        if (order.isEmpty()) {
+            screen.line("Your order is empty.");
             return;
         }
-        System.out.println("\nCurrent Orders:");
-        double total = 0;
-        for (int i = 0; i < orderedItems.size(); i++) {
-            System.out.printf("[%d] %s x%d (%s) - $%.2f\n", i + 1, orderedItems.get(i), itemQuantities.get(i), itemAddons.get(i), itemPrices.get(i));
-            total += itemPrices.get(i);
+        screen.line("").line("Current Orders:");
+        for (int i = 0; i < order.size(); i++) {
+            StringBuilder line = screen.scratch();
+            line.append('[').append(i + 1).append("] ").append(session.itemName(i))
+                    .append(" x").append(order.quantity(i))
+                    .append(" (").append(session.addonName(i)).append(") - $");
+            screen.line(Money.append(line, order.lineTotal(i)));
         }
-        System.out.println("Total: $" + String.format("%.2f", total));
-        System.out.println("[0] Cancel/Back to Order Menu");
+        screen.line(Money.append(screen.scratch().append("Total: $"), order.total()));
+        screen.line("[0] Cancel/Back to Order Menu");
     }
 
     // --- CHECKOUT FLOW ---
     // Accepts payment, calculates change, and logs transaction.
     private boolean checkoutFlow() {
-        displayOrders();
-        double totalAmount = 0.0;
-        for (double price : itemPrices) totalAmount += price;
+        composeOrders();
         while (true) {
             try {
-                System.out.print("Enter payment amount or 0 to cancel: $");
+                screen.append("Enter payment amount or 0 to cancel: $").flush();
                 String paymentInput = scanner.nextLine();
                 if (paymentInput.equals("0")) {
                     System.out.println("Checkout cancelled.");
                     return false;
                 }
-                double payment = Double.parseDouble(paymentInput);
-                if (payment < totalAmount) {
+                long payment = Money.parse(paymentInput);
+                if (session.checkout(payment) == OrderSession.INSUFFICIENT_PAYMENT) {
                     System.out.println("Insufficient payment. Please try again.");
                     continue;
                 }
-                double change = payment - totalAmount;
-                System.out.println("Change: $" + String.format("%.2f", change));
+                System.out.println("Change: $" + Money.format(session.lastChange()));
                 System.out.println("Thank you for your order!");
-                logTransactionToFile(totalAmount);
                 return true;
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a valid amount. " + e.getMessage());
@@ -490,26 +505,110 @@ public class TapsilogCashRegister {
         }
     }
 
-    // --- CLEAR ORDER (reset all lists for fresh transaction) ---
+    // --- X / Z REPORTS ---
+    // From the running totals (see RunningTotals), so instant kahit malaki na yung log.
+    // X = sales since the last Z, nothing reset. Z = same report, then the totals start over.
+    private void xReportFlow() {
+        RunningTotals totals = engine.runningTotals();
+        if (totals == null) {
+            System.out.println("Reports are not available (transaction index could not be opened).");
+            return;
+        }
+        screen.begin().append(totals.xReport()).flush();
+    }
+
+    private void zReportFlow() {
+        RunningTotals totals = engine.runningTotals();
+        if (totals == null) {
+            System.out.println("Reports are not available (transaction index could not be opened).");
+            return;
+        }
+        System.out.print("Close the day and reset the running totals? (yes/no): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+            System.out.println("Z-Report cancelled.");
+            return;
+        }
+        screen.begin().append(totals.zReport()).flush();
+    }
+
+    // --- CLEAR ORDER (reset order lines for fresh transaction) ---
     private void clearCurrentOrder() {
-        orderedItems.clear();
-        itemQuantities.clear();
-        itemAddons.clear();
-        itemPrices.clear();
+        session.cancel();
     }
 
     // --- CONSTRUCTOR ---
-    // Adds default users. No file-based user storage yet, but easy to add if needed.
     private TapsilogCashRegister() {
-        usernames.add("karl");
-        passwords.add("Lonely123");
-        usernames.add("cashier");
-        passwords.add("Cashier123");
+    }
+
+    // Starts loading users.dat in the background. Default users are only written on first run
+    // (no users.dat yet); see UserStore.addDefault.
+    // Shared with RegisterServer, so network clients log in with the same accounts.
+    static UserStore openUsers() {
+        UserStore users = new UserStore(new File(USER_FILE));
+        users.loadAsync();
+        users.addDefault("karl", "Lonely123");
+        users.addDefault("cashier", "Cashier123");
+        return users;
+    }
+
+    // Open orders.wal and replay it. Kung may naputol na order last time, babalik siya dito.
+    private void openOrderLog() {
+        if (!Boolean.parseBoolean(System.getProperty("wansilog.orderWal", "true"))) return;
+        try {
+            orderWal = OrderWal.fromSystemProperties(new File(ORDER_WAL));
+            session.setWal(orderWal);
+            int restored = session.recover();
+            if (restored > 0) {
+                System.out.println("Recovered unfinished order with " + restored + " item/s.");
+            }
+        } catch (IOException e) {
+            System.out.println("Problem opening order log: " + e.getMessage());
+        }
+    }
+
+    // Flush pending transactions and close the journal (and anything else na naka-open pa) before exiting.
+    // Engine first: its last journal writes still report back to the order log.
+    private void shutdown() {
+        engine.close();
+        if (orderWal != null) {
+            try {
+                orderWal.close();
+            } catch (IOException e) {
+                System.out.println("Problem closing order log: " + e.getMessage());
+            }
+        }
     }
 
     // --- MAIN ENTRY POINT ---
+    // No args = interactive console. Other modes:
+    //   --batch <script> [--repeat N] [--terminals N]   headless replay (see BatchRunner)
+    //   --report [log] [--from date] [--to date]         sales summaries (see SalesReport)
+    //   --export-text [binary log] [output]              binary journal (+ archive) -> text (see JournalExporter)
+    //   --serve [--port N]                               localhost line protocol for many terminals (see RegisterServer)
+    //   --loadgen [--port N] [--clients N] [--seconds S] load test against --serve (see LoadGenerator)
+    // -Dwansilog.metrics=true turns on latency/counter metrics in any mode (see Metrics).
     public static void main(String[] args) {
+        Metrics.install();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(BatchRunner.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--report")) {
+            System.exit(SalesReport.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--export-text")) {
+            System.exit(JournalExporter.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            System.exit(RegisterServer.run(args));
+        }
+        if (args.length > 0 && args[0].equals("--loadgen")) {
+            System.exit(LoadGenerator.run(args));
+        }
         TapsilogCashRegister chin = new TapsilogCashRegister();
-        chin.start();
+        try {
+            chin.start();
+        } finally {
+            chin.shutdown();
+        }
     }
 }
@@ -0,0 +1,354 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TextJournalFormat
+ *
+ * Yung original na transactions.txt block format:
+ *
+ *   Transaction ID: 2
+ *   Date & Time: 2025-06-06 13:46:48
+ *   Cashier: karl
+ *   Items Purchased:
+ *     - Tapsilog x1 (Rice) - $90.00
+ *   Total Amount: $548.00
+ *   =============================================
+ *
+ * // Stateless apart from a scratch StringBuilder. The date is formatted digit by digit instead of
+ * // through DateTimeFormatter, since it runs once per record on the writer thread.
+ */
+final class TextJournalFormat implements JournalFormat {
+
+    static final String SEPARATOR = "=============================================";
+    private static final byte[] ID_PREFIX = "Transaction ID:".getBytes();
+
+    private final StringBuilder text = new StringBuilder(512);
+
+    @Override
+    public String name() {
+        return "text";
+    }
+
+    @Override
+    public byte[] fileHeader() {
+        return new byte[0];
+    }
+
+    @Override
+    public void reset() {
+        // Walang state between records.
+    }
+
+    @Override
+    public int encode(TransactionRecord record, ByteSink out) {
+        int start = out.size();
+        text.setLength(0);
+        appendRecord(text, record);
+        out.writeUtf8(text);
+        return start;
+    }
+
+    // One record as text, exactly as logTransactionToFile has always written it.
+    static StringBuilder appendRecord(StringBuilder sb, TransactionRecord record) {
+        sb.append("Transaction ID: ").append(record.id).append("\n");
+        appendDateTime(sb.append("Date & Time: "), record.localTime()).append("\n");
+        sb.append("Cashier: ").append(record.cashier).append("\n");
+        sb.append("Items Purchased:\n");
+        for (int i = 0; i < record.lineCount; i++) {
+            sb.append("  - ").append(record.itemNames[record.items[i]])
+                    .append(" x").append(record.quantities[i])
+                    .append(" (").append(record.addonNames[record.addons[i]]).append(")")
+                    .append(" - $");
+            Money.append(sb, record.lineTotals[i]).append("\n");
+        }
+        sb.append("Total Amount: $");
+        Money.append(sb, record.total).append("\n");
+        sb.append(SEPARATOR).append("\n");
+        return sb;
+    }
+
+    // yyyy-MM-dd HH:mm:ss
+    static StringBuilder appendDateTime(StringBuilder sb, LocalDateTime t) {
+        sb.append(t.getYear()).append('-');
+        twoDigits(sb, t.getMonthValue()).append('-');
+        twoDigits(sb, t.getDayOfMonth()).append(' ');
+        twoDigits(sb, t.getHour()).append(':');
+        twoDigits(sb, t.getMinute()).append(':');
+        return twoDigits(sb, t.getSecond());
+    }
+
+    private static StringBuilder twoDigits(StringBuilder sb, int value) {
+        return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    @Override
+    public RecordReader reader(InputStream in, long from, long to) throws IOException {
+        return new Reader(in, from, to);
+    }
+
+    // Index every record, at the offset of its "Transaction ID:" line. Byte-level para exact yung
+    // offsets kahit anong charset. A record counts once its separator line is there; a last block
+    // without one (crash mid-write) is not visited and the returned offset is its start, so the
+    // journal writer can cut it off. Otherwise returns the end of the last complete line.
+    @Override
+    public long scan(File file, long from, long to, RecordVisitor visitor) throws IOException {
+        if (from >= to) return from;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            long skipped = 0;
+            while (skipped < from) {
+                long n = in.skip(from - skipped);
+                if (n <= 0) break;
+                skipped += n;
+            }
+            byte[] line = new byte[256];
+            long pos = from;
+            long lineStart = pos;
+            int len = 0;
+            int pendingId = -1;
+            long pendingOffset = -1;
+            int b;
+            while (pos < to && (b = in.read()) != -1) {
+                pos++;
+                if (b == '\n') {
+                    int id = transactionId(line, len);
+                    if (id >= 0) {
+                        // Block before this one never got its separator but is followed by more
+                        // records, so it is not a torn tail: keep it (same as before).
+                        if (pendingId >= 0) visitor.record(pendingId, pendingOffset);
+                        pendingId = id;
+                        pendingOffset = lineStart;
+                    } else if (id == -2) {
+                        System.out.println("Error reading transaction ID at offset " + lineStart + ", skipped.");
+                    } else if (pendingId >= 0 && isSeparator(line, len)) {
+                        visitor.record(pendingId, pendingOffset);
+                        pendingId = -1;
+                    }
+                    lineStart = pos;
+                    len = 0;
+                } else if (len < line.length) {
+                    line[len++] = (byte) b;
+                }
+            }
+            // Torn last block, or last line without newline = partial write; not covered yet.
+            return pendingId >= 0 ? pendingOffset : lineStart;
+        }
+    }
+
+    // --- READER (running totals replay) ---
+    // Parses blocks back into TransactionRecords, from a record boundary up to `to`. Only complete
+    // blocks (separator seen, every line parsed) come out; anything else is counted in skipped().
+    // Item/addon names go into growing dictionaries, so consecutive records share name arrays.
+    static final class Reader implements RecordReader {
+        private final InputStream in;
+        private long remaining;
+        private byte[] line = new byte[256];
+        private final Map<String, Integer> itemIndex = new HashMap<>();
+        private final Map<String, Integer> addonIndex = new HashMap<>();
+        private String[] items = new String[0];
+        private String[] addons = new String[0];
+        private long skipped = 0;
+
+        // Pending block
+        private int id;
+        private long epoch;
+        private String cashier;
+        private long total;
+        private boolean bad;
+        private int count;
+        private int[] itemIdx = new int[8];
+        private int[] addonIdx = new int[8];
+        private int[] quantities = new int[8];
+        private long[] lineTotals = new long[8];
+
+        Reader(File file, long from, long to) throws IOException {
+            this(new FileInputStream(file), from, to);
+        }
+
+        Reader(InputStream stream, long from, long to) throws IOException {
+            in = new BufferedInputStream(stream, 1 << 16);
+            try {
+                long pos = 0;
+                while (pos < from) {
+                    long n = in.skip(from - pos);
+                    if (n <= 0) break;
+                    pos += n;
+                }
+                remaining = Math.max(0, to - pos);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            startBlock(-1);
+        }
+
+        long skipped() {
+            return skipped;
+        }
+
+        // Next complete record, or null at `to` / end of file.
+        @Override
+        public TransactionRecord next() throws IOException {
+            int len;
+            while ((len = readLine()) >= 0) {
+                int txnId = transactionId(line, len);
+                if (txnId != -1) {
+                    if (id >= 0) skipped++; // previous block never got its separator
+                    startBlock(Math.max(txnId, 0));
+                    bad = txnId < 0; // "Transaction ID:" with a bad number
+                } else if (id >= 0 && isSeparator(line, len)) {
+                    TransactionRecord record = bad || cashier == null || total < 0 || epoch == Long.MIN_VALUE
+                            ? null : toRecord();
+                    if (record == null) skipped++;
+                    startBlock(-1);
+                    if (record != null) return record;
+                } else if (id >= 0) {
+                    parseField(new String(line, 0, len, StandardCharsets.UTF_8));
+                }
+            }
+            if (id >= 0) skipped++; // torn tail
+            return null;
+        }
+
+        // One line without its newline into `line`; -1 at the end. A last line with no newline
+        // is a partial write, so it is dropped.
+        private int readLine() throws IOException {
+            int len = 0;
+            while (remaining > 0) {
+                int b = in.read();
+                if (b < 0) return -1;
+                remaining--;
+                if (b == '\n') {
+                    if (len > 0 && line[len - 1] == '\r') len--;
+                    return len;
+                }
+                if (len == line.length) line = Arrays.copyOf(line, len * 2);
+                line[len++] = (byte) b;
+            }
+            return -1;
+        }
+
+        private void startBlock(int txnId) {
+            id = txnId;
+            epoch = Long.MIN_VALUE;
+            cashier = null;
+            total = -1;
+            bad = false;
+            count = 0;
+        }
+
+        private void parseField(String text) {
+            try {
+                if (text.startsWith("Date & Time: ")) {
+                    epoch = parseDateTime(text, "Date & Time: ".length());
+                } else if (text.startsWith("Cashier: ")) {
+                    cashier = text.substring("Cashier: ".length());
+                } else if (text.startsWith("  - ")) {
+                    parseItemLine(text);
+                } else if (text.startsWith("Total Amount: $")) {
+                    total = Money.parse(text.substring("Total Amount: $".length()));
+                }
+            } catch (RuntimeException e) {
+                bad = true;
+            }
+        }
+
+        // "  - Tosilog x2 (Half Rice) - $174.00"
+        private void parseItemLine(String text) {
+            int open = text.lastIndexOf(" (");
+            int close = open < 0 ? -1 : text.indexOf(") - $", open);
+            int x = open < 0 ? -1 : text.lastIndexOf(" x", open);
+            if (x < 4 || close < 0) {
+                bad = true;
+                return;
+            }
+            if (count == itemIdx.length) {
+                int capacity = count * 2;
+                itemIdx = Arrays.copyOf(itemIdx, capacity);
+                addonIdx = Arrays.copyOf(addonIdx, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                lineTotals = Arrays.copyOf(lineTotals, capacity);
+            }
+            quantities[count] = Integer.parseInt(text.substring(x + 2, open));
+            lineTotals[count] = Money.parse(text.substring(close + 5));
+            itemIdx[count] = itemIndexOf(text.substring(4, x));
+            addonIdx[count] = addonIndexOf(text.substring(open + 2, close));
+            count++;
+        }
+
+        private int itemIndexOf(String name) {
+            Integer idx = itemIndex.get(name);
+            if (idx != null) return idx;
+            items = Arrays.copyOf(items, items.length + 1);
+            items[items.length - 1] = name;
+            itemIndex.put(name, items.length - 1);
+            return items.length - 1;
+        }
+
+        private int addonIndexOf(String name) {
+            Integer idx = addonIndex.get(name);
+            if (idx != null) return idx;
+            addons = Arrays.copyOf(addons, addons.length + 1);
+            addons[addons.length - 1] = name;
+            addonIndex.put(name, addons.length - 1);
+            return addons.length - 1;
+        }
+
+        private TransactionRecord toRecord() {
+            return new TransactionRecord(id, epoch, cashier, items, addons, count,
+                    Arrays.copyOf(itemIdx, count), Arrays.copyOf(addonIdx, count),
+                    Arrays.copyOf(quantities, count), Arrays.copyOf(lineTotals, count), total);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // "yyyy-MM-dd HH:mm:ss" at start -> local epoch second (same clock as TransactionRecord).
+    static long parseDateTime(String text, int start) {
+        if (text.length() < start + 19) throw new NumberFormatException("Bad date/time: " + text);
+        LocalDateTime t = LocalDateTime.of(
+                Integer.parseInt(text, start, start + 4, 10),
+                Integer.parseInt(text, start + 5, start + 7, 10),
+                Integer.parseInt(text, start + 8, start + 10, 10),
+                Integer.parseInt(text, start + 11, start + 13, 10),
+                Integer.parseInt(text, start + 14, start + 16, 10),
+                Integer.parseInt(text, start + 17, start + 19, 10));
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static boolean isSeparator(byte[] line, int len) {
+        if (len > 0 && line[len - 1] == '\r') len--;
+        if (len != SEPARATOR.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (line[i] != '=') return false;
+        }
+        return true;
+    }
+
+    // ID on a "Transaction ID:" line, -1 if not such a line, -2 if the number is bad.
+    private static int transactionId(byte[] line, int len) {
+        if (len < ID_PREFIX.length) return -1;
+        for (int i = 0; i < ID_PREFIX.length; i++) {
+            if (line[i] != ID_PREFIX[i]) return -1;
+        }
+        int id = 0;
+        boolean digits = false;
+        for (int i = ID_PREFIX.length; i < len; i++) {
+            byte c = line[i];
+            if (c >= '0' && c <= '9') {
+                id = id * 10 + (c - '0');
+                digits = true;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return -2;
+            }
+        }
+        return digits ? id : -1;
+    }
+}
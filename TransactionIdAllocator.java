@@ -0,0 +1,38 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TransactionIdAllocator
+ *
+ * Shared transaction ID counter for all terminals. Lock-free: isang getAndIncrement lang per
+ * checkout, so walang dalawang terminal na makakakuha ng parehong ID and walang napapalaktawan.
+ *
+ * // IDs are handed out in allocation order, not journal order; two terminals checking out at
+ * // the same time may land in the log as 8 then 7. TransactionIndex tracks the highest ID, so
+ * // restart numbering is still right.
+ */
+final class TransactionIdAllocator {
+
+    private final AtomicInteger next;
+
+    TransactionIdAllocator(int firstId) {
+        this.next = new AtomicInteger(firstId);
+    }
+
+    int next() {
+        int id = next.getAndIncrement();
+        if (id < 0) {
+            throw new IllegalStateException("Transaction ID overflow");
+        }
+        return id;
+    }
+
+    // Make sure IDs up to and including id are never handed out again (recovered checkouts).
+    void advancePast(int id) {
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+
+    // The ID the next checkout will get (for display/reporting only; may be stale right away).
+    int peek() {
+        return next.get();
+    }
+}
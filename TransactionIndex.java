@@ -0,0 +1,230 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * TransactionIndex
+ *
+ * Sidecar index para sa transaction log (transactions.txt or transactions.bin). Para hindi na
+ * kailangan basahin buong log tuwing startup.
+ *
+ * Layout ng index file (big-endian, fixed size header):
+ *   [0]  int  magic ("WIDX")
+ *   [4]  int  version
+ *   [8]  long record count
+ *   [16] int  last (highest) transaction ID
+ *   [20] int  reserved
+ *   [24] long log length covered by this index
+ *   [32] entries: int transaction ID + long byte offset of the record
+ *                (text: its "Transaction ID:" line, binary: its TXN frame), one per record
+ *
+ * Startup reads only the header, so it is O(1) whatever the size of the log. If the log grew
+ * behind the index's back (crash between log write and index write, or old build appended to it),
+ * only the uncovered tail is scanned. If the index is missing or doesn't match the log, it is rebuilt
+ * from a single pass over the log (JournalFormat.scan); this is also how old logs get migrated, once.
+ *
+ * // Accessors are synchronized: the journal writer thread appends while startup recovery or the
+ * // batch ID check may be reading.
+ * // When the journal rotates (JournalArchive), rollOver() moves the file next to the sealed segment
+ * // and starts an empty one in place, so everyone holding this object keeps a valid index.
+ */
+final class TransactionIndex implements Closeable {
+
+    static final int MAGIC = 0x57494458; // "WIDX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 12;
+
+    private final File logFile;
+    private final File indexFile;
+    private final JournalFormat format;
+    private RandomAccessFile index;
+    private long recordCount;
+    private int lastId;
+    private long coveredLength;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * ENTRY_SIZE);
+
+    private TransactionIndex(File logFile, File indexFile, JournalFormat format, RandomAccessFile index) {
+        this.logFile = logFile;
+        this.indexFile = indexFile;
+        this.format = format;
+        this.index = index;
+    }
+
+    // Open (or create/migrate) the index for a text log.
+    static TransactionIndex open(File logFile, File indexFile) throws IOException {
+        return open(logFile, indexFile, new TextJournalFormat());
+    }
+
+    // Open (or create/migrate) the index for a log in the given format.
+    static TransactionIndex open(File logFile, File indexFile, JournalFormat format) throws IOException {
+        TransactionIndex idx = new TransactionIndex(logFile, indexFile, format, new RandomAccessFile(indexFile, "rw"));
+        try {
+            long logLength = logFile.exists() ? logFile.length() : 0L;
+            if (!idx.readHeader() || idx.coveredLength > logLength) {
+                // Walang index, sira, or hindi na tugma sa log (e.g. log was replaced) -> full rebuild
+                idx.reset();
+                idx.catchUp(logLength);
+            } else if (idx.coveredLength < logLength) {
+                idx.catchUp(logLength);
+            }
+        } catch (IOException e) {
+            idx.close();
+            throw e;
+        }
+        return idx;
+    }
+
+    // Read-only view of a sealed segment's index (JournalArchive). Nothing is checked against the
+    // segment itself, which may be compressed by now.
+    static TransactionIndex openSealed(File indexFile) throws IOException {
+        TransactionIndex idx = new TransactionIndex(null, indexFile, null, new RandomAccessFile(indexFile, "r"));
+        if (!idx.readHeader()) {
+            idx.close();
+            throw new IOException("Bad segment index " + indexFile);
+        }
+        return idx;
+    }
+
+    synchronized int lastId() {
+        return lastId;
+    }
+
+    synchronized long recordCount() {
+        return recordCount;
+    }
+
+    synchronized long coveredLength() {
+        return coveredLength;
+    }
+
+    // Byte offset sa log ng n-th record (0-based).
+    synchronized long offsetOf(long recordNo) throws IOException {
+        if (recordNo < 0 || recordNo >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + recordNo + " of " + recordCount);
+        }
+        index.seek(HEADER_SIZE + recordNo * ENTRY_SIZE + 4);
+        return index.readLong();
+    }
+
+    // Transaction ID ng n-th record (0-based).
+    synchronized int idOf(long recordNo) throws IOException {
+        if (recordNo < 0 || recordNo >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + recordNo + " of " + recordCount);
+        }
+        index.seek(HEADER_SIZE + recordNo * ENTRY_SIZE);
+        return index.readInt();
+    }
+
+    // Whether the ID is among the last `window` indexed records (newest first). IDs above lastId()
+    // are never there. Used by order-log recovery, where a missing checkout can only be one of the
+    // records that were still in flight when the register died.
+    synchronized boolean containsRecent(int id, int window) throws IOException {
+        if (id > lastId) return false;
+        long stop = Math.max(0, recordCount - window);
+        for (long r = recordCount - 1; r >= stop; r--) {
+            if (idOf(r) == id) return true;
+        }
+        return recordCount > window; // older than the window: assume it made it
+    }
+
+    // Record a batch of freshly appended transactions (ids[i] at offsets[i], i < count), one group
+    // commit's worth. Entries go out in one positional write, then the header in another, para
+    // kung mamatay sa gitna ang next open lang mag-catch up from the old covered length.
+    // If an earlier batch never got indexed, the log is scanned up to offsets[0] first.
+    synchronized void appendBatch(int[] ids, long[] offsets, int count, long newLogLength) throws IOException {
+        if (count == 0) return;
+        if (coveredLength < offsets[0]) catchUp(offsets[0]);
+        int needed = count * ENTRY_SIZE;
+        if (batchBuffer.capacity() < needed) batchBuffer = ByteBuffer.allocate(Math.max(needed, batchBuffer.capacity() * 2));
+        batchBuffer.clear();
+        int maxId = lastId;
+        for (int i = 0; i < count; i++) {
+            batchBuffer.putInt(ids[i]).putLong(offsets[i]);
+            if (ids[i] > maxId) maxId = ids[i];
+        }
+        batchBuffer.flip();
+        writeFully(batchBuffer, HEADER_SIZE + recordCount * ENTRY_SIZE);
+        recordCount += count;
+        lastId = maxId;
+        coveredLength = newLogLength;
+        writeHeader();
+    }
+
+    // Journal rotation: the log was just sealed into the archive and a fresh one started
+    // (newLogLength = its header). Move this index to sealedIndex and start over, empty, in place.
+    // If the move fails the old entries are simply dropped (the archive rebuilds a missing one).
+    synchronized void rollOver(File sealedIndex, long newLogLength) throws IOException {
+        index.close();
+        try {
+            Files.move(indexFile.toPath(), sealedIndex.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            index = new RandomAccessFile(indexFile, "rw");
+            reset();
+            coveredLength = newLogLength;
+            writeHeader();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.close();
+    }
+
+    private boolean readHeader() throws IOException {
+        if (index.length() < HEADER_SIZE) return false;
+        index.seek(0);
+        if (index.readInt() != MAGIC || index.readInt() != VERSION) return false;
+        long count = index.readLong();
+        int id = index.readInt();
+        index.readInt();
+        long covered = index.readLong();
+        if (count < 0 || covered < 0 || index.length() < HEADER_SIZE + count * ENTRY_SIZE) return false;
+        recordCount = count;
+        lastId = id;
+        coveredLength = covered;
+        return true;
+    }
+
+    // One positional write (the old field-by-field version was a seek + 6 writes).
+    private void writeHeader() throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putLong(recordCount).putInt(lastId).putInt(0).putLong(coveredLength);
+        header.flip();
+        writeFully(header, 0);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        FileChannel channel = index.getChannel();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void reset() throws IOException {
+        recordCount = 0;
+        lastId = 0;
+        coveredLength = 0;
+        index.setLength(HEADER_SIZE);
+        writeHeader();
+    }
+
+    // Scan the log from coveredLength up to logLength and index every complete record in it.
+    private void catchUp(long logLength) throws IOException {
+        if (logLength != coveredLength) {
+            coveredLength = format.scan(logFile, coveredLength, logLength, this::indexRecord);
+        }
+        writeHeader();
+    }
+
+    private void indexRecord(int id, long offset) throws IOException {
+        index.seek(HEADER_SIZE + recordCount * ENTRY_SIZE);
+        index.writeInt(id);
+        index.writeLong(offset);
+        recordCount++;
+        if (id > lastId) lastId = id;
+    }
+}
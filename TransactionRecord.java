@@ -0,0 +1,105 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TransactionRecord
+ *
+ * Immutable snapshot ng isang checkout, taken on the cashier's thread and encoded later by the
+ * journal writer (text or binary). Lines are copied out of OrderLines, so the terminal can start
+ * its next order right away.
+ *
+ * // Time is kept as epoch seconds of the register's local wall clock (LocalDateTime at UTC),
+ * // para yung text export shows exactly what the text log would have shown.
+ * // itemNames/addonNames are the menu arrays in effect at checkout; the item/addon ints index them.
+ */
+final class TransactionRecord {
+
+    final int id;
+    final long localEpochSecond;
+    final String cashier;
+    final String[] itemNames;
+    final String[] addonNames;
+    final int lineCount;
+    final int[] items;
+    final int[] addons;
+    final int[] quantities;
+    final long[] lineTotals;
+    final long total;
+
+    TransactionRecord(int id, long localEpochSecond, String cashier, String[] itemNames, String[] addonNames,
+                      int lineCount, int[] items, int[] addons, int[] quantities, long[] lineTotals, long total) {
+        this.id = id;
+        this.localEpochSecond = localEpochSecond;
+        this.cashier = cashier;
+        this.itemNames = itemNames;
+        this.addonNames = addonNames;
+        this.lineCount = lineCount;
+        this.items = items;
+        this.addons = addons;
+        this.quantities = quantities;
+        this.lineTotals = lineTotals;
+        this.total = total;
+    }
+
+    static TransactionRecord of(int id, LocalDateTime time, String cashier,
+                                String[] itemNames, String[] addonNames, OrderLines order) {
+        int n = order.size();
+        int[] items = new int[n];
+        int[] addons = new int[n];
+        int[] quantities = new int[n];
+        long[] lineTotals = new long[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = order.menuIndex(i);
+            addons[i] = order.addonIndex(i);
+            quantities[i] = order.quantity(i);
+            lineTotals[i] = order.lineTotal(i);
+        }
+        return new TransactionRecord(id, time.toEpochSecond(ZoneOffset.UTC), cashier, itemNames, addonNames,
+                n, items, addons, quantities, lineTotals, order.total());
+    }
+
+    // Record for an order whose lines may come from different menu versions (menu reloaded
+    // mid-order). The usual single-version case shares that snapshot's name arrays as is.
+    static TransactionRecord of(int id, LocalDateTime time, String cashier, OrderLines order,
+                                MenuCatalog[] menus, int menuCount) {
+        MenuCatalog newest = menus[menuCount - 1];
+        if (menuCount == 1) {
+            return of(id, time, cashier, newest.itemNames(), newest.addonNames(), order);
+        }
+        // Newest menu's names first, then any old-version names that are not on it.
+        List<String> itemNames = new ArrayList<>(Arrays.asList(newest.itemNames()));
+        List<String> addonNames = new ArrayList<>(Arrays.asList(newest.addonNames()));
+        int n = order.size();
+        int[] items = new int[n];
+        int[] addons = new int[n];
+        int[] quantities = new int[n];
+        long[] lineTotals = new long[n];
+        for (int i = 0; i < n; i++) {
+            MenuCatalog menu = newest;
+            for (int m = 0; m < menuCount; m++) {
+                if (menus[m].version == order.menuVersion(i)) menu = menus[m];
+            }
+            items[i] = indexOrAdd(itemNames, menu.itemName(order.menuIndex(i)));
+            addons[i] = indexOrAdd(addonNames, menu.addonName(order.addonIndex(i)));
+            quantities[i] = order.quantity(i);
+            lineTotals[i] = order.lineTotal(i);
+        }
+        return new TransactionRecord(id, time.toEpochSecond(ZoneOffset.UTC), cashier,
+                itemNames.toArray(new String[0]), addonNames.toArray(new String[0]),
+                n, items, addons, quantities, lineTotals, order.total());
+    }
+
+    private static int indexOrAdd(List<String> names, String name) {
+        int idx = names.indexOf(name);
+        if (idx >= 0) return idx;
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    LocalDateTime localTime() {
+        return LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * UserStore
+ *
+ * Persistent cashier accounts. HashMap keyed by username (O(1) lookup), at salted PBKDF2 hash lang
+ * ang naka-save, hindi na plaintext password.
+ *
+ * File format (users.dat), isang account per line:
+ *   username:iterations:base64(salt):base64(hash)
+ *
+ * // The file is read on a background thread when the register starts, so the welcome screen and
+ * // login prompt don't wait on disk; the first lookup joins the load if it is still running.
+ * // Work factor is tunable with -Dwansilog.passwordIterations; old entries keep their own count.
+ * // Unknown usernames are hashed against a dummy entry at the count most stored entries use, so
+ * // the time a failed login takes doesn't tell whether the username exists.
+ */
+final class UserStore {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    static final int DEFAULT_ITERATIONS = 65_536;
+    // Upper bound for an entry read from users.dat, so a corrupt count can't hang a login.
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    private static final class Credential {
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Credential(int iterations, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    private final File file;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Credential> accounts = new HashMap<>();
+    // Entries per iteration count, for picking the dummy's count.
+    private final Map<Integer, Integer> iterationCounts = new HashMap<>();
+    private Credential dummy;
+    private int dummyEntries = 0;
+    // No users.dat when it was loaded: the default accounts may be seeded.
+    private boolean firstRun = false;
+    private volatile CompletableFuture<Void> loading = null;
+
+    UserStore(File file) {
+        this(file, Integer.getInteger("wansilog.passwordIterations", DEFAULT_ITERATIONS));
+    }
+
+    UserStore(File file, int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("Iterations must be at least 1.");
+        this.file = file;
+        this.iterations = iterations;
+        // Ginagamit pag hindi existing yung username, para pareho yung oras ng "wrong user" at "wrong password".
+        // Starts at the configured count; put() moves it to the most common stored one.
+        this.dummy = dummyCredential(iterations);
+    }
+
+    private static Credential dummyCredential(int iterations) {
+        return new Credential(iterations, new byte[SALT_BYTES], new byte[HASH_BITS / 8]);
+    }
+
+    // Start reading users.dat in the background. Safe to call more than once.
+    synchronized void loadAsync() {
+        if (loading == null) {
+            loading = CompletableFuture.runAsync(this::load).exceptionally(e -> {
+                System.out.println("Error loading users: " + e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    // Seed a default account on first run (there was no users.dat); an account later removed
+    // from the file is not brought back. Runs after the background load, so it doesn't block the
+    // caller either. Never fails the chain: a failed stage here would make every later lookup
+    // throw for the life of the process.
+    synchronized void addDefault(String username, String password) {
+        loadAsync();
+        loading = loading.handle((ignored, failure) -> {
+            try {
+                if (firstRun()) addNow(username, password);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Problem saving default user: " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    boolean contains(String username) {
+        awaitLoaded();
+        synchronized (this) {
+            return accounts.containsKey(username);
+        }
+    }
+
+    synchronized int size() {
+        return accounts.size();
+    }
+
+    // Hash and persist a new account. Returns false if the username is already taken.
+    boolean add(String username, String password) throws IOException {
+        awaitLoaded();
+        return addNow(username, password);
+    }
+
+    private boolean addNow(String username, String password) throws IOException {
+        if (username.isEmpty() || username.indexOf(':') >= 0 || username.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid username.");
+        }
+        synchronized (this) {
+            if (accounts.containsKey(username)) return false;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Credential credential = new Credential(iterations, salt, hash(password, salt, iterations));
+        synchronized (this) {
+            if (accounts.containsKey(username)) return false;
+            append(username, credential);
+            put(username, credential);
+        }
+        return true;
+    }
+
+    private synchronized boolean firstRun() {
+        return firstRun;
+    }
+
+    // Caller holds the lock.
+    private void put(String username, Credential credential) {
+        Credential old = accounts.put(username, credential);
+        if (old != null) {
+            iterationCounts.merge(old.iterations, -1, Integer::sum);
+            if (old.iterations == dummy.iterations) dummyEntries--;
+        }
+        int entries = iterationCounts.merge(credential.iterations, 1, Integer::sum);
+        if (credential.iterations == dummy.iterations) {
+            dummyEntries = entries;
+        } else if (entries > dummyEntries) {
+            dummy = dummyCredential(credential.iterations);
+            dummyEntries = entries;
+        }
+    }
+
+    // Constant-time compare of the stored hash against the hash of the entered password.
+    boolean verify(String username, String password) {
+        awaitLoaded();
+        Credential credential;
+        boolean known;
+        synchronized (this) {
+            credential = accounts.get(username);
+            known = credential != null;
+            if (!known) credential = dummy;
+        }
+        byte[] candidate = hash(password, credential.salt, credential.iterations);
+        return MessageDigest.isEqual(candidate, credential.hash) && known;
+    }
+
+    private void awaitLoaded() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            loadAsync();
+            pending = loading;
+        }
+        pending.join();
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            synchronized (this) {
+                firstRun = true;
+            }
+            return;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isEmpty()) continue;
+                String[] parts = line.split(":");
+                if (parts.length != 4) {
+                    System.out.println("Skipping bad user entry on line " + lineNo + ".");
+                    continue;
+                }
+                try {
+                    Credential credential = new Credential(Integer.parseInt(parts[1]),
+                            decoder.decode(parts[2]), decoder.decode(parts[3]));
+                    // Base64/parseInt accept these, but hashing with them would throw at login
+                    // instead of just failing it.
+                    if (parts[0].isEmpty() || credential.iterations < 1 || credential.iterations > MAX_ITERATIONS
+                            || credential.salt.length == 0 || credential.hash.length != HASH_BITS / 8) {
+                        System.out.println("Skipping bad user entry on line " + lineNo + ": bad iterations, salt or hash.");
+                        continue;
+                    }
+                    synchronized (this) {
+                        put(parts[0], credential);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Skipping bad user entry on line " + lineNo + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading users: " + e.getMessage());
+        }
+    }
+
+    private void append(String username, Credential credential) throws IOException {
+        Base64.Encoder encoder = Base64.getEncoder();
+        String line = username + ":" + credential.iterations + ":"
+                + encoder.encodeToString(credential.salt) + ":" + encoder.encodeToString(credential.hash) + "\n";
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    private static byte[] hash(String password, byte[] salt, int iterations) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Password hashing unavailable: " + e.getMessage(), e);
+        }
+    }
+}
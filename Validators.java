@@ -0,0 +1,67 @@
+import java.util.regex.Pattern;
+
+/**
+ * Validators
+ *
+ * Username/password rules for signup (and bulk account import).
+ *   username = alphanumeric (ASCII), 5-15 chars
+ *   password = at least 1 uppercase (A-Z), 1 number (0-9), 8-20 chars
+ *
+ * // Dalawang version per rule: precompiled regex (static, compiled once lang) and a hand-written
+ * // single-pass scanner. Same results; the scanners are what signup uses kasi mas mabilis
+ * // (see bench/ValidationBenchmark).
+ */
+final class Validators {
+
+    static final Pattern USERNAME_PATTERN = Pattern.compile("^[A-Za-z0-9]{5,15}$");
+    static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[A-Z])(?=.*\\d).{8,20}$");
+
+    static final int USERNAME_MIN = 5;
+    static final int USERNAME_MAX = 15;
+    static final int PASSWORD_MIN = 8;
+    static final int PASSWORD_MAX = 20;
+
+    private Validators() {
+    }
+
+    static boolean isValidUsername(String username) {
+        int length = username.length();
+        if (length < USERNAME_MIN || length > USERNAME_MAX) return false;
+        for (int i = 0; i < length; i++) {
+            char c = username.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) return false;
+        }
+        return true;
+    }
+
+    // Same as PASSWORD_PATTERN: '.' counts code points and never matches a line terminator.
+    static boolean isValidPassword(String password) {
+        int length = password.length();
+        if (length < PASSWORD_MIN || length > PASSWORD_MAX * 2) return false;
+        boolean upper = false;
+        boolean digit = false;
+        int codePoints = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(password.charAt(i + 1))) {
+                i++;
+            }
+            if (++codePoints > PASSWORD_MAX) return false;
+        }
+        return upper && digit && codePoints >= PASSWORD_MIN;
+    }
+
+    static boolean matchesUsernamePattern(String username) {
+        return USERNAME_PATTERN.matcher(username).matches();
+    }
+
+    static boolean matchesPasswordPattern(String password) {
+        return PASSWORD_PATTERN.matcher(password).matches();
+    }
+}
@@ -0,0 +1,46 @@
+import java.util.function.LongUnaryOperator;
+
+/**
+ * BenchSupport
+ *
+ * Maliit na timing harness para sa mga benchmark dito sa bench/ (walang build/JMH pa sa project).
+ * Warmup rounds muna para ma-JIT, then measured rounds; prints best and average ns/op.
+ *
+ * // Each op gets the iteration number and returns a long that is folded into a sink, para hindi
+ * // ma-dead-code-eliminate ng JIT yung trabaho.
+ */
+final class BenchSupport {
+
+    static volatile long sink;
+
+    private BenchSupport() {
+    }
+
+    static void run(String name, int opsPerRound, LongUnaryOperator op) {
+        int warmupRounds = Integer.getInteger("bench.warmup", 5);
+        int rounds = Integer.getInteger("bench.rounds", 10);
+        for (int r = 0; r < warmupRounds; r++) {
+            round(opsPerRound, op);
+        }
+        long best = Long.MAX_VALUE;
+        long sum = 0;
+        for (int r = 0; r < rounds; r++) {
+            long elapsed = round(opsPerRound, op);
+            best = Math.min(best, elapsed);
+            sum += elapsed;
+        }
+        System.out.printf("%-40s best %10.1f ns/op   avg %10.1f ns/op%n",
+                name, (double) best / opsPerRound, (double) sum / rounds / opsPerRound);
+    }
+
+    private static long round(int ops, LongUnaryOperator op) {
+        long acc = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            acc += op.applyAsLong(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += acc;
+        return elapsed;
+    }
+}
@@ -0,0 +1,91 @@
+import java.io.*;
+
+/**
+ * ConsoleRenderBenchmark
+ *
+ * One repaint of the add-item screen (order menu + item list + prompt), done the old way (one
+ * println per line on an autoflush PrintStream) vs ConsoleRenderer (one composed write).
+ *
+ * "writes/repaint" counts the write() calls that reach the stream under System.out's
+ * BufferedOutputStream, i.e. what would be write syscalls on the terminal's file descriptor.
+ * Time is measured against /dev/null so the real syscall cost is included.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out ConsoleRenderBenchmark
+ */
+public class ConsoleRenderBenchmark {
+
+    // Counts calls that would be syscalls, forwards bytes to the real target.
+    static final class CountingStream extends OutputStream {
+        final OutputStream target;
+        long writes;
+
+        CountingStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writes++;
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writes++;
+            target.write(b, off, len);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        MenuCatalog menu = MenuCatalog.defaults(1);
+        int ops = Integer.getInteger("bench.ops", 20_000);
+        OutputStream devNull = new File("/dev/null").exists() ? new FileOutputStream("/dev/null") : OutputStream.nullOutputStream();
+
+        // Same wrapping as System.out: autoflush PrintStream over a small BufferedOutputStream.
+        CountingStream oldCount = new CountingStream(devNull);
+        PrintStream oldOut = new PrintStream(new BufferedOutputStream(oldCount, 128), true);
+        CountingStream newCount = new CountingStream(devNull);
+        PrintStream newOut = new PrintStream(new BufferedOutputStream(newCount, 128), true);
+        ConsoleRenderer renderer = new ConsoleRenderer(newOut);
+
+        BenchSupport.run("println per line", ops, i -> {
+            repaintOld(oldOut, menu);
+            return 1;
+        });
+        BenchSupport.run("ConsoleRenderer, one write", ops, i -> {
+            renderer.begin().append(ConsoleRenderer.ORDER_MENU).line("").line("Add Item to Order:")
+                    .append(renderer.itemList(menu)).append("Select item number or 0 to cancel: ").flush();
+            return 1;
+        });
+
+        oldCount.writes = 0;
+        repaintOld(oldOut, menu);
+        newCount.writes = 0;
+        renderer.begin().append(ConsoleRenderer.ORDER_MENU).line("").line("Add Item to Order:")
+                .append(renderer.itemList(menu)).append("Select item number or 0 to cancel: ").flush();
+        System.out.printf("%-40s old %d   renderer %d%n", "writes/repaint", oldCount.writes, newCount.writes);
+        devNull.close();
+    }
+
+    private static void repaintOld(PrintStream out, MenuCatalog menu) {
+        out.println("\n===============================");
+        out.println("Order Menu:");
+        out.println("[1] Add Item");
+        out.println("[2] Update Quantity");
+        out.println("[3] Remove Item");
+        out.println("[4] Display Orders");
+        out.println("[5] Checkout");
+        out.println("[6] Cancel Order");
+        out.println("[0] Cancel/Back to Main Menu");
+        out.print("Choose an option: ");
+        out.println("\nAdd Item to Order:");
+        StringBuilder line = new StringBuilder(48);
+        for (int i = 0; i < menu.itemCount(); i++) {
+            line.setLength(0);
+            line.append('[').append(i + 1).append("] ").append(menu.itemName(i)).append(" - $");
+            out.println(Money.append(line, menu.itemPrice(i)));
+        }
+        out.print("Select item number or 0 to cancel: ");
+        out.flush();
+    }
+}
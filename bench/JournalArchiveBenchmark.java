@@ -0,0 +1,96 @@
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * JournalArchiveBenchmark
+ *
+ * Log rotation (JournalArchive): writes a synthetic 28-day log through the journal writer with
+ * daily rotation, then compares a one-day sales report over the single big log against the same
+ * report over the archive (summaries skip the other 27 segments), plain and gzip'd.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out JournalArchiveBenchmark [records]
+ * (up to 56,000 records = one day per segment; SyntheticLog wraps around after 28 days)
+ */
+public class JournalArchiveBenchmark {
+
+    private static final int DAY = 20250615;
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 56_000;
+        File dir = Files.createTempDirectory("wansilog-archive").toFile();
+        File whole = new File(dir, "whole.txt");
+        SyntheticLog.write(whole, records);
+        System.out.printf("Synthetic log: %,d records, %.1f MB%n", records, whole.length() / 1e6);
+
+        File log = new File(dir, "transactions.txt");
+        File backup = new File(dir, "transactions_backup.txt");
+        File journal = new File(dir, "journal");
+        JournalArchive archive = new JournalArchive(journal, log, backup, new TextJournalFormat(), true, 0, false);
+        long start = System.nanoTime();
+        try (TransactionIndex index = TransactionIndex.open(log, new File(dir, "transactions.idx"));
+             JournalFormat.RecordReader reader = new TextJournalFormat().reader(whole, 0, whole.length())) {
+            JournalWriter writer = new JournalWriter(log, backup, index, new TextJournalFormat(),
+                    JournalWriter.Durability.OS_BUFFERED, 0, 4096, null, archive);
+            TransactionRecord record;
+            while ((record = reader.next()) != null) writer.submit(record);
+            writer.close();
+        }
+        archive.close();
+        System.out.printf("%-40s %9.1f ms, %d sealed segments%n", "Write with daily rotation",
+                (System.nanoTime() - start) / 1e6, archive.segments().size());
+
+        start = System.nanoTime();
+        JournalArchive reopened = new JournalArchive(journal, log, backup, new TextJournalFormat(), true, 0, false);
+        reopened.load();
+        System.out.printf("%-40s %9.3f ms%n", "Archive load (summaries)", (System.nanoTime() - start) / 1e6);
+
+        long expected = time("One day, whole log", () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            new SalesReport(totals, DAY, DAY).read(whole);
+            return totals;
+        });
+        long archived = time("One day, archive (plain)", () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            SalesReport.readArchive(reopened, totals, DAY, DAY, false);
+            new SalesReport(totals, DAY, DAY).read(log);
+            return totals;
+        });
+
+        JournalArchive compressed = new JournalArchive(journal, log, backup, new TextJournalFormat(), true, 0, true);
+        compressed.open();
+        compressed.close();
+        long gzipped = time("One day, archive (gzip)", () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            SalesReport.readArchive(compressed, totals, DAY, DAY, false);
+            new SalesReport(totals, DAY, DAY).read(log);
+            return totals;
+        });
+        System.out.println(expected == archived && expected == gzipped
+                ? "Gross sales match (" + Money.format(expected) + ")." : "MISMATCH between whole log and archive!");
+    }
+
+    interface Report {
+        SalesTotals run() throws IOException;
+    }
+
+    // Best of bench.rounds, prints it; returns the report's gross for the cross-check.
+    private static long time(String name, Report report) throws IOException {
+        int rounds = Integer.getInteger("bench.rounds", 5);
+        long gross = 0;
+        for (int i = 0; i < 2; i++) gross = gross(report.run());
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            BenchSupport.sink += gross(report.run());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-40s best %9.2f ms%n", name, best / 1e6);
+        return gross;
+    }
+
+    private static long gross(SalesTotals totals) {
+        long gross = 0;
+        for (SalesTotals.Day day : totals.days().values()) gross += day.gross;
+        return gross;
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * JournalFormatBenchmark
+ *
+ * Text vs binary journal: encode cost per record, bytes per record, and how fast the index scan
+ * (what startup/migration does) and a full decode go through a log of the same checkouts.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out JournalFormatBenchmark [records]
+ */
+public class JournalFormatBenchmark {
+
+    private static final String[] ITEMS = {"Tapsilog", "Tosilog", "Spamsilog", "Hungariansilog"};
+    private static final String[] ADDONS = {"Rice", "Half Rice", "Java Rice", "None"};
+    private static final long[] PRICES = {8000, 8000, 8000, 9500};
+    private static final long[] ADDON_PRICES = {1000, 700, 1200, 0};
+    private static final String[] CASHIERS = {"karl", "cashier", "terminal1", "terminal2"};
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        TransactionRecord[] sample = new TransactionRecord[1024];
+        LocalDateTime start = LocalDateTime.of(2025, 6, 6, 8, 0);
+        OrderLines lines = new OrderLines(8);
+        for (int i = 0; i < sample.length; i++) {
+            lines.clear();
+            int count = 1 + i % 4;
+            for (int l = 0; l < count; l++) {
+                int item = (i + l) % ITEMS.length;
+                int addon = (i * 3 + l) % ADDONS.length;
+                lines.add(item, addon, 1 + (i + l) % 3, PRICES[item] + ADDON_PRICES[addon]);
+            }
+            sample[i] = TransactionRecord.of(i + 1, start.plusSeconds(i * 37L), CASHIERS[i % CASHIERS.length],
+                    ITEMS, ADDONS, lines);
+        }
+
+        int ops = Integer.getInteger("bench.ops", 200_000);
+        JournalFormat text = new TextJournalFormat();
+        JournalFormat binary = new BinaryJournalFormat();
+        ByteSink out = new ByteSink(4096);
+        BenchSupport.run("encode text", ops, i -> {
+            out.reset();
+            text.encode(sample[(int) (i & 1023)], out);
+            return out.size();
+        });
+        BenchSupport.run("encode binary", ops, i -> {
+            out.reset();
+            binary.encode(sample[(int) (i & 1023)], out);
+            return out.size();
+        });
+
+        File textLog = File.createTempFile("journal", ".txt");
+        File binaryLog = File.createTempFile("journal", ".bin");
+        textLog.deleteOnExit();
+        binaryLog.deleteOnExit();
+        long textBytes = write(new TextJournalFormat(), textLog, sample, records);
+        long binaryBytes = write(new BinaryJournalFormat(), binaryLog, sample, records);
+        System.out.printf("%-40s text %6.1f B/record   binary %6.1f B/record   (%.1fx smaller)%n",
+                "size (" + records + " records)", (double) textBytes / records, (double) binaryBytes / records,
+                (double) textBytes / binaryBytes);
+
+        System.out.printf("%-40s %8.1f ms%n", "index scan text", scanMillis(new TextJournalFormat(), textLog));
+        System.out.printf("%-40s %8.1f ms%n", "index scan binary", scanMillis(new BinaryJournalFormat(), binaryLog));
+
+        long t0 = System.nanoTime();
+        long decoded = 0;
+        try (BinaryJournalFormat.Reader reader = new BinaryJournalFormat.Reader(binaryLog)) {
+            TransactionRecord record;
+            while ((record = reader.next()) != null) decoded += record.total;
+        }
+        BenchSupport.sink += decoded;
+        System.out.printf("%-40s %8.1f ms%n", "full decode binary", (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static long write(JournalFormat format, File file, TransactionRecord[] sample, int records) throws IOException {
+        ByteSink sink = new ByteSink(1 << 16);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            byte[] header = format.fileHeader();
+            out.write(header);
+            for (int i = 0; i < records; i++) {
+                TransactionRecord s = sample[i & 1023];
+                format.encode(new TransactionRecord(i + 1, s.localEpochSecond, s.cashier, s.itemNames, s.addonNames,
+                        s.lineCount, s.items, s.addons, s.quantities, s.lineTotals, s.total), sink);
+                if (sink.size() > 1 << 15) {
+                    out.write(sink.array(), 0, sink.size());
+                    sink.reset();
+                }
+            }
+            out.write(sink.array(), 0, sink.size());
+        }
+        return file.length();
+    }
+
+    private static double scanMillis(JournalFormat format, File file) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < 5; r++) {
+            long[] count = new long[1];
+            long t0 = System.nanoTime();
+            format.scan(file, 0, file.length(), (id, offset) -> count[0]++);
+            best = Math.min(best, (System.nanoTime() - t0) / 1e6);
+            BenchSupport.sink += count[0];
+        }
+        return best;
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * LogScanBenchmark
+ *
+ * Full scans of a synthetic transactions.txt: the old loadTransactionCounter loop (BufferedReader,
+ * readLine, startsWith, String.replace), the streaming SalesReport, and MappedLogReader
+ * (single-threaded and on the common fork-join pool). Checks that both report paths agree.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out LogScanBenchmark [records]
+ */
+public class LogScanBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        File log = File.createTempFile("wansilog-bench", ".txt");
+        log.deleteOnExit();
+        SyntheticLog.write(log, records);
+        System.out.printf("Synthetic log: %,d records, %.1f MB%n", records, log.length() / 1e6);
+
+        time("BufferedReader last ID (old)", log, () -> oldLastId(log));
+        time("SalesReport streaming", log, () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            new SalesReport(totals, 0, Integer.MAX_VALUE).read(log);
+            return totals.maxTransactionId();
+        });
+        ForkJoinPool single = new ForkJoinPool(1);
+        time("MappedLogReader 1 thread", log, () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            MappedLogReader.read(log, totals, 0, Integer.MAX_VALUE, single);
+            return totals.maxTransactionId();
+        });
+        time("MappedLogReader fork-join (" + ForkJoinPool.commonPool().getParallelism() + ")", log, () -> {
+            SalesTotals totals = SalesTotals.forMenu(new RegisterEngine());
+            MappedLogReader.read(log, totals, 0, Integer.MAX_VALUE);
+            return totals.maxTransactionId();
+        });
+        single.shutdown();
+
+        SalesTotals streamed = SalesTotals.forMenu(new RegisterEngine());
+        new SalesReport(streamed, 0, Integer.MAX_VALUE).read(log);
+        SalesTotals mapped = SalesTotals.forMenu(new RegisterEngine());
+        MappedLogReader.read(log, mapped, 0, Integer.MAX_VALUE);
+        ByteArrayOutputStream a = new ByteArrayOutputStream();
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        SalesReport.print(streamed, new PrintStream(a, true, StandardCharsets.UTF_8));
+        SalesReport.print(mapped, new PrintStream(b, true, StandardCharsets.UTF_8));
+        System.out.println(a.toString(StandardCharsets.UTF_8).equals(b.toString(StandardCharsets.UTF_8))
+                ? "Streaming and mapped reports match." : "MISMATCH between streaming and mapped reports!");
+    }
+
+    interface Scan {
+        int run() throws IOException;
+    }
+
+    private static void time(String name, File log, Scan scan) throws IOException {
+        int rounds = Integer.getInteger("bench.rounds", 5);
+        for (int i = 0; i < 2; i++) BenchSupport.sink += scan.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            BenchSupport.sink += scan.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-40s best %9.1f ms   %8.1f MB/s%n", name, best / 1e6, log.length() / 1e6 / (best / 1e9));
+    }
+
+    // Same loop as the original loadTransactionCounter().
+    private static int oldLastId(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lastId = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Transaction ID:")) {
+                    lastId = Integer.parseInt(line.replace("Transaction ID:", "").trim());
+                }
+            }
+            return lastId;
+        }
+    }
+}
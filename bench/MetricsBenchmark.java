@@ -0,0 +1,76 @@
+/**
+ * MetricsBenchmark
+ *
+ * Overhead ng metrics instrumentation: a timed section (Metrics.now() + recordSince) and a counter
+ * increment, as they sit on the hot paths, plus a raw LatencyHistogram.record for comparison.
+ * Run it twice to see the enabled vs disabled cost:
+ *
+ *   java -cp out MetricsBenchmark
+ *   java -Dwansilog.metrics=true -cp out MetricsBenchmark
+ *
+ * Also checks the histogram percentiles against an exact sort.
+ */
+public class MetricsBenchmark {
+
+    public static void main(String[] args) {
+        System.out.println("metrics enabled: " + Metrics.ENABLED);
+        Metrics.Timer timer = new Metrics.Timer("bench");
+        Metrics.Counter counter = new Metrics.Counter("bench");
+        BenchSupport.run("timed section (now + recordSince)", 1_000_000, i -> {
+            long t0 = Metrics.now();
+            timer.recordSince(t0);
+            return t0;
+        });
+        BenchSupport.run("counter increment", 1_000_000, i -> {
+            counter.increment();
+            return i;
+        });
+        BenchSupport.run("empty op (baseline)", 1_000_000, i -> i);
+
+        LatencyHistogram histogram = new LatencyHistogram("raw");
+        BenchSupport.run("LatencyHistogram.record", 1_000_000, i -> {
+            histogram.record(i * 37);
+            return i;
+        });
+
+        // 4 threads recording at once (LongAdder / AtomicLongArray contention)
+        LatencyHistogram shared = new LatencyHistogram("shared");
+        int perThread = 2_000_000;
+        Thread[] threads = new Thread[4];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) shared.record(1_000 + (i & 0xFFFF));
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        System.out.printf("%-40s %10.1f ns/op%n", "record, 4 threads",
+                (System.nanoTime() - start) / (double) (perThread * threads.length) * threads.length);
+
+        // Accuracy: log-normal-ish latencies, exact vs histogram
+        java.util.Random random = new java.util.Random(42);
+        long[] values = new long[200_000];
+        LatencyHistogram check = new LatencyHistogram("check");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(8 + random.nextGaussian() * 1.5);
+            check.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        LatencyHistogram.Snapshot s = check.snapshot();
+        for (double p : new double[] {50, 90, 99, 99.9}) {
+            long exact = BatchRunner.percentile(values, p);
+            long approx = s.percentile(p);
+            System.out.printf("p%-5s exact %10d ns   histogram %10d ns   (%+.2f%%)%n",
+                    p, exact, approx, 100.0 * (approx - exact) / exact);
+        }
+        System.out.println(BenchSupport.sink);
+    }
+}
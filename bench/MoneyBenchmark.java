@@ -0,0 +1,39 @@
+/**
+ * MoneyBenchmark
+ *
+ * Old path (double prices, summed in a loop, String.format("%.2f")) vs Money (long centavos,
+ * running total, digits appended into a reused StringBuilder).
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out MoneyBenchmark
+ */
+public class MoneyBenchmark {
+
+    private static final double[] DOUBLE_PRICES = {90.00, 87.00, 92.00, 95.00, 107.00};
+    private static final long[] CENTAVO_PRICES = {9000, 8700, 9200, 9500, 10700};
+    private static final int LINES = 8;
+
+    public static void main(String[] args) {
+        int ops = Integer.getInteger("bench.ops", 200_000);
+
+        BenchSupport.run("double total + String.format", ops, i -> {
+            double total = 0;
+            for (int l = 0; l < LINES; l++) {
+                total += DOUBLE_PRICES[(int) ((i + l) % DOUBLE_PRICES.length)] * (l + 1);
+            }
+            return String.format("%.2f", total).length();
+        });
+
+        StringBuilder out = new StringBuilder(32);
+        BenchSupport.run("long centavos + Money.append", ops, i -> {
+            long total = 0;
+            for (int l = 0; l < LINES; l++) {
+                total += Money.times(CENTAVO_PRICES[(int) ((i + l) % CENTAVO_PRICES.length)], l + 1);
+            }
+            out.setLength(0);
+            return Money.append(out, total).length();
+        });
+
+        BenchSupport.run("Double.parseDouble payment", ops, i -> (long) Double.parseDouble("1250.75"));
+        BenchSupport.run("Money.parse payment", ops, i -> Money.parse("1250.75"));
+    }
+}
@@ -0,0 +1,97 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * OrderWalBenchmark
+ *
+ * Cost of the order write-ahead log: per-mutation append (with and without fsync), recovery time
+ * for WALs of different sizes, and how big the file gets over many orders with compaction (also
+ * when the next order is already open by the time the journal confirms a checkout).
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out OrderWalBenchmark
+ */
+public class OrderWalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("orders", ".wal");
+        file.deleteOnExit();
+
+        try (OrderWal wal = new OrderWal(file, false)) {
+            wal.cashier("karl");
+            BenchSupport.run("append add (no fsync)", 20_000, i -> {
+                try {
+                    wal.add(9000, 1 + (int) (i % 3), "TAP", "R", "Tapsilog", "Rice");
+                    if (i % 8 == 7) {
+                        wal.checkout((int) i, 1_750_000_000L + i);
+                        wal.checkoutWritten((int) i);
+                    }
+                    return 1;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        int syncOps = Integer.getInteger("bench.syncOps", 200);
+        try (OrderWal wal = new OrderWal(file, true)) {
+            wal.recover();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < syncOps; i++) {
+                wal.add(9000, 1, "TAP", "R", "Tapsilog", "Rice");
+            }
+            System.out.printf("%-40s %10.1f us/op%n", "append add (fsync each)", (System.nanoTime() - t0) / 1e3 / syncOps);
+            wal.reset();
+        }
+
+        // Recovery: open order with N lines (+ one quantity update per line), 5 rounds, best time.
+        for (int lines : new int[] {10, 100, 1_000, 10_000}) {
+            try (OrderWal wal = new OrderWal(file, false)) {
+                wal.reset();
+                wal.cashier("karl");
+                for (int i = 0; i < lines; i++) {
+                    wal.add(9000, 1, "TAP", "R", "Tapsilog", "Rice");
+                    wal.update(i, 2);
+                }
+            }
+            double best = Double.MAX_VALUE;
+            long size = file.length();
+            for (int r = 0; r < 5; r++) {
+                try (OrderWal wal = new OrderWal(file, false)) {
+                    long t0 = System.nanoTime();
+                    OrderWal.Recovery recovery = wal.recover();
+                    best = Math.min(best, (System.nanoTime() - t0) / 1e6);
+                    BenchSupport.sink += recovery.openLines.size();
+                }
+            }
+            System.out.printf("%-40s %8.3f ms  (%d bytes)%n", "recover open order, " + lines + " lines", best, size);
+        }
+
+        // Size over many orders: every checkout is confirmed by the journal right away.
+        try (OrderWal wal = new OrderWal(file, false)) {
+            wal.reset();
+            wal.cashier("karl");
+            long max = 0;
+            for (int order = 1; order <= 10_000; order++) {
+                for (int l = 0; l < 4; l++) wal.add(9000, 1, "TAP", "R", "Tapsilog", "Rice");
+                wal.checkout(order, 1_750_000_000L + order);
+                max = Math.max(max, wal.size());
+                wal.checkoutWritten(order);
+            }
+            System.out.printf("%-40s max %d bytes, after %d bytes%n", "WAL size over 10000 orders", max, wal.size());
+        }
+
+        // Busy counter: the next order is already being rung up when the journal confirms one.
+        try (OrderWal wal = new OrderWal(file, false)) {
+            wal.reset();
+            wal.cashier("karl");
+            long max = 0;
+            for (int order = 1; order <= 10_000; order++) {
+                for (int l = 0; l < 4; l++) wal.add(9000, 1, "TAP", "R", "Tapsilog", "Rice");
+                if (order > 1) wal.checkoutWritten(order - 1);
+                wal.checkout(order, 1_750_000_000L + order);
+                max = Math.max(max, wal.size());
+            }
+            System.out.printf("%-40s max %d bytes, after %d bytes%n", "WAL size, busy counter", max, wal.size());
+        }
+    }
+}
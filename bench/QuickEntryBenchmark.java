@@ -0,0 +1,65 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * QuickEntryBenchmark
+ *
+ * One-line fast entry (QuickEntry) vs the old three-prompt path (Integer.parseInt per answer,
+ * NumberFormatException on a typo), valid and invalid input. Also checks that a parse allocates
+ * nothing (bytes per op from the JVM's per-thread allocation counter), and that both paths read
+ * the same item/addon/quantity.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out QuickEntryBenchmark
+ */
+public class QuickEntryBenchmark {
+
+    private static final String[] LINES = {"2 3 x4", "TOS JR 4", "tap r", "4 2 12", "SPAM HR x2, HUN N 3"};
+    private static final String[] BAD_LINES = {"TOSS JR 4", "2 3 x", "9 1 1", "2 3 4 5"};
+    // Old path: the same entries as three separate answers.
+    private static final String[][] ANSWERS = {{"2", "3", "4"}, {"4", "2", "12"}, {"1", "1", "1"}};
+    private static final String[][] BAD_ANSWERS = {{"2", "x", "4"}, {"two", "3", "4"}};
+
+    public static void main(String[] args) {
+        MenuCatalog menu = MenuCatalog.defaults(1);
+        QuickEntry entry = new QuickEntry();
+        for (String[] answer : ANSWERS) {
+            String line = answer[0] + " " + answer[1] + " x" + answer[2];
+            if (entry.parse(line, menu) != QuickEntry.OK || entry.item(0) != Integer.parseInt(answer[0]) - 1
+                    || entry.addon(0) != Integer.parseInt(answer[1]) - 1 || entry.quantity(0) != Integer.parseInt(answer[2])) {
+                throw new AssertionError("Mismatch for " + line);
+            }
+        }
+
+        int ops = Integer.getInteger("bench.ops", 1_000_000);
+        BenchSupport.run("QuickEntry.parse valid", ops, i -> {
+            int status = entry.parse(LINES[(int) (i % LINES.length)], menu);
+            return status + entry.quantity(0);
+        });
+        BenchSupport.run("QuickEntry.parse invalid", ops,
+                i -> entry.parse(BAD_LINES[(int) (i % BAD_LINES.length)], menu));
+        BenchSupport.run("old: 3 x parseInt valid", ops, i -> oldParse(ANSWERS[(int) (i % ANSWERS.length)]));
+        BenchSupport.run("old: 3 x parseInt invalid (exception)", ops / 10,
+                i -> oldParse(BAD_ANSWERS[(int) (i % BAD_ANSWERS.length)]));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sum = 0;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ops; i++) {
+            sum += entry.parse(LINES[i % LINES.length], menu) + entry.parse(BAD_LINES[i % BAD_LINES.length], menu);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        BenchSupport.sink += sum;
+        System.out.printf("%-40s %10.3f bytes/op%n", "QuickEntry.parse allocation", (double) allocated / (2.0 * ops));
+    }
+
+    // What addItemFlow used to do with the three answers.
+    private static long oldParse(String[] answers) {
+        try {
+            int item = Integer.parseInt(answers[0]) - 1;
+            int addon = Integer.parseInt(answers[1]) - 1;
+            int qty = Integer.parseInt(answers[2]);
+            return item + addon + qty;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.*;
+import java.time.LocalDateTime;
+
+/**
+ * RunningTotalsBenchmark
+ *
+ * Cost of the running totals behind the X/Z reports: per-record update (journal writer thread),
+ * snapshot write, X-report, and startup restore with a fresh snapshot vs no snapshot (full
+ * rebuild from the log, the one-time cost after upgrading).
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out RunningTotalsBenchmark [records]
+ */
+public class RunningTotalsBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        MenuCatalog menu = MenuCatalog.defaults(1);
+        File snapshot = File.createTempFile("wansilog-bench", ".totals");
+        snapshot.deleteOnExit();
+
+        // Per-record update, same record shapes the engine produces.
+        TransactionRecord[] sample = new TransactionRecord[64];
+        for (int i = 0; i < sample.length; i++) {
+            OrderLines order = new OrderLines(4);
+            for (int l = 0; l <= i % 4; l++) {
+                int item = (i + l) % menu.itemCount();
+                int addon = (i * 3 + l) % menu.addonCount();
+                order.add(item, addon, 1 + l, menu.itemPrice(item) + menu.addonPrice(addon));
+            }
+            sample[i] = TransactionRecord.of(i + 1, LocalDateTime.now(), i % 2 == 0 ? "karl" : "cashier",
+                    order, new MenuCatalog[] {menu}, 1);
+        }
+        RunningTotals totals = new RunningTotals(snapshot, "bench.txt", Integer.MAX_VALUE);
+        BenchSupport.run("written() per record", 1_000_000, i -> {
+            totals.written(sample[(int) (i & 63)]);
+            return i;
+        });
+        BenchSupport.run("xReport()", 2_000, i -> totals.xReport().length());
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 50; i++) totals.checkpoint();
+        System.out.printf("%-40s %10.1f us/op%n", "checkpoint() (write + fsync + rename)", (System.nanoTime() - t0) / 1e3 / 50);
+
+        // Startup restore over a synthetic log.
+        File log = File.createTempFile("wansilog-bench", ".txt");
+        File index = new File(log.getPath() + ".idx");
+        log.deleteOnExit();
+        index.deleteOnExit();
+        SyntheticLog.write(log, records);
+        System.out.printf("Synthetic log: %,d records, %.1f MB%n", records, log.length() / 1e6);
+        try (TransactionIndex idx = TransactionIndex.open(log, index, new TextJournalFormat())) {
+            for (int round = 0; round < 3; round++) {
+                snapshot.delete();
+                long start = System.nanoTime();
+                RunningTotals cold = new RunningTotals(snapshot, log.getName(), 100);
+                cold.restore(log, idx, new TextJournalFormat(), null);
+                long rebuilt = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                RunningTotals warm = new RunningTotals(snapshot, log.getName(), 100);
+                warm.restore(log, idx, new TextJournalFormat(), null);
+                long restored = System.nanoTime() - start;
+                System.out.printf("restore: no snapshot %8.1f ms   snapshot %8.3f ms%n", rebuilt / 1e6, restored / 1e6);
+                BenchSupport.sink += cold.transactions() + warm.transactions();
+            }
+        }
+        System.out.println(BenchSupport.sink);
+    }
+}
@@ -0,0 +1,53 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * SyntheticLog
+ *
+ * Writes a fake transactions.txt in the exact format RegisterEngine logs, para sa mga benchmark.
+ * Fixed seed so every run gets the same file.
+ */
+final class SyntheticLog {
+
+    private static final String[] ITEMS = {"Tapsilog", "Tosilog", "Spamsilog", "Hungariansilog"};
+    private static final long[] ITEM_PRICES = {8000, 8000, 8000, 9500};
+    private static final String[] ADDONS = {"Rice", "Half Rice", "Java Rice", "None"};
+    private static final long[] ADDON_PRICES = {1000, 700, 1200, 0};
+    private static final String[] CASHIERS = {"karl", "cashier", "maria", "jun"};
+
+    private SyntheticLog() {
+    }
+
+    static void write(File file, int records) throws IOException {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(512);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            for (int id = 1; id <= records; id++) {
+                sb.setLength(0);
+                int day = 1 + (id / 2000) % 28;
+                int hour = 6 + (id / 100) % 16;
+                sb.append("Transaction ID: ").append(id).append('\n');
+                sb.append("Date & Time: 2025-06-").append(day < 10 ? "0" : "").append(day).append(' ')
+                        .append(hour < 10 ? "0" : "").append(hour).append(":15:00\n");
+                sb.append("Cashier: ").append(CASHIERS[id % CASHIERS.length]).append('\n');
+                sb.append("Items Purchased:\n");
+                long total = 0;
+                int lines = 1 + random.nextInt(4);
+                for (int l = 0; l < lines; l++) {
+                    int item = random.nextInt(ITEMS.length);
+                    int addon = random.nextInt(ADDONS.length);
+                    int qty = 1 + random.nextInt(4);
+                    long lineTotal = (ITEM_PRICES[item] + ADDON_PRICES[addon]) * qty;
+                    total += lineTotal;
+                    sb.append("  - ").append(ITEMS[item]).append(" x").append(qty)
+                            .append(" (").append(ADDONS[addon]).append(") - $");
+                    Money.append(sb, lineTotal).append('\n');
+                }
+                Money.append(sb.append("Total Amount: $"), total).append('\n');
+                sb.append("=============================================\n");
+                out.append(sb);
+            }
+        }
+    }
+}
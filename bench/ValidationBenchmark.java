@@ -0,0 +1,42 @@
+import java.util.regex.Pattern;
+
+/**
+ * ValidationBenchmark
+ *
+ * Signup validation under bulk import: the old per-call Pattern.compile, the precompiled static
+ * patterns, and the single-pass scanners in Validators. Also cross-checks na pareho yung results.
+ *
+ * Run: javac -d out *.java bench/*.java && java -cp out ValidationBenchmark
+ */
+public class ValidationBenchmark {
+
+    private static final String[] USERNAMES = {"karl", "cashier01", "ana_marie", "Juan123", "averyveryverylongname", "x9y8z7"};
+    private static final String[] PASSWORDS = {"Lonely123", "password", "Cashier123", "SHORT1", "NoDigitsHere", "Ab1\uD83D\uDE00xxxxxxx"};
+
+    public static void main(String[] args) {
+        for (String u : USERNAMES) {
+            if (Validators.isValidUsername(u) != Validators.matchesUsernamePattern(u)) {
+                throw new AssertionError("Username mismatch for " + u);
+            }
+        }
+        for (String p : PASSWORDS) {
+            if (Validators.isValidPassword(p) != Validators.matchesPasswordPattern(p)) {
+                throw new AssertionError("Password mismatch for " + p);
+            }
+        }
+
+        int ops = Integer.getInteger("bench.ops", 500_000);
+        BenchSupport.run("password: Pattern.compile per call", ops, i -> {
+            Pattern pattern = Pattern.compile("^(?=.*[A-Z])(?=.*\\d).{8,20}$");
+            return pattern.matcher(PASSWORDS[(int) (i % PASSWORDS.length)]).matches() ? 1 : 0;
+        });
+        BenchSupport.run("password: precompiled pattern", ops,
+                i -> Validators.matchesPasswordPattern(PASSWORDS[(int) (i % PASSWORDS.length)]) ? 1 : 0);
+        BenchSupport.run("password: single-pass scanner", ops,
+                i -> Validators.isValidPassword(PASSWORDS[(int) (i % PASSWORDS.length)]) ? 1 : 0);
+        BenchSupport.run("username: precompiled pattern", ops,
+                i -> Validators.matchesUsernamePattern(USERNAMES[(int) (i % USERNAMES.length)]) ? 1 : 0);
+        BenchSupport.run("username: single-pass scanner", ops,
+                i -> Validators.isValidUsername(USERNAMES[(int) (i % USERNAMES.length)]) ? 1 : 0);
+    }
+}
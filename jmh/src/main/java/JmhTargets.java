@@ -0,0 +1,183 @@
+import java.io.*;
+import java.util.Random;
+import wansilog.jmh.Register;
+
+/**
+ * JmhTargets
+ *
+ * Default-package side of wansilog.jmh.Register: thin pass-throughs to the real register classes
+ * (OrderLines, Money, Validators, UserStore, JournalFormat, TransactionIndex), para yung code na
+ * sinusukat ay yung mismong code ng register.
+ */
+public final class JmhTargets implements Register {
+
+    private static final MenuCatalog MENU = MenuCatalog.defaults(1);
+    private static final String[] CASHIERS = {"karl", "cashier", "maria", "jun"};
+    private static final long BASE_EPOCH = 1_748_736_000L; // 2025-06-01 00:00 (local wall clock)
+
+    // --- ORDER LINES ---
+    private static final class Order implements Register.Order {
+        private final OrderLines lines;
+
+        Order(int capacity) {
+            lines = new OrderLines(capacity);
+        }
+
+        @Override
+        public int add(int item, int addon, int qty) {
+            return lines.add(item, addon, qty, MENU.itemPrice(item) + MENU.addonPrice(addon));
+        }
+
+        @Override
+        public void setQuantity(int line, int qty) {
+            lines.setQuantity(line, qty);
+        }
+
+        @Override
+        public void remove(int line) {
+            lines.remove(line);
+        }
+
+        @Override
+        public long total() {
+            return lines.total();
+        }
+
+        @Override
+        public int size() {
+            return lines.size();
+        }
+
+        @Override
+        public void clear() {
+            lines.clear();
+        }
+    }
+
+    @Override
+    public Register.Order newOrder(int capacity) {
+        return new Order(capacity);
+    }
+
+    @Override
+    public int menuItems() {
+        return MENU.itemCount();
+    }
+
+    @Override
+    public int menuAddons() {
+        return MENU.addonCount();
+    }
+
+    // --- MONEY ---
+    @Override
+    public String formatMoney(long centavos) {
+        return Money.format(centavos);
+    }
+
+    @Override
+    public StringBuilder appendMoney(StringBuilder out, long centavos) {
+        return Money.append(out, centavos);
+    }
+
+    @Override
+    public long parseMoney(CharSequence text) {
+        return Money.parse(text);
+    }
+
+    // --- LOGIN ---
+    @Override
+    public boolean isValidPassword(String password) {
+        return Validators.isValidPassword(password);
+    }
+
+    @Override
+    public boolean matchesPasswordPattern(String password) {
+        return Validators.matchesPasswordPattern(password);
+    }
+
+    @Override
+    public boolean isValidUsername(String username) {
+        return Validators.isValidUsername(username);
+    }
+
+    @Override
+    public boolean matchesUsernamePattern(String username) {
+        return Validators.matchesUsernamePattern(username);
+    }
+
+    @Override
+    public Users users(File file, int iterations, String username, String password) throws IOException {
+        file.delete();
+        UserStore store = new UserStore(file, iterations);
+        store.add(username, password);
+        return store::verify;
+    }
+
+    // --- JOURNAL ---
+    @Override
+    public Encoder encoder(String format, int lines) {
+        JournalFormat journal = JournalFormat.named(format);
+        ByteSink out = new ByteSink(1024);
+        int[] items = new int[lines];
+        int[] addons = new int[lines];
+        int[] quantities = new int[lines];
+        long[] lineTotals = new long[lines];
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            items[i] = i % MENU.itemCount();
+            addons[i] = (i + 1) % MENU.addonCount();
+            quantities[i] = 1 + i % 3;
+            lineTotals[i] = (MENU.itemPrice(items[i]) + MENU.addonPrice(addons[i])) * quantities[i];
+            total += lineTotals[i];
+        }
+        long sum = total;
+        return id -> {
+            out.reset();
+            journal.encode(new TransactionRecord(id, BASE_EPOCH + id, "karl", MENU.itemNames(), MENU.addonNames(),
+                    lines, items, addons, quantities, lineTotals, sum), out);
+            return out.size();
+        };
+    }
+
+    @Override
+    public void writeLog(File file, String format, int records) throws IOException {
+        JournalFormat journal = JournalFormat.named(format);
+        Random random = new Random(42);
+        ByteSink out = new ByteSink(1 << 17);
+        int[] items = new int[4];
+        int[] addons = new int[4];
+        int[] quantities = new int[4];
+        long[] lineTotals = new long[4];
+        try (OutputStream stream = new FileOutputStream(file)) {
+            byte[] header = journal.fileHeader();
+            stream.write(header, 0, header.length);
+            for (int id = 1; id <= records; id++) {
+                int lines = 1 + random.nextInt(4);
+                long total = 0;
+                for (int l = 0; l < lines; l++) {
+                    items[l] = random.nextInt(MENU.itemCount());
+                    addons[l] = random.nextInt(MENU.addonCount());
+                    quantities[l] = 1 + random.nextInt(4);
+                    lineTotals[l] = (MENU.itemPrice(items[l]) + MENU.addonPrice(addons[l])) * quantities[l];
+                    total += lineTotals[l];
+                }
+                long time = BASE_EPOCH + (id / 2000) % 28 * 86_400L + (6 + (id / 100) % 16) * 3_600L + 900;
+                journal.encode(new TransactionRecord(id, time, CASHIERS[id % CASHIERS.length],
+                        MENU.itemNames(), MENU.addonNames(), lines, items, addons, quantities, lineTotals, total), out);
+                if (out.size() > (1 << 16)) {
+                    stream.write(out.array(), 0, out.size());
+                    out.reset();
+                }
+            }
+            stream.write(out.array(), 0, out.size());
+        }
+    }
+
+    @Override
+    public int loadTransactionCounter(File log, File index, String format) throws IOException {
+        try (TransactionIndex transactionIndex = TransactionIndex.open(log, index, JournalFormat.named(format))) {
+            return new TransactionIdAllocator(transactionIndex.lastId() + 1).next();
+        }
+    }
+}
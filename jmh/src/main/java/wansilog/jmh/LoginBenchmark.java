@@ -0,0 +1,127 @@
+package wansilog.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * LoginBenchmark
+ *
+ * Password and username rule checks (registration), single-pass scanner vs the precompiled regex
+ * (the *Regex variants), and the credential check at login: PBKDF2 at the stored work factor, for a
+ * right password, a wrong one, and an unknown user (hashes against a dummy entry so it takes just as
+ * long).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"65536"})
+    int iterations;
+
+    private Register register;
+    private Register.Users users;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        register = Register.load();
+        file = File.createTempFile("jmh-users", ".dat");
+        users = register.users(file, iterations, "karl", "Tapsilog2025");
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean validPassword() {
+        return register.isValidPassword("Tapsilog2025");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean invalidPassword() {
+        return register.isValidPassword("tapsilogforever");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean validPasswordRegex() {
+        return register.matchesPasswordPattern("Tapsilog2025");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean invalidPasswordRegex() {
+        return register.matchesPasswordPattern("tapsilogforever");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean validUsername() {
+        return register.isValidUsername("cashier01");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean validUsernameRegex() {
+        return register.matchesUsernamePattern("cashier01");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean invalidUsername() {
+        return register.isValidUsername("ana_marie");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean invalidUsernameRegex() {
+        return register.matchesUsernamePattern("ana_marie");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public boolean loginOk() {
+        return users.verify("karl", "Tapsilog2025");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public boolean loginWrongPassword() {
+        return users.verify("karl", "Tosilog2025");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public boolean loginUnknownUser() {
+        return users.verify("maria", "Tapsilog2025");
+    }
+}
@@ -0,0 +1,48 @@
+package wansilog.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MoneyBenchmark
+ *
+ * Money formatting (new String vs appending into a reused builder, like the receipt/journal code)
+ * and parsing a typed amount.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final long[] AMOUNTS = {9000, 54800, 1200, 12_345_678L, 5, 10_000_000L, 27050, 9999};
+    private static final String[] TYPED = {"90", "548.00", "12.5", "123456.78", "0.05", "100000", "270.50", "99.99"};
+
+    private final StringBuilder out = new StringBuilder(32);
+    private int next;
+
+    private Register register;
+
+    @Setup
+    public void setUp() {
+        register = Register.load();
+    }
+
+    @Benchmark
+    public String format() {
+        return register.formatMoney(AMOUNTS[next++ & 7]);
+    }
+
+    @Benchmark
+    public int append() {
+        out.setLength(0);
+        return register.appendMoney(out, AMOUNTS[next++ & 7]).length();
+    }
+
+    @Benchmark
+    public long parse() {
+        return register.parseMoney(TYPED[next++ & 7]);
+    }
+}
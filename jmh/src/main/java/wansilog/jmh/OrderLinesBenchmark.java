@@ -0,0 +1,68 @@
+package wansilog.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * OrderLinesBenchmark
+ *
+ * Order line add / quantity update / remove and the order total, on orders of a few lines (normal
+ * counter order) and of many (barkada / catering order).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderLinesBenchmark {
+
+    @Param({"5", "50"})
+    int lines;
+
+    private Register.Order order;
+    private int items;
+    private int addons;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Register register = Register.load();
+        items = register.menuItems();
+        addons = register.menuAddons();
+        order = register.newOrder(8);
+        for (int i = 0; i < lines; i++) order.add(i % items, i % addons, 1 + i % 3);
+        next = 0;
+    }
+
+    // Append one line; the order is cleared back to its starting size every 64 adds.
+    @Benchmark
+    public int add() {
+        if (order.size() >= lines + 64) {
+            order.clear();
+            for (int i = 0; i < lines; i++) order.add(i % items, i % addons, 1);
+        }
+        int i = next++;
+        return order.add(i & 3, (i >> 2) & 3, 1 + (i & 1));
+    }
+
+    @Benchmark
+    public long update() {
+        int i = next++;
+        order.setQuantity(i % lines, 1 + (i & 3));
+        return order.total();
+    }
+
+    // Remove a line from the middle, then add one back so the order keeps its size.
+    @Benchmark
+    public int removeAndAdd() {
+        int i = next++;
+        order.remove(lines / 2);
+        return order.add(i & 3, (i >> 2) & 3, 1);
+    }
+
+    @Benchmark
+    public long total() {
+        return order.total();
+    }
+}
@@ -0,0 +1,39 @@
+package wansilog.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * RecordEncodeBenchmark
+ *
+ * Serializing one transaction record for the journal (what the journal writer thread does per
+ * checkout), text vs binary format, for a small and a big order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordEncodeBenchmark {
+
+    @Param({"text", "binary"})
+    String format;
+
+    @Param({"2", "20"})
+    int lines;
+
+    private Register.Encoder encoder;
+    private int id;
+
+    @Setup
+    public void setUp() {
+        encoder = Register.load().encoder(format, lines);
+        id = 1;
+    }
+
+    @Benchmark
+    public int encode() {
+        return encoder.encode(id++);
+    }
+}
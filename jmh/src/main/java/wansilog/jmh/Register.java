@@ -0,0 +1,86 @@
+package wansilog.jmh;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Register
+ *
+ * Everything the benchmarks call in the register code. JMH only accepts benchmarks in a named
+ * package, and a named package cannot see the register classes (default package), so the
+ * default-package JmhTargets implements this and is loaded by name once per trial.
+ *
+ * // Each benchmark call site only ever sees the one implementation, so the JIT inlines straight
+ * // through the interface; the indirection does not show up in the numbers.
+ */
+public interface Register {
+
+    static Register load() {
+        try {
+            return (Register) Class.forName("JmhTargets").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("JmhTargets is not on the classpath", e);
+        }
+    }
+
+    // --- ORDER LINES ---
+    interface Order {
+        int add(int item, int addon, int qty);
+
+        void setQuantity(int line, int qty);
+
+        void remove(int line);
+
+        long total();
+
+        int size();
+
+        void clear();
+    }
+
+    // Empty order; item/addon are indices on the built-in menu.
+    Order newOrder(int capacity);
+
+    int menuItems();
+
+    int menuAddons();
+
+    // --- MONEY ---
+    String formatMoney(long centavos);
+
+    StringBuilder appendMoney(StringBuilder out, long centavos);
+
+    long parseMoney(CharSequence text);
+
+    // --- LOGIN ---
+    boolean isValidPassword(String password);
+
+    boolean matchesPasswordPattern(String password);
+
+    boolean isValidUsername(String username);
+
+    boolean matchesUsernamePattern(String username);
+
+    interface Users {
+        boolean verify(String username, String password);
+    }
+
+    // Fresh users file with one account at the given PBKDF2 work factor.
+    Users users(File file, int iterations, String username, String password) throws IOException;
+
+    // --- JOURNAL ---
+    interface Encoder {
+        // Encode one record (with the given ID) into a reused buffer; returns the buffer size.
+        int encode(int id);
+    }
+
+    // "text" or "binary"; sample record with the given number of lines.
+    Encoder encoder(String format, int lines);
+
+    // Synthetic journal in the given format (same mix as bench/SyntheticLog).
+    void writeLog(File file, String format, int records) throws IOException;
+
+    // What RegisterEngine.loadTransactionCounter does at startup: open (or build) the index and
+    // return the next transaction ID.
+    int loadTransactionCounter(File log, File index, String format) throws IOException;
+}
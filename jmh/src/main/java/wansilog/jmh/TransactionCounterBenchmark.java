@@ -0,0 +1,73 @@
+package wansilog.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * TransactionCounterBenchmark
+ *
+ * Startup cost of loadTransactionCounter (open the journal index, next ID = last ID + 1) over
+ * synthetic journals of 10K, 1M and 10M transactions:
+ *   cold  no index yet, so the whole log is scanned (first start after upgrading / lost .idx)
+ *   warm  index already there, only the tail past it is checked (every normal start)
+ *
+ * Logs are written once into -Dwansilog.jmhDir (default: java.io.tmpdir/wansilog-jmh) and reused.
+ * The 10M text log is about 2.5 GB; narrow it with -p records=10000,1000000 when that is too much.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionCounterBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int records;
+
+    @Param({"text", "binary"})
+    String format;
+
+    @Param({"cold", "warm"})
+    String index;
+
+    private Register register;
+    private File log;
+    private File indexFile;
+
+    @Setup(Level.Trial)
+    public void createLog() throws IOException {
+        register = Register.load();
+        File dir = new File(System.getProperty("wansilog.jmhDir",
+                new File(System.getProperty("java.io.tmpdir"), "wansilog-jmh").getPath()));
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        log = new File(dir, "transactions-" + records + "." + format);
+        File done = new File(dir, log.getName() + ".done");
+        if (!done.exists()) {
+            register.writeLog(log, format, records);
+            if (!done.createNewFile()) throw new IOException("Cannot create " + done);
+        }
+        indexFile = new File(dir, log.getName() + ".idx");
+        indexFile.delete();
+        if (index.equals("warm")) register.loadTransactionCounter(log, indexFile, format);
+    }
+
+    @Setup(Level.Invocation)
+    public void dropIndex() {
+        if (index.equals("cold")) indexFile.delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        indexFile.delete();
+    }
+
+    @Benchmark
+    public int loadTransactionCounter() throws IOException {
+        int next = register.loadTransactionCounter(log, indexFile, format);
+        if (next != records + 1) throw new IllegalStateException("Expected next ID " + (records + 1) + ", got " + next);
+        return next;
+    }
+}
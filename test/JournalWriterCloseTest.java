@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JournalWriterCloseTest
+ *
+ * close() habang may mga terminal pang nagsu-submit: every submit that returns normally must be
+ * written (its afterWrite runs and it is in the index); the rest get IllegalStateException.
+ *
+ * // Small queue so submitters are often blocked in put() when close() comes in.
+ */
+class JournalWriterCloseTest {
+
+    private static final int TERMINALS = 16;
+
+    @TempDir
+    File dir;
+
+    @RepeatedTest(5)
+    @Timeout(30) // a record stuck behind SHUTDOWN leaves its terminal blocked forever
+    void closeNeverDropsAnAcceptedRecord() throws IOException, InterruptedException {
+        File log = new File(dir, "transactions.txt");
+        TransactionIndex index = TransactionIndex.open(log, new File(dir, "transactions.idx"));
+        JournalWriter writer = new JournalWriter(log, new File(dir, "transactions_backup.txt"), index,
+                new TextJournalFormat(), JournalWriter.Durability.OS_BUFFERED, 0, 4);
+        AtomicInteger nextId = new AtomicInteger(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] terminals = new Thread[TERMINALS];
+        for (int t = 0; t < TERMINALS; t++) {
+            terminals[t] = Thread.ofPlatform().daemon(true).start(() -> {
+                await(start);
+                while (true) {
+                    int id = nextId.getAndIncrement();
+                    try {
+                        writer.submit(record(id), written::incrementAndGet);
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                    accepted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        Thread.sleep(20);
+        writer.close();
+        for (Thread terminal : terminals) terminal.join();
+
+        assertTrue(accepted.get() > 0);
+        assertEquals(accepted.get(), written.get(), "accepted records never written");
+        assertEquals(accepted.get(), index.recordCount());
+        index.close();
+    }
+
+    private static TransactionRecord record(int id) {
+        return new TransactionRecord(id, 1_750_000_000L, "cashier", new String[] {"Tapsilog"}, new String[] {"None"},
+                1, new int[] {0}, new int[] {0}, new int[] {1}, new long[] {15000}, 15000);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JournalWriterRotationTest
+ *
+ * Log rotation ng JournalWriter: a rotation that can't seal must leave the open log live (every
+ * later record still written and indexed), and a working one must not lose anything between the
+ * segments and the new log.
+ *
+ * // One record per batch (fsync mode, each submit waits for its write) so rotation is checked
+ * // before every record; 1 KB segments so it triggers after a few records.
+ */
+class JournalWriterRotationTest {
+
+    private static final int RECORDS = 40;
+
+    @TempDir
+    File dir;
+
+    @Test
+    void failedSealKeepsWritingToTheOpenLog() throws IOException, InterruptedException {
+        File journal = new File(dir, "journal");
+        Files.writeString(journal.toPath(), "not a directory");
+        File log = new File(dir, "transactions.txt");
+        JournalArchive archive = new JournalArchive(journal, log, new File(dir, "transactions_backup.txt"),
+                new TextJournalFormat(), false, 1024, false);
+
+        writeRecords(log, archive);
+
+        try (TransactionIndex index = TransactionIndex.open(log, new File(dir, "transactions.idx"))) {
+            assertEquals(RECORDS, index.recordCount());
+            assertEquals(RECORDS, index.lastId());
+        }
+        assertEquals(RECORDS, countRecords(log));
+    }
+
+    @Test
+    void rotationLosesNothing() throws IOException, InterruptedException {
+        File log = new File(dir, "transactions.txt");
+        JournalArchive archive = new JournalArchive(new File(dir, "journal"), log, new File(dir, "transactions_backup.txt"),
+                new TextJournalFormat(), false, 1024, false);
+
+        writeRecords(log, archive);
+        archive.close();
+
+        JournalArchive reread = new JournalArchive(new File(dir, "journal"), log, new File(dir, "transactions_backup.txt"),
+                new TextJournalFormat(), false, 1024, false);
+        reread.load();
+        assertFalse(reread.segments().isEmpty(), "log never rotated");
+        long archived = 0;
+        for (JournalArchive.Segment segment : reread.segments()) archived += segment.records;
+        try (TransactionIndex index = TransactionIndex.open(log, new File(dir, "transactions.idx"))) {
+            assertEquals(RECORDS, archived + index.recordCount());
+            assertEquals(RECORDS, index.lastId());
+        }
+    }
+
+    private void writeRecords(File log, JournalArchive archive) throws IOException, InterruptedException {
+        TransactionIndex index = TransactionIndex.open(log, new File(dir, "transactions.idx"));
+        JournalWriter writer = new JournalWriter(log, new File(dir, "transactions_backup.txt"), index,
+                new TextJournalFormat(), JournalWriter.Durability.FSYNC_EACH, 0, 16, null, archive);
+        long time = 1_750_000_000L;
+        for (int id = 1; id <= RECORDS; id++) {
+            CountDownLatch written = new CountDownLatch(1);
+            writer.submit(record(id, time + id), written::countDown);
+            assertTrue(written.await(10, TimeUnit.SECONDS), "record " + id + " never written");
+        }
+        writer.close();
+        index.close();
+    }
+
+    private static TransactionRecord record(int id, long time) {
+        return new TransactionRecord(id, time, "cashier", new String[] {"Tapsilog"}, new String[] {"None"},
+                1, new int[] {0}, new int[] {0}, new int[] {1}, new long[] {15000}, 15000);
+    }
+
+    private static long countRecords(File log) throws IOException {
+        long count = 0;
+        try (JournalFormat.RecordReader reader = new TextJournalFormat().reader(log, 0, Long.MAX_VALUE)) {
+            while (reader.next() != null) count++;
+        }
+        return count;
+    }
+}
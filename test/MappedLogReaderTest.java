@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * MappedLogReaderTest
+ *
+ * Same log, same report: MappedLogReader and the streaming SalesReport must agree, including on
+ * records whose amounts are malformed (misplaced commas, too large), which both count as bad.
+ */
+class MappedLogReaderTest {
+
+    private static final String SEPARATOR = "=============================================";
+
+    @TempDir
+    File dir;
+
+    @Test
+    void oddAmountsAreReportedTheSameWay() throws IOException {
+        StringBuilder log = new StringBuilder();
+        record(log, 1, "90.00", "90.00");
+        record(log, 2, "1,2,3", "90.00");
+        record(log, 3, "99999999999999999999", "90.00");
+        record(log, 4, "1,090.00", "1,090.00");
+        record(log, 5, "90.00", "9,0.00");
+        record(log, 6, "92233720368547758.07", "90.00");
+        File file = new File(dir, "transactions.txt");
+        Files.writeString(file.toPath(), log, StandardCharsets.UTF_8);
+
+        SalesTotals streamed = SalesTotals.forMenu(new RegisterEngine());
+        new SalesReport(streamed, 0, Integer.MAX_VALUE).read(file);
+        SalesTotals mapped = SalesTotals.forMenu(new RegisterEngine());
+        MappedLogReader.read(file, mapped, 0, Integer.MAX_VALUE);
+
+        assertEquals(report(streamed), report(mapped));
+        assertEquals(streamed.malformed(), mapped.malformed());
+    }
+
+    private static void record(StringBuilder log, int id, String total, String lineTotal) {
+        log.append("Transaction ID: ").append(id).append('\n')
+                .append("Date & Time: 2025-06-06 13:45:13\n")
+                .append("Cashier: karl\n")
+                .append("Items Purchased:\n")
+                .append("  - Tapsilog x1 (Rice) - $").append(lineTotal).append('\n')
+                .append("Total Amount: $").append(total).append('\n')
+                .append(SEPARATOR).append('\n');
+    }
+
+    private static String report(SalesTotals totals) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SalesReport.print(totals, new PrintStream(out, true, StandardCharsets.UTF_8));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
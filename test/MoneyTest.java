@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * MoneyTest
+ *
+ * Money.parse: tinatanggap na formats, commas as thousands separators only, and every bad
+ * amount (too large included) as NumberFormatException. The byte variant (MappedLogReader) must
+ * accept and reject exactly the same amounts.
+ */
+class MoneyTest {
+
+    @Test
+    void parsesPlainAndGroupedAmounts() {
+        assertEquals(15000, Money.parse("150"));
+        assertEquals(15050, Money.parse("150.5"));
+        assertEquals(15050, Money.parse("$150.50"));
+        assertEquals(150000, Money.parse("1,500"));
+        assertEquals(123456789, Money.parse("1,234,567.89"));
+        assertEquals(-100050, Money.parse("-1,000.50"));
+        assertEquals(50, Money.parse(".5"));
+    }
+
+    @Test
+    void rejectsMisplacedCommas() {
+        for (String bad : new String[] {"1,,2,", ",100", "100,", "1,23", "1,2345", "1234,567", "12,34,567", "1,000,00"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(bad), bad);
+        }
+    }
+
+    @Test
+    void tooLargeIsANumberFormatException() {
+        long maxPesos = (Long.MAX_VALUE - 99) / 100;
+        assertEquals(maxPesos * 100 + 99, Money.parse(maxPesos + ".99"));
+        assertThrows(NumberFormatException.class, () -> Money.parse((maxPesos + 1) + ""));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    void byteVariantAgreesWithParse() {
+        long maxPesos = (Long.MAX_VALUE - 99) / 100;
+        String[] amounts = {"150", "150.5", "$150.50", " 1,500 ", "1,234,567.89", ".5", "0", "0.00", "5.",
+                "", " ", "$", ".", "-5", "1,,2,", ",100", "100,", "1,23", "1,2,3", "1,2345", "1234,567",
+                "12,34,567", "1,000,00", "1.234", "1.2.3", "12a", "$$5", maxPesos + ".99", (maxPesos + 1) + "",
+                "99999999999999999999", "9,223,372,036,854,775,807"};
+        for (String amount : amounts) {
+            long expected;
+            try {
+                expected = Money.parse(amount);
+            } catch (NumberFormatException e) {
+                expected = -1;
+            }
+            if (expected < 0) expected = -1; // no negative amounts in the log
+            byte[] bytes = ("Total Amount: $" + amount + "|").getBytes(StandardCharsets.US_ASCII);
+            int start = "Total Amount: $".length();
+            assertEquals(expected, Money.parse(ByteBuffer.wrap(bytes), start, bytes.length - 1), amount);
+        }
+    }
+}
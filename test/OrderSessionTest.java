@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * OrderSessionTest
+ *
+ * Order line rules ng OrderSession: merging repeated adds, and the per-line quantity cap.
+ *
+ * // The engine is never started (no journal); only its menu (built-in, no menu.txt) is used.
+ */
+class OrderSessionTest {
+
+    private final OrderSession session = new OrderSession(new RegisterEngine(), "test");
+
+    @Test
+    void repeatedAddMergesIntoOneLine() {
+        assertEquals(OrderSession.OK, session.addItem(1, 2, 3));
+        assertEquals(OrderSession.OK, session.addItem(1, 2, 4));
+        assertEquals(1, session.lines().size());
+        assertEquals(7, session.lines().quantity(0));
+    }
+
+    @Test
+    void mergedAddsStopAtTheCap() {
+        assertEquals(OrderSession.OK, session.addItem(0, 0, OrderSession.MAX_QUANTITY - 1));
+        assertEquals(OrderSession.OK, session.addItem(0, 0, 1));
+        assertEquals(OrderSession.INVALID_QUANTITY, session.addItem(0, 0, 1));
+        assertEquals(OrderSession.MAX_QUANTITY, session.lines().quantity(0));
+    }
+
+    @Test
+    void singleAddAndUpdateUseTheSameCap() {
+        assertEquals(OrderSession.INVALID_QUANTITY, session.addItem(0, 0, OrderSession.MAX_QUANTITY + 1));
+        assertEquals(OrderSession.OK, session.addItem(0, 0, 1));
+        assertEquals(OrderSession.INVALID_QUANTITY, session.updateQuantity(0, OrderSession.MAX_QUANTITY + 1));
+        assertEquals(OrderSession.INVALID_QUANTITY, session.updateQuantity(0, 0));
+        assertEquals(OrderSession.OK, session.updateQuantity(0, OrderSession.MAX_QUANTITY));
+        assertEquals(OrderSession.MAX_QUANTITY, session.lines().quantity(0));
+    }
+
+    @Test
+    void fastEntryLineIsAddedWholeOrNotAtAll() {
+        MenuCatalog menu = session.engine().menu();
+        QuickEntry entry = new QuickEntry();
+        assertEquals(OrderSession.OK, session.addItem(menu, 0, 0, OrderSession.MAX_QUANTITY - 5));
+        // The last item fits on its own, but not together with the same item before it.
+        assertEquals(QuickEntry.OK, entry.parse("2 1 x3, 1 1 x3, 1 1 x3", menu));
+        assertEquals(2, session.addAll(menu, entry));
+        assertEquals(1, session.lines().size());
+        assertEquals(OrderSession.MAX_QUANTITY - 5, session.lines().quantity(0));
+
+        assertEquals(QuickEntry.OK, entry.parse("2 1 x3, 1 1 x5", menu));
+        assertEquals(-1, session.addAll(menu, entry));
+        assertEquals(OrderSession.MAX_QUANTITY, session.lines().quantity(0));
+        assertEquals(3, session.lines().quantity(1));
+    }
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * OrderWalTest
+ *
+ * Compaction ng orders.wal sa busy counter (the next order is open before the journal confirms
+ * the last checkout): the file stays small, and recovery still sees every unconfirmed checkout
+ * and the open order.
+ */
+class OrderWalTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void busyCounterKeepsTheWalSmall() throws IOException {
+        File file = new File(dir, "orders.wal");
+        try (OrderWal wal = new OrderWal(file, false)) {
+            wal.cashier("karl");
+            long afterFirst = 0;
+            for (int order = 1; order <= 500; order++) {
+                ringUp(wal);
+                if (order > 1) wal.checkoutWritten(order - 1);
+                wal.checkout(order, 1_750_000_000L + order);
+                if (order == 2) afterFirst = wal.size();
+            }
+            // One pending checkout + one open order, whatever the order count (IDs are varints).
+            assertTrue(wal.size() <= afterFirst + 4, "WAL grew on a busy counter: " + wal.size());
+        }
+    }
+
+    @Test
+    void compactedWalRecoversPendingCheckoutsAndTheOpenOrder() throws IOException {
+        File file = new File(dir, "orders.wal");
+        try (OrderWal wal = new OrderWal(file, false)) {
+            wal.cashier("karl");
+            ringUp(wal);
+            wal.checkout(1, 1_750_000_001L);
+            wal.cashier("ana");
+            ringUp(wal);
+            wal.checkout(2, 1_750_000_002L);
+            ringUp(wal);
+            wal.checkout(3, 1_750_000_003L);
+            ringUp(wal);
+            wal.update(1, 5);
+            wal.remove(0);
+            // 2 written, 1 and 3 still in flight (out of order, e.g. after a failed batch).
+            wal.checkoutWritten(2);
+        }
+
+        try (OrderWal wal = new OrderWal(file, false)) {
+            OrderWal.Recovery recovery = wal.recover();
+            assertEquals(0, recovery.tornBytes);
+            assertEquals(2, recovery.checkouts.size());
+            OrderWal.Checkout first = recovery.checkouts.get(0);
+            assertEquals(1, first.transactionId);
+            assertEquals("karl", first.cashier);
+            assertEquals(2, first.lines.size());
+            OrderWal.Checkout third = recovery.checkouts.get(1);
+            assertEquals(3, third.transactionId);
+            assertEquals(1_750_000_003L, third.localEpochSecond);
+            assertEquals("ana", third.cashier);
+            assertEquals("ana", recovery.cashier);
+            assertEquals(1, recovery.openLines.size());
+            assertEquals("LNG", recovery.openLines.get(0).itemCode);
+            assertEquals(5, recovery.openLines.get(0).quantity);
+
+            // Recovered but not yet confirmed checkouts survive the next compaction too.
+            ringUp(wal);
+            wal.cancel();
+            assertTrue(wal.size() > 0);
+            assertEquals(2, wal.recover().checkouts.size());
+        }
+    }
+
+    private static void ringUp(OrderWal wal) throws IOException {
+        wal.add(9000, 1, "TAP", "R", "Tapsilog", "Rice");
+        wal.add(8500, 2, "LNG", "E", "Longsilog", "Egg");
+    }
+}
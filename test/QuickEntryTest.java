@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * QuickEntryTest
+ *
+ * Tokenizer ng fast entry line: codes and numbers, quantity forms, blank entries, the item limit,
+ * and the status + error span for every kind of mistake.
+ *
+ * // Built-in menu: items TAP TOS SPAM HUN (1-4), addons R HR JR N (1-4).
+ */
+class QuickEntryTest {
+
+    private final MenuCatalog menu = MenuCatalog.defaults(1);
+    private final QuickEntry entry = new QuickEntry();
+
+    @Test
+    void codesInAnyCaseAndMenuNumbers() {
+        assertEquals(QuickEntry.OK, entry.parse("tos jr 4, Spam Hr, 4 1", menu));
+        assertEquals(3, entry.count());
+        assertEntry(0, 1, 2, 4);
+        assertEntry(1, 2, 1, 1);
+        assertEntry(2, 3, 0, 1);
+    }
+
+    @Test
+    void quantityForms() {
+        for (String line : new String[] {"2 3 4", "2 3 x4", "2 3 X4", "2 3 x 4", "2 3 *4", "2 3 * 4", " 2\t3  x4 "}) {
+            assertEquals(QuickEntry.OK, entry.parse(line, menu), line);
+            assertEquals(1, entry.count(), line);
+            assertEntry(0, 1, 2, 4);
+        }
+        assertEquals(QuickEntry.OK, entry.parse("TAP R", menu));
+        assertEntry(0, 0, 0, 1);
+        assertEquals(QuickEntry.OK, entry.parse("1 1 x" + QuickEntry.MAX_QUANTITY, menu));
+        assertEntry(0, 0, 0, QuickEntry.MAX_QUANTITY);
+    }
+
+    @Test
+    void blankEntriesAreSkipped() {
+        assertEquals(QuickEntry.OK, entry.parse(",TAP R,, ,TOS JR 2,", menu));
+        assertEquals(2, entry.count());
+        assertEntry(0, 0, 0, 1);
+        assertEntry(1, 1, 2, 2);
+    }
+
+    @Test
+    void itemLimit() {
+        StringBuilder line = new StringBuilder("TAP R");
+        for (int i = 1; i < QuickEntry.MAX_ITEMS; i++) line.append(", TAP R");
+        assertEquals(QuickEntry.OK, entry.parse(line, menu));
+        assertEquals(QuickEntry.MAX_ITEMS, entry.count());
+
+        line.append(", HUN N");
+        assertError(line.toString(), QuickEntry.TOO_MANY_ITEMS, "HUN");
+    }
+
+    @Test
+    void badQuantities() {
+        assertError("1 1 x1234567890", QuickEntry.BAD_QUANTITY, "x1234567890");
+        assertError("1 1 1234567890", QuickEntry.BAD_QUANTITY, "1234567890");
+        assertError("1 1 x " + (QuickEntry.MAX_QUANTITY + 1), QuickEntry.BAD_QUANTITY, "" + (QuickEntry.MAX_QUANTITY + 1));
+        assertError("1 1 0", QuickEntry.BAD_QUANTITY, "0");
+        assertError("1 1 x", QuickEntry.BAD_QUANTITY, "x");
+        assertError("1 1 x4a", QuickEntry.BAD_QUANTITY, "x4a");
+    }
+
+    @Test
+    void errorSpans() {
+        assertError("   ", QuickEntry.EMPTY, "   ");
+        assertError(",, ,", QuickEntry.EMPTY, ",, ,");
+        assertError("TAP R, FOO R", QuickEntry.UNKNOWN_ITEM, "FOO");
+        assertError("5 1", QuickEntry.UNKNOWN_ITEM, "5");
+        assertError("0 1", QuickEntry.UNKNOWN_ITEM, "0");
+        assertError("TAP ZZ 2", QuickEntry.UNKNOWN_ADDON, "ZZ");
+        assertError("TAP 9", QuickEntry.UNKNOWN_ADDON, "9");
+        assertError("TOS JR, TAP  ", QuickEntry.MISSING_ADDON, "");
+        assertEquals(11, entry.errorStart()); // right after "TAP"
+        assertError("TAP R 2 3", QuickEntry.EXTRA_INPUT, "3");
+        assertError("TAP R x 2 TOS", QuickEntry.EXTRA_INPUT, "TOS");
+    }
+
+    @Test
+    void errorMessageQuotesTheSpan() {
+        String line = "TAP R, TOS XX";
+        assertEquals(QuickEntry.UNKNOWN_ADDON, entry.parse(line, menu));
+        assertEquals("Unknown addon \"XX\". Use the addon number or code.", entry.errorMessage(QuickEntry.UNKNOWN_ADDON, line));
+    }
+
+    private void assertEntry(int i, int item, int addon, int quantity) {
+        assertEquals(item, entry.item(i), "item of entry " + i);
+        assertEquals(addon, entry.addon(i), "addon of entry " + i);
+        assertEquals(quantity, entry.quantity(i), "quantity of entry " + i);
+    }
+
+    private void assertError(String line, int status, String span) {
+        assertEquals(status, entry.parse(line, menu), line);
+        assertEquals(span, line.substring(entry.errorStart(), entry.errorEnd()), line);
+    }
+}
@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RegisterEngineConcurrencyTest
+ *
+ * Maraming terminal (OrderSession) sa iisang engine, sabay-sabay nagche-checkout: every ID handed
+ * out must be unique, gap-free, and in the journal index exactly once after close().
+ *
+ * // Runs in the Gradle test working directory (build/test-work), where the engine creates its
+ * // transactions.* files; they are wiped before each test. No menu.txt there = built-in menu.
+ */
+class RegisterEngineConcurrencyTest {
+
+    private static final int TERMINALS = 32;
+    private static final int ORDERS = 200;
+
+    @BeforeEach
+    void cleanJournal() throws IOException {
+        File[] files = new File(".").listFiles((dir, name) -> name.startsWith("transactions"));
+        if (files != null) {
+            for (File file : files) Files.delete(file.toPath());
+        }
+        Path archive = Path.of("journal");
+        if (Files.isDirectory(archive)) {
+            try (Stream<Path> paths = Files.walk(archive)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void concurrentCheckoutsAreAllJournaledOnce() throws Exception {
+        RegisterEngine engine = new RegisterEngine();
+        engine.start();
+        int[][] ids = checkoutFromTerminals(engine);
+        engine.close();
+
+        int total = TERMINALS * ORDERS;
+        BitSet handedOut = new BitSet(total + 1);
+        for (int[] terminal : ids) {
+            for (int id : terminal) {
+                assertTrue(id >= 1 && id <= total, "ID out of range: " + id);
+                assertFalse(handedOut.get(id), "duplicate ID " + id);
+                handedOut.set(id);
+            }
+        }
+        assertEquals(total, handedOut.cardinality(), "gaps in IDs");
+
+        try (TransactionIndex index = TransactionIndex.open(engine.logFile(), engine.indexFile(),
+                JournalFormat.named(engine.journalFormat().name()))) {
+            assertEquals(total, index.recordCount());
+            assertEquals(total, index.lastId());
+            BitSet journaled = new BitSet(total + 1);
+            for (long r = 0; r < index.recordCount(); r++) {
+                int id = index.idOf(r);
+                assertFalse(journaled.get(id), "journaled twice: " + id);
+                journaled.set(id);
+            }
+            assertEquals(handedOut, journaled);
+        }
+        assertTrue(BatchRunner.verifyIds(engine, concat(ids)));
+    }
+
+    @Test
+    void numberingContinuesAfterRestart() throws Exception {
+        RegisterEngine first = new RegisterEngine();
+        first.start();
+        checkoutFromTerminals(first);
+        first.close();
+
+        RegisterEngine second = new RegisterEngine();
+        second.start();
+        OrderSession session = new OrderSession(second, "restart");
+        assertEquals(OrderSession.OK, session.addItem(0, 0, 1));
+        assertEquals(OrderSession.OK, session.checkout(Money.of(1000, 0)));
+        second.close();
+        assertEquals(TERMINALS * ORDERS + 1, session.lastTransactionId());
+    }
+
+    // TERMINALS virtual threads, ORDERS checkouts each; returns the IDs per terminal.
+    private static int[][] checkoutFromTerminals(RegisterEngine engine) throws InterruptedException {
+        int[][] ids = new int[TERMINALS][ORDERS];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] terminals = new Thread[TERMINALS];
+        for (int t = 0; t < TERMINALS; t++) {
+            int terminal = t;
+            terminals[t] = Thread.ofVirtual().start(() -> {
+                OrderSession session = new OrderSession(engine, "t" + terminal);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int o = 0; o < ORDERS; o++) {
+                    int added = session.addItem(o % 4, terminal % 4, 1 + o % 3);
+                    int paid = session.checkout(Money.of(1000, 0));
+                    if (added != OrderSession.OK || paid != OrderSession.OK) failures.incrementAndGet();
+                    ids[terminal][o] = session.lastTransactionId();
+                }
+            });
+        }
+        start.countDown();
+        for (Thread terminal : terminals) terminal.join();
+        assertEquals(0, failures.get(), "failed add/checkout calls");
+        return ids;
+    }
+
+    private static int[] concat(int[][] ids) {
+        int[] all = new int[TERMINALS * ORDERS];
+        for (int t = 0; t < TERMINALS; t++) System.arraycopy(ids[t], 0, all, t * ORDERS, ORDERS);
+        return all;
+    }
+}
@@ -0,0 +1,143 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * RegisterServerTest
+ *
+ * Line protocol ng RegisterServer over a real socket (port 0): a pipelined burst gets exactly
+ * one answer per request, in order, and checkouts from several connections share one ID sequence.
+ *
+ * // Engine and users.dat in a @TempDir (RegisterEngine(File)); built-in menu, low PBKDF2 count.
+ */
+@Timeout(60)
+class RegisterServerTest {
+
+    @TempDir
+    File dir;
+
+    private RegisterEngine engine;
+    private RegisterServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        engine = new RegisterEngine(dir);
+        engine.start();
+        UserStore users = new UserStore(new File(dir, "users.dat"), 100);
+        users.loadAsync();
+        assertTrue(users.add("cashier", "Cashier123"));
+        server = new RegisterServer(engine, users, 0, 8);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+        engine.close();
+    }
+
+    @Test
+    void pipelinedRequestsAreAnsweredInOrder() throws IOException {
+        MenuCatalog menu = engine.menu();
+        long first = 2 * (menu.itemPrice(0) + menu.addonPrice(0));
+        long total = first + menu.itemPrice(1) + menu.addonPrice(0);
+        long payment = Money.parse("100000");
+        List<String> answers = send(String.join("\n",
+                "ADD 1 1 x2",
+                "LOGIN cashier Cashier123",
+                "add 1 1 x2",
+                "",
+                "ADD 2 1",
+                "ADD 9999 1",
+                "CHECKOUT 1",
+                "CHECKOUT 100000",
+                "CHECKOUT 100000",
+                "FROB",
+                "QUIT",
+                ""), 10);
+
+        assertEquals(List.of(
+                "ERR Please log in first.",
+                "OK cashier",
+                "OK 1 " + money(first),
+                "OK 2 " + money(total),
+                answers.get(4), // bad item: message from QuickEntry, checked below
+                "ERR Insufficient payment. Total is " + money(total) + ".",
+                "OK 1 " + money(payment - total),
+                "ERR No items in order.",
+                "ERR Unknown command. Use LOGIN, ADD, UPDATE, REMOVE, SHOW, CHECKOUT, CANCEL or QUIT.",
+                "OK"), answers);
+        assertTrue(answers.get(4).startsWith("ERR "), answers.get(4));
+    }
+
+    @Test
+    void connectionsShareOneIdSequence() throws Exception {
+        int clients = 4;
+        int orders = 25;
+        StringBuilder burst = new StringBuilder("LOGIN cashier Cashier123\n");
+        for (int o = 0; o < orders; o++) burst.append("ADD 1 1, 2 2 x3\nCHECKOUT 100000\n");
+        burst.append("QUIT\n");
+        List<List<String>> answers = new ArrayList<>();
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            List<String> mine = new ArrayList<>();
+            answers.add(mine);
+            threads[c] = Thread.ofVirtual().start(() -> {
+                try {
+                    mine.addAll(send(burst.toString(), 2 + 2 * orders));
+                } catch (IOException e) {
+                    mine.add("IOException " + e.getMessage());
+                }
+            });
+        }
+        for (Thread thread : threads) thread.join();
+
+        boolean[] seen = new boolean[clients * orders + 1];
+        for (List<String> mine : answers) {
+            assertEquals(2 + 2 * orders, mine.size(), mine.toString());
+            int last = 0;
+            for (int o = 0; o < orders; o++) {
+                assertEquals("OK 2", mine.get(1 + 2 * o).substring(0, 4));
+                String[] checkout = mine.get(2 + 2 * o).split(" ");
+                assertEquals("OK", checkout[0]);
+                int id = Integer.parseInt(checkout[1]);
+                assertTrue(id > last, "IDs out of order on one connection");
+                assertTrue(id <= clients * orders && !seen[id], "bad or duplicate ID " + id);
+                seen[id] = true;
+                last = id;
+            }
+        }
+    }
+
+    // Send the whole burst in one write, then read `answers` lines.
+    private List<String> send(String burst, int answers) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(burst.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            String line;
+            while (lines.size() < answers && (line = in.readLine()) != null) lines.add(line);
+            return lines;
+        }
+    }
+
+    private static String money(long centavos) {
+        return Money.append(new StringBuilder(), centavos).toString();
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TransactionIdAllocatorTest
+ *
+ * Maraming thread na sabay-sabay kumukuha ng ID: walang duplicate, walang gap.
+ *
+ * // Every thread waits on one latch so they all start hammering next() together; platform
+ * // threads for real parallel contention, virtual threads for the many-terminals case.
+ */
+class TransactionIdAllocatorTest {
+
+    @Test
+    void platformThreadsGetDenseUniqueIds() throws InterruptedException {
+        checkDenseAndUnique(Thread.ofPlatform(), 16, 20_000);
+    }
+
+    @Test
+    void virtualThreadsGetDenseUniqueIds() throws InterruptedException {
+        checkDenseAndUnique(Thread.ofVirtual(), 1_000, 500);
+    }
+
+    @Test
+    void advancePastRacingWithNextNeverReusesAnId() throws InterruptedException {
+        TransactionIdAllocator ids = new TransactionIdAllocator(1);
+        int threads = 8;
+        int perThread = 10_000;
+        int[][] got = new int[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads + 1];
+        for (int t = 0; t < threads; t++) {
+            int[] mine = got[t];
+            workers[t] = Thread.ofPlatform().start(() -> {
+                await(start);
+                for (int i = 0; i < mine.length; i++) mine[i] = ids.next();
+            });
+        }
+        // Recovery pushing the counter forward while terminals check out.
+        workers[threads] = Thread.ofPlatform().start(() -> {
+            await(start);
+            for (int i = 1; i <= 1_000; i++) ids.advancePast(i * 50);
+        });
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        BitSet seen = new BitSet();
+        for (int[] mine : got) {
+            for (int id : mine) {
+                assertTrue(id > 0, "bad ID " + id);
+                assertFalse(seen.get(id), "duplicate ID " + id);
+                seen.set(id);
+            }
+        }
+        assertEquals(threads * perThread, seen.cardinality());
+        assertTrue(ids.peek() > Math.max(seen.length() - 1, 50_000));
+    }
+
+    private static void checkDenseAndUnique(Thread.Builder builder, int threads, int perThread)
+            throws InterruptedException {
+        TransactionIdAllocator ids = new TransactionIdAllocator(1);
+        int[][] got = new int[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int[] mine = got[t];
+            workers[t] = builder.start(() -> {
+                await(start);
+                for (int i = 0; i < mine.length; i++) mine[i] = ids.next();
+            });
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        int total = threads * perThread;
+        BitSet seen = new BitSet(total + 1);
+        for (int[] mine : got) {
+            for (int i = 0; i < mine.length; i++) {
+                int id = mine[i];
+                assertTrue(id >= 1 && id <= total, "ID out of range: " + id);
+                assertFalse(seen.get(id), "duplicate ID " + id);
+                seen.set(id);
+                // Each thread's own IDs only go up.
+                if (i > 0) assertTrue(mine[i - 1] < id, "IDs went backwards: " + mine[i - 1] + " then " + id);
+            }
+        }
+        assertEquals(total, seen.cardinality(), "gaps in IDs");
+        assertEquals(total + 1, ids.peek());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * UserStoreTest
+ *
+ * users.dat na may sirang entries: login for those users fails closed, and everyone else still
+ * logs in. Also the dummy hash for unknown users, and default accounts only on first run.
+ *
+ * // Low iteration count (100) so the hashing doesn't dominate the run.
+ */
+class UserStoreTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void badEntriesAreSkippedAndFailClosed() throws IOException {
+        File file = new File(dir, "users.dat");
+        UserStore writer = new UserStore(file, 100);
+        assertTrue(writer.add("good", "Secret123"));
+        String hash32 = "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=";
+        Files.writeString(file.toPath(), String.join("\n",
+                "zero:0:AAAAAAAAAAAAAAAAAAAAAA==:" + hash32,
+                "negative:-5:AAAAAAAAAAAAAAAAAAAAAA==:" + hash32,
+                "nosalt:100::" + hash32,
+                "shorthash:100:AAAAAAAAAAAAAAAAAAAAAA==:AAAA",
+                "notbase64:100:!!!:" + hash32,
+                ""), StandardOpenOption.APPEND);
+
+        UserStore store = new UserStore(file, 100);
+        store.loadAsync();
+        assertTrue(store.verify("good", "Secret123"));
+        for (String user : new String[] {"zero", "negative", "nosalt", "shorthash", "notbase64"}) {
+            assertFalse(store.contains(user), user);
+            assertFalse(store.verify(user, "anything"), user);
+        }
+    }
+
+    @Test
+    void failedDefaultUserDoesNotBreakLaterLookups() throws IOException {
+        UserStore store = new UserStore(new File(dir, "users.dat"), 100);
+        store.loadAsync();
+        store.addDefault("bad:name", "Secret123"); // rejected by addNow
+        store.addDefault("karl", "Lonely123");
+        assertFalse(store.contains("bad:name"));
+        assertTrue(store.verify("karl", "Lonely123"));
+        assertTrue(store.add("another", "Secret123"));
+    }
+
+    @Test
+    void unknownUserIsHashedAtTheStoredWorkFactor() throws IOException {
+        File file = new File(dir, "users.dat");
+        UserStore writer = new UserStore(file, 100);
+        assertTrue(writer.add("good", "Secret123"));
+        assertTrue(writer.add("other", "Secret123"));
+
+        // Configured count went way up since; the stored entries still use 100.
+        UserStore store = new UserStore(file, 2_000_000);
+        store.loadAsync();
+        assertTrue(store.verify("good", "Secret123"));
+        long t0 = System.nanoTime();
+        assertFalse(store.verify("nobody", "Secret123"));
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+        assertTrue(millis < 200, "unknown user took " + millis + " ms, known ones take about 0");
+    }
+
+    @Test
+    void defaultUsersOnlyOnFirstRun() throws IOException {
+        File file = new File(dir, "users.dat");
+        UserStore first = new UserStore(file, 100);
+        first.addDefault("karl", "Lonely123");
+        first.addDefault("cashier", "Cashier123");
+        assertTrue(first.verify("karl", "Lonely123"));
+        assertTrue(first.verify("cashier", "Cashier123"));
+
+        // The owner removed cashier; it must not come back on the next start.
+        Files.writeString(file.toPath(), Files.readAllLines(file.toPath()).get(0) + "\n");
+        UserStore next = new UserStore(file, 100);
+        next.addDefault("karl", "Lonely123");
+        next.addDefault("cashier", "Cashier123");
+        assertTrue(next.verify("karl", "Lonely123"));
+        assertFalse(next.contains("cashier"));
+    }
+}